@@ -18,21 +18,36 @@
  */
 package de.rwth.idsg.steve;
 
+import de.rwth.idsg.steve.utils.VirtualThreads;
 import de.rwth.idsg.steve.web.dto.EndpointInfo;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.jetty.http.HttpScheme;
 import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.io.Connection;
+import org.eclipse.jetty.io.EndPoint;
+import org.eclipse.jetty.server.ConnectionFactory;
 import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.Handler;
 import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.HttpConnection;
 import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.Request;
 import org.eclipse.jetty.server.SecureRequestCustomizer;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.ServerConnector;
 import org.eclipse.jetty.server.SslConnectionFactory;
+import org.eclipse.jetty.server.handler.HandlerWrapper;
+import org.eclipse.jetty.util.BlockingArrayQueue;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
 import org.eclipse.jetty.util.thread.QueuedThreadPool;
 import org.eclipse.jetty.util.thread.ScheduledExecutorScheduler;
+import org.eclipse.jetty.util.thread.Scheduler;
+import org.eclipse.jetty.util.thread.ThreadPool;
 
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.net.DatagramSocket;
 import java.net.Inet4Address;
 import java.net.InetAddress;
@@ -45,8 +60,13 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -60,9 +80,14 @@ import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
 public class JettyServer {
 
     private Server server;
+    private Scheduler scheduler;
+
+    // Names of the connectors and their thread pools
+    private static final String WEB = "web";
+    private static final String OCPP_SOAP = "ocpp-soap";
+    private static final String OCPP_JSON = "ocpp-json";
 
     private static final int MIN_THREADS = 4;
-    private static final int MAX_THREADS = 50;
 
     private static final long STOP_TIMEOUT = TimeUnit.SECONDS.toMillis(5);
     private static final long IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(1);
@@ -72,17 +97,20 @@ public class JettyServer {
      */
     private void prepare() {
 
+        SteveConfiguration.Jetty jettyConfig = CONFIG.getJetty();
+
         // === jetty.xml ===
-        // Setup Threadpool
-        QueuedThreadPool threadPool = new QueuedThreadPool();
-        threadPool.setMinThreads(MIN_THREADS);
-        threadPool.setMaxThreads(MAX_THREADS);
+        // Setup Threadpools. The one of the server is used by the main connectors
+        Map<String, ThreadPool> threadPools = new LinkedHashMap<>();
+        QueuedThreadPool threadPool = threadPool(WEB, jettyConfig.getWebThreads(), jettyConfig.getWebQueue());
+        threadPools.put(WEB, threadPool);
 
         // Server
         server = new Server(threadPool);
 
         // Scheduler
-        server.addBean(new ScheduledExecutorScheduler());
+        scheduler = new ScheduledExecutorScheduler();
+        server.addBean(scheduler);
 
         // HTTP Configuration
         HttpConfiguration httpConfig = new HttpConfiguration();
@@ -102,27 +130,123 @@ public class JettyServer {
         server.setStopTimeout(STOP_TIMEOUT);
 
         if (CONFIG.getJetty().isHttpEnabled()) {
-            server.addConnector(httpConnector(httpConfig));
+            server.addConnector(httpConnector(httpConfig, threadPool, jettyConfig.getWebThreads()));
         }
 
         if (CONFIG.getJetty().isHttpsEnabled()) {
-            server.addConnector(httpsConnector(httpConfig));
+            server.addConnector(httpsConnector(httpConfig, threadPool, jettyConfig.getWebThreads()));
+        }
+
+        if (jettyConfig.isSoapConnectorEnabled()) {
+            QueuedThreadPool pool = threadPool(OCPP_SOAP, jettyConfig.getSoapThreads(), jettyConfig.getSoapQueue());
+            threadPools.put(OCPP_SOAP, pool);
+            server.addConnector(ocppConnector(httpConfig, OCPP_SOAP, jettyConfig.getSoapPort(), pool,
+                    jettyConfig.getSoapThreads()));
+        }
+
+        if (jettyConfig.isJsonConnectorEnabled()) {
+            QueuedThreadPool pool = threadPool(OCPP_JSON, jettyConfig.getJsonThreads(), jettyConfig.getJsonQueue());
+            threadPools.put(OCPP_JSON, pool);
+            server.addConnector(ocppConnector(httpConfig, OCPP_JSON, jettyConfig.getJsonPort(), pool,
+                    jettyConfig.getJsonThreads()));
+        }
+
+        SteveAppContext steveAppContext = new SteveAppContext(threadPools);
+        server.setHandler(new ConnectorPathHandler(steveAppContext.getHandlers()));
+    }
+
+    /**
+     * The queue is bounded. When it is full, Jetty rejects the job and closes the connection, which is better than
+     * letting requests wait until the clients time out anyway.
+     *
+     * With virtual threads, the pool starts virtual instead of platform threads, and can have many more of them. It
+     * only handles the requests then, see {@link #newConnector}.
+     */
+    private static QueuedThreadPool threadPool(String name, int maxThreads, int queueCapacity) {
+        SteveConfiguration.ThreadPools poolConfig = CONFIG.getThreadPools();
+        if (poolConfig.isVirtualThreads()) {
+            maxThreads = poolConfig.getVirtualJettyMaxThreads();
+        }
+        return newThreadPool(name, maxThreads, queueCapacity, poolConfig.isVirtualThreads());
+    }
+
+    public static QueuedThreadPool newThreadPool(String name, int maxThreads, int queueCapacity, boolean virtual) {
+        int minThreads = Math.min(MIN_THREADS, maxThreads);
+        BlockingArrayQueue<Runnable> queue = new BlockingArrayQueue<>(Math.min(queueCapacity, 128), 128, queueCapacity);
+
+        QueuedThreadPool threadPool;
+        if (virtual) {
+            threadPool = new VirtualQueuedThreadPool("jetty-" + name, maxThreads, minThreads, (int) IDLE_TIMEOUT,
+                    queue);
+            // Virtual threads are always daemon threads. Setting it to false would fail
+            threadPool.setDaemon(true);
+        } else {
+            threadPool = new QueuedThreadPool(maxThreads, minThreads, (int) IDLE_TIMEOUT, queue);
+        }
+        threadPool.setName("jetty-" + name);
+        return threadPool;
+    }
+
+    /**
+     * The connector runs its acceptors and selectors on its executor, and the requests on the pool. Without virtual
+     * threads, the pool is the executor.
+     *
+     * A virtual pool only handles the requests. The acceptors and selectors block for the lifetime of the connector,
+     * where a virtual thread gains nothing, but may pin its carrier thread. The executor is a platform pool of its own
+     * then, and each HTTP connection hands its requests over to the virtual pool (see
+     * {@link VirtualHttpConnectionFactory}). The frames of an upgraded WebSocket connection are read by Jetty on the
+     * executor, which is why it has as many threads as the platform pool would have.
+     *
+     * The connector manages both pools, unless the pool is the one of the server (which is already running then).
+     */
+    public static ServerConnector newConnector(Server server, Scheduler scheduler, String name, QueuedThreadPool pool,
+                                               int platformThreads, HttpConfiguration httpConfig,
+                                               SslContextFactory sslContextFactory) {
+        Executor executor;
+        HttpConnectionFactory http;
+        if (pool instanceof VirtualQueuedThreadPool) {
+            executor = newThreadPool(name + "-io", platformThreads, Integer.MAX_VALUE, false);
+            http = new VirtualHttpConnectionFactory(httpConfig, pool);
+        } else {
+            executor = pool;
+            http = new HttpConnectionFactory(httpConfig);
         }
 
-        SteveAppContext steveAppContext = new SteveAppContext();
-        server.setHandler(steveAppContext.getHandlers());
+        ConnectionFactory[] factories;
+        if (sslContextFactory == null) {
+            factories = new ConnectionFactory[]{http};
+        } else {
+            factories = new ConnectionFactory[]{
+                    new SslConnectionFactory(sslContextFactory, HttpVersion.HTTP_1_1.asString()), http};
+        }
+
+        ServerConnector connector = new ServerConnector(server, executor, scheduler, null, -1, -1, factories);
+        connector.addBean(pool);
+        connector.setName(name);
+        return connector;
     }
 
-    private ServerConnector httpConnector(HttpConfiguration httpConfig) {
+    private ServerConnector ocppConnector(HttpConfiguration httpConfig, String name, int port, QueuedThreadPool pool,
+                                          int platformThreads) {
+        ServerConnector connector = newConnector(server, scheduler, name, pool, platformThreads, httpConfig, null);
+        connector.setHost(CONFIG.getJetty().getServerHost());
+        connector.setPort(port);
+        connector.setIdleTimeout(IDLE_TIMEOUT);
+        connector.setAcceptQueueSize(CONFIG.getJetty().getAcceptQueue());
+        return connector;
+    }
+
+    private ServerConnector httpConnector(HttpConfiguration httpConfig, QueuedThreadPool pool, int platformThreads) {
         // === jetty-http.xml ===
-        ServerConnector http = new ServerConnector(server, new HttpConnectionFactory(httpConfig));
+        ServerConnector http = newConnector(server, scheduler, WEB, pool, platformThreads, httpConfig, null);
         http.setHost(CONFIG.getJetty().getServerHost());
         http.setPort(CONFIG.getJetty().getHttpPort());
         http.setIdleTimeout(IDLE_TIMEOUT);
+        http.setAcceptQueueSize(CONFIG.getJetty().getAcceptQueue());
         return http;
     }
 
-    private ServerConnector httpsConnector(HttpConfiguration httpConfig) {
+    private ServerConnector httpsConnector(HttpConfiguration httpConfig, QueuedThreadPool pool, int platformThreads) {
         // === jetty-https.xml ===
         // SSL Context Factory
         SslContextFactory sslContextFactory = new SslContextFactory();
@@ -143,12 +267,12 @@ public class JettyServer {
         httpsConfig.addCustomizer(new SecureRequestCustomizer());
 
         // SSL Connector
-        ServerConnector https = new ServerConnector(server,
-                new SslConnectionFactory(sslContextFactory, HttpVersion.HTTP_1_1.asString()),
-                new HttpConnectionFactory(httpsConfig));
+        ServerConnector https = newConnector(server, scheduler, WEB, pool, platformThreads, httpsConfig,
+                sslContextFactory);
         https.setHost(CONFIG.getJetty().getServerHost());
         https.setPort(CONFIG.getJetty().getHttpsPort());
         https.setIdleTimeout(IDLE_TIMEOUT);
+        https.setAcceptQueueSize(CONFIG.getJetty().getAcceptQueue());
         return https;
     }
 
@@ -184,21 +308,24 @@ public class JettyServer {
     }
 
     public void populateEndpointInfo() {
-        List<String> list = getConnectorPathList();
+        SteveConfiguration.Jetty jettyConfig = CONFIG.getJetty();
+        String soapConnector = jettyConfig.isSoapConnectorEnabled() ? OCPP_SOAP : WEB;
+        String jsonConnector = jettyConfig.isJsonConnectorEnabled() ? OCPP_JSON : WEB;
 
         EndpointInfo info = EndpointInfo.INSTANCE;
 
-        info.getWebInterface().setData(buildList(list, false));
-        info.getOcppSoap().setData(buildList(list, false));
-        info.getOcppWebSocket().setData(buildList(list, true));
+        info.getWebInterface().setData(buildList(getConnectorPathList(WEB), false));
+        info.getOcppSoap().setData(buildList(getConnectorPathList(soapConnector), false));
+        info.getOcppWebSocket().setData(buildList(getConnectorPathList(jsonConnector), true));
     }
 
-    private List<String> getConnectorPathList() {
+    private List<String> getConnectorPathList(String connectorName) {
         if (server == null) {
             return Collections.emptyList();
         }
 
         return Arrays.stream(server.getConnectors())
+                     .filter(c -> connectorName.equals(c.getName()))
                      .map(JettyServer::getConnectorPath)
                      .flatMap(Collection::stream)
                      .collect(Collectors.toList());
@@ -298,4 +425,92 @@ public class JettyServer {
 
         return ips;
     }
+
+    /**
+     * Restricts the dedicated OCPP connectors to their paths, so that e.g. the web interface is not reachable through
+     * them. The main connectors serve everything.
+     */
+    private static class ConnectorPathHandler extends HandlerWrapper {
+
+        private final String soapPrefix = CONFIG.getContextPath() + CONFIG.getCxfMapping().replace("*", "");
+
+        // As registered in WebSocketConfiguration
+        private final String jsonPrefix = CONFIG.getContextPath() + "/websocket/";
+
+        private ConnectorPathHandler(Handler handler) {
+            setHandler(handler);
+        }
+
+        @Override
+        public void handle(String target, Request baseRequest, HttpServletRequest request,
+                           HttpServletResponse response) throws IOException, ServletException {
+            String connector = baseRequest.getHttpChannel().getConnector().getName();
+            String path = request.getRequestURI();
+
+            boolean allowed;
+            if (OCPP_SOAP.equals(connector)) {
+                allowed = path.startsWith(soapPrefix);
+            } else if (OCPP_JSON.equals(connector)) {
+                allowed = path.startsWith(jsonPrefix);
+            } else {
+                allowed = true;
+            }
+
+            if (allowed) {
+                super.handle(target, baseRequest, request, response);
+            } else {
+                baseRequest.setHandled(true);
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            }
+        }
+    }
+
+    /**
+     * Jetty 9.4 has no support for virtual threads, but creates all of its threads in {@link #newThread(Runnable)}.
+     */
+    private static class VirtualQueuedThreadPool extends QueuedThreadPool {
+        private final ThreadFactory threadFactory;
+
+        private VirtualQueuedThreadPool(String name, int maxThreads, int minThreads, int idleTimeout,
+                                        BlockingArrayQueue<Runnable> queue) {
+            super(maxThreads, minThreads, idleTimeout, queue);
+            this.threadFactory = VirtualThreads.threadFactory(name + "-");
+        }
+
+        @Override
+        protected Thread newThread(Runnable runnable) {
+            return threadFactory.newThread(runnable);
+        }
+    }
+
+    /**
+     * Once the selector finds an HTTP connection readable, the connection reads, parses and handles its requests on
+     * a virtual thread. If the queue of the pool is full, the connection is closed, like Jetty does for a rejected
+     * job.
+     */
+    private static class VirtualHttpConnectionFactory extends HttpConnectionFactory {
+        private final Executor executor;
+
+        private VirtualHttpConnectionFactory(HttpConfiguration httpConfig, Executor executor) {
+            super(httpConfig);
+            this.executor = executor;
+        }
+
+        @Override
+        public Connection newConnection(Connector connector, EndPoint endPoint) {
+            HttpConnection connection = new HttpConnection(getHttpConfiguration(), connector, endPoint,
+                    getHttpCompliance(), isRecordHttpComplianceViolations()) {
+                @Override
+                public void onFillable() {
+                    try {
+                        executor.execute(super::onFillable);
+                    } catch (RejectedExecutionException e) {
+                        log.warn("Rejected the requests of {}, closing the connection", endPoint, e);
+                        close();
+                    }
+                }
+            };
+            return configure(connection, connector, endPoint);
+        }
+    }
 }
@@ -32,6 +32,7 @@ import org.eclipse.jetty.server.handler.HandlerList;
 import org.eclipse.jetty.server.handler.gzip.GzipHandler;
 import org.eclipse.jetty.servlet.FilterHolder;
 import org.eclipse.jetty.servlet.ServletHolder;
+import org.eclipse.jetty.util.thread.ThreadPool;
 import org.eclipse.jetty.webapp.WebAppContext;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.security.web.context.AbstractSecurityWebApplicationInitializer;
@@ -47,6 +48,7 @@ import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
 
@@ -58,9 +60,15 @@ public class SteveAppContext {
 
     private AnnotationConfigWebApplicationContext springContext;
 
-    public SteveAppContext() {
+    /**
+     * @param jettyThreadPools (name, pool) pairs of the Jetty thread pools. They are created outside of Spring, but
+     *                         we want to expose their metrics
+     */
+    public SteveAppContext(Map<String, ThreadPool> jettyThreadPools) {
         springContext = new AnnotationConfigWebApplicationContext();
         springContext.scan("de.rwth.idsg.steve.config");
+        springContext.addBeanFactoryPostProcessor(
+                bf -> jettyThreadPools.forEach((name, pool) -> bf.registerSingleton("jetty-" + name, pool)));
     }
 
     public HandlerCollection getHandlers() {
@@ -18,14 +18,20 @@
  */
 package de.rwth.idsg.steve;
 
+import de.rwth.idsg.steve.ocpp.ws.custom.MessageIdStrategy;
+import de.rwth.idsg.steve.ocpp.ws.custom.MessageIdStrategyEnum;
 import de.rwth.idsg.steve.ocpp.ws.custom.WsSessionSelectStrategy;
 import de.rwth.idsg.steve.ocpp.ws.custom.WsSessionSelectStrategyEnum;
 import de.rwth.idsg.steve.utils.PropertiesFileLoader;
+import de.rwth.idsg.steve.utils.VirtualThreads;
 import lombok.Builder;
 import lombok.Getter;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.HashSet;
+import java.util.Set;
+
 /**
  * @author Sevket Goekay <goekay@dbis.rwth-aachen.de>
  * @since 19.08.2014
@@ -54,6 +60,9 @@ public enum SteveConfiguration {
     private final String gitDescribe;
     private final ApplicationProfile profile;
     private final Ocpp ocpp;
+    private final Journal journal;
+    private final WriteAheadLog writeAheadLog;
+    private final ThreadPools threadPools;
     private final Auth auth;
     private final DB db;
     private final Jetty jetty;
@@ -75,6 +84,15 @@ public enum SteveConfiguration {
                      .httpsPort(p.getInt("https.port"))
                      .keyStorePath(p.getOptionalString("keystore.path"))
                      .keyStorePassword(p.getOptionalString("keystore.password"))
+                     .webThreads(useFallbackIfNotSet(p.getOptionalInt("server.web.threads"), 50))
+                     .webQueue(useFallbackIfNotSet(p.getOptionalInt("server.web.queue"), 1000))
+                     .acceptQueue(useFallbackIfNotSet(p.getOptionalInt("server.accept.queue"), 128))
+                     .soapPort(useFallbackIfNotSet(p.getOptionalInt("ocpp.soap.port"), 0))
+                     .soapThreads(useFallbackIfNotSet(p.getOptionalInt("ocpp.soap.threads"), 50))
+                     .soapQueue(useFallbackIfNotSet(p.getOptionalInt("ocpp.soap.queue"), 1000))
+                     .jsonPort(useFallbackIfNotSet(p.getOptionalInt("ocpp.json.port"), 0))
+                     .jsonThreads(useFallbackIfNotSet(p.getOptionalInt("ocpp.json.threads"), 50))
+                     .jsonQueue(useFallbackIfNotSet(p.getOptionalInt("ocpp.json.queue"), 1000))
                      .build();
 
         db = DB.builder()
@@ -98,8 +116,64 @@ public enum SteveConfiguration {
                    .autoRegisterUnknownStations(p.getOptionalBoolean("auto.register.unknown.stations"))
                    .wsSessionSelectStrategy(
                            WsSessionSelectStrategyEnum.fromName(p.getString("ws.session.select.strategy")))
+                   .messageIdStrategy(
+                           MessageIdStrategyEnum.fromName(useFallbackIfNotSet(
+                                   p.getOptionalString("ws.message.id.strategy"),
+                                   MessageIdStrategyEnum.SESSION_COUNTER.name())))
+                   .wsBufferBudgetBytes(
+                           useFallbackIfNotSet(p.getOptionalInt("ws.buffer.budget.mb"), 512) * 1024L * 1024L)
+                   .wsSessionBufferBytes(
+                           useFallbackIfNotSet(p.getOptionalInt("ws.buffer.session.limit.kb"), 1024) * 1024)
+                   .wsLargeSessionBufferBytes(
+                           useFallbackIfNotSet(p.getOptionalInt("ws.buffer.large.session.limit.kb"), 40960) * 1024)
+                   .wsLargeBufferStations(new HashSet<>(p.getStringList("ws.buffer.large.session.stations")))
+                   .wsResponseCacheSize(useFallbackIfNotSet(p.getOptionalInt("ws.response.cache.size"), 8))
+                   .wsResponseCacheTtlSeconds(
+                           useFallbackIfNotSet(p.getOptionalInt("ws.response.cache.ttl.seconds"), 600))
+                   .skipRepeatedStatusNotifications(p.getOptionalBoolean("status.notification.skip.repeats"))
+                   .callLimiterEnabled(p.getOptionalBoolean("ocpp.limiter.enabled"))
+                   .callLimiterMin(useFallbackIfNotSet(p.getOptionalInt("ocpp.limiter.min"), 4))
+                   .callLimiterMax(useFallbackIfNotSet(p.getOptionalInt("ocpp.limiter.max"), 100))
+                   .callLimiterDbLatencyTargetMillis(
+                           useFallbackIfNotSet(p.getOptionalInt("ocpp.limiter.db.latency.target.ms"), 100))
                    .build();
 
+        journal = Journal.builder()
+                         .enabled(p.getOptionalBoolean("journal.enabled"))
+                         .directory(useFallbackIfNotSet(p.getOptionalString("journal.directory"), "journal"))
+                         .samplePercent(useFallbackIfNotSet(p.getOptionalInt("journal.sample.percent"), 100))
+                         .segmentSizeBytes(toSegmentSizeBytes("journal.segment.size.mb",
+                                 useFallbackIfNotSet(p.getOptionalInt("journal.segment.size.mb"), 64)))
+                         .maxSegments(useFallbackIfNotSet(p.getOptionalInt("journal.max.segments"), 32))
+                         .maxFrameBytes(useFallbackIfNotSet(p.getOptionalInt("journal.max.frame.kb"), 256) * 1024)
+                         .queueCapacity(useFallbackIfNotSet(p.getOptionalInt("journal.queue.capacity"), 100_000))
+                         .build();
+
+        writeAheadLog = WriteAheadLog.builder()
+                                     .enabled(p.getOptionalBoolean("wal.enabled"))
+                                     .directory(useFallbackIfNotSet(p.getOptionalString("wal.directory"), "wal"))
+                                     .segmentSizeBytes(toSegmentSizeBytes("wal.segment.size.mb",
+                                             useFallbackIfNotSet(p.getOptionalInt("wal.segment.size.mb"), 16)))
+                                     .maxSegments(useFallbackIfNotSet(p.getOptionalInt("wal.max.segments"), 64))
+                                     .build();
+
+        threadPools = ThreadPools.builder()
+                                 .pingThreads(useFallbackIfNotSet(p.getOptionalInt("executor.ping.threads"), 2))
+                                 .notificationThreads(
+                                         useFallbackIfNotSet(p.getOptionalInt("executor.notification.threads"), 2))
+                                 .notificationQueue(
+                                         useFallbackIfNotSet(p.getOptionalInt("executor.notification.queue"), 1000))
+                                 .fanOutThreads(useFallbackIfNotSet(p.getOptionalInt("executor.fanout.threads"), 5))
+                                 .fanOutQueue(useFallbackIfNotSet(p.getOptionalInt("executor.fanout.queue"), 1000))
+                                 .writeBehindThreads(
+                                         useFallbackIfNotSet(p.getOptionalInt("executor.writebehind.threads"), 2))
+                                 .writeBehindQueue(
+                                         useFallbackIfNotSet(p.getOptionalInt("executor.writebehind.queue"), 10_000))
+                                 .virtualThreads(p.getOptionalBoolean("virtual.threads.enabled"))
+                                 .virtualJettyMaxThreads(
+                                         useFallbackIfNotSet(p.getOptionalInt("virtual.threads.jetty.max"), 1000))
+                                 .build();
+
         validate();
     }
 
@@ -123,6 +197,20 @@ public enum SteveConfiguration {
         }
     }
 
+    private static int useFallbackIfNotSet(Integer value, int fallback) {
+        return value == null ? fallback : value;
+    }
+
+    /**
+     * Segments are memory-mapped as a whole, and a mapping cannot be larger than 2 GB
+     */
+    private static int toSegmentSizeBytes(String key, int megabytes) {
+        if (megabytes < 1 || megabytes > 1024) {
+            throw new IllegalArgumentException(key + " must be between 1 and 1024, but is " + megabytes);
+        }
+        return megabytes * 1024 * 1024;
+    }
+
     private String sanitizeContextPath(String s) {
         if (s == null || "/".equals(s)) {
             return "";
@@ -140,6 +228,19 @@ public enum SteveConfiguration {
             throw new IllegalArgumentException(
                     "HTTP and HTTPS are both disabled. Well, how do you want to access the server, then?");
         }
+
+        if (journal.enabled && (journal.maxFrameBytes <= 0 || journal.maxFrameBytes >= journal.segmentSizeBytes)) {
+            throw new IllegalArgumentException(
+                    "The max frame size of the journal must be positive and smaller than its segments");
+        }
+
+        if (ocpp.callLimiterMin < 1 || ocpp.callLimiterMin > ocpp.callLimiterMax) {
+            throw new IllegalArgumentException("The limits of the OCPP call limiter must satisfy 1 <= min <= max");
+        }
+
+        if (threadPools.virtualThreads && !VirtualThreads.isAvailable()) {
+            throw new IllegalArgumentException("Virtual threads are enabled, but they require Java 21 or newer");
+        }
     }
 
     // -------------------------------------------------------------------------
@@ -161,6 +262,27 @@ public enum SteveConfiguration {
         private final int httpsPort;
         private final String keyStorePath;
         private final String keyStorePassword;
+
+        // Thread pool of the connectors above and their accept queue
+        private final int webThreads;
+        private final int webQueue;
+        private final int acceptQueue;
+
+        // Dedicated OCPP connectors (disabled with port 0) and their thread pools
+        private final int soapPort;
+        private final int soapThreads;
+        private final int soapQueue;
+        private final int jsonPort;
+        private final int jsonThreads;
+        private final int jsonQueue;
+
+        public boolean isSoapConnectorEnabled() {
+            return soapPort > 0;
+        }
+
+        public boolean isJsonConnectorEnabled() {
+            return jsonPort > 0;
+        }
     }
 
     // Database configuration
@@ -187,6 +309,60 @@ public enum SteveConfiguration {
     public static class Ocpp {
         private final boolean autoRegisterUnknownStations;
         private final WsSessionSelectStrategy wsSessionSelectStrategy;
+        private final MessageIdStrategy messageIdStrategy;
+
+        // Memory limits of WebSocket sessions
+        private final long wsBufferBudgetBytes;
+        private final int wsSessionBufferBytes;
+        private final int wsLargeSessionBufferBytes;
+        private final Set<String> wsLargeBufferStations;
+
+        // Responses to the recent calls of WebSocket stations, for answering retransmitted calls
+        private final int wsResponseCacheSize;
+        private final int wsResponseCacheTtlSeconds;
+
+        private final boolean skipRepeatedStatusNotifications;
+
+        // Load shedding of incoming calls, when the database is saturated
+        private final boolean callLimiterEnabled;
+        private final int callLimiterMin;
+        private final int callLimiterMax;
+        private final int callLimiterDbLatencyTargetMillis;
+    }
+
+    // Journal of the OCPP-J traffic
+    @Builder @Getter
+    public static class Journal {
+        private final boolean enabled;
+        private final String directory;
+        private final int samplePercent;
+        private final int segmentSizeBytes;
+        private final int maxSegments;
+        private final int maxFrameBytes;
+        private final int queueCapacity;
+    }
+
+    // Local buffer of transaction and meter value writes, while the database is unreachable
+    @Builder @Getter
+    public static class WriteAheadLog {
+        private final boolean enabled;
+        private final String directory;
+        private final int segmentSizeBytes;
+        private final int maxSegments;
+    }
+
+    // Sizes of the background executors (threads, queue capacity), and whether blocking work runs on virtual threads
+    @Builder @Getter
+    public static class ThreadPools {
+        private final int pingThreads;
+        private final int notificationThreads;
+        private final int notificationQueue;
+        private final int fanOutThreads;
+        private final int fanOutQueue;
+        private final int writeBehindThreads;
+        private final int writeBehindQueue;
+        private final boolean virtualThreads;
+        private final int virtualJettyMaxThreads;
     }
 
 }
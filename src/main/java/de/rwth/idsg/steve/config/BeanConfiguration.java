@@ -18,23 +18,33 @@
  */
 package de.rwth.idsg.steve.config;
 
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.mysql.cj.conf.PropertyKey;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import de.rwth.idsg.steve.SteveConfiguration;
+import de.rwth.idsg.steve.jfr.JfrExecuteListener;
+import de.rwth.idsg.steve.metrics.MetricsExecuteListener;
+import de.rwth.idsg.steve.metrics.QueryProfilerListener;
 import de.rwth.idsg.steve.service.DummyReleaseCheckService;
 import de.rwth.idsg.steve.service.GithubReleaseCheckService;
 import de.rwth.idsg.steve.service.ReleaseCheckService;
 import de.rwth.idsg.steve.utils.DateTimeUtils;
 import de.rwth.idsg.steve.utils.InternetChecker;
+import de.rwth.idsg.steve.web.QueryProfilerInterceptor;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jetty.JettyServerThreadPoolMetrics;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jetty.util.thread.ThreadPool;
 import org.jooq.DSLContext;
 import org.jooq.SQLDialect;
 import org.jooq.conf.Settings;
 import org.jooq.impl.DSL;
 import org.jooq.impl.DataSourceConnectionProvider;
 import org.jooq.impl.DefaultConfiguration;
+import org.jooq.impl.DefaultExecuteListenerProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
@@ -44,6 +54,7 @@ import org.springframework.core.Ordered;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -51,11 +62,7 @@ import org.springframework.web.servlet.view.InternalResourceViewResolver;
 
 import javax.annotation.PreDestroy;
 import javax.validation.Validator;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
 
 import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
 
@@ -73,7 +80,10 @@ import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
 public class BeanConfiguration implements WebMvcConfigurer {
 
     private HikariDataSource dataSource;
-    private ScheduledThreadPoolExecutor executor;
+
+    // Created by JettyServer and registered in SteveAppContext (bean name -> pool). Not available, if SteVe runs in
+    // another container
+    @Autowired(required = false) private Map<String, ThreadPool> jettyThreadPools;
 
     /**
      * https://github.com/brettwooldridge/HikariCP/wiki/MySQL-Configuration
@@ -96,6 +106,10 @@ public class BeanConfiguration implements WebMvcConfigurer {
         hc.addDataSourceProperty(PropertyKey.characterEncoding.getKeyName(), "utf8");
         hc.addDataSourceProperty(PropertyKey.serverTimezone.getKeyName(), CONFIG.getTimeZoneId());
         hc.addDataSourceProperty(PropertyKey.useSSL.getKeyName(), true);
+        // Sends a batch of inserts (e.g. meter values) as one multi-row insert instead of a round trip per row
+        hc.addDataSourceProperty(PropertyKey.rewriteBatchedStatements.getKeyName(), true);
+
+        hc.setMetricRegistry(meterRegistry());
 
         dataSource = new HikariDataSource(hc);
     }
@@ -129,18 +143,28 @@ public class BeanConfiguration implements WebMvcConfigurer {
         org.jooq.Configuration conf = new DefaultConfiguration()
                 .set(SQLDialect.MYSQL)
                 .set(new DataSourceConnectionProvider(dataSource))
-                .set(settings);
+                .set(settings)
+                // Query events for JFR. Cheap when no recording is running
+                .set(new DefaultExecuteListenerProvider(new JfrExecuteListener()),
+                     new DefaultExecuteListenerProvider(new MetricsExecuteListener(meterRegistry())),
+                     new DefaultExecuteListenerProvider(new QueryProfilerListener()));
 
         return DSL.using(conf);
     }
 
+    /**
+     * The meters are scraped by {@link de.rwth.idsg.steve.web.controller.MetricsController}. The connection pool,
+     * Jetty and query meters are bound here, the executor ones in {@link ExecutorConfiguration} and the OCPP ones in
+     * {@link de.rwth.idsg.steve.metrics.OcppMetrics}.
+     */
     @Bean
-    public ScheduledExecutorService scheduledExecutorService() {
-        ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("SteVe-Executor-%d")
-                                                                .build();
-
-        executor = new ScheduledThreadPoolExecutor(5, threadFactory);
-        return executor;
+    public PrometheusMeterRegistry meterRegistry() {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        if (jettyThreadPools != null) {
+            jettyThreadPools.forEach(
+                    (name, pool) -> new JettyServerThreadPoolMetrics(pool, Tags.of("pool", name)).bindTo(registry));
+        }
+        return registry;
     }
 
     @Bean
@@ -173,26 +197,6 @@ public class BeanConfiguration implements WebMvcConfigurer {
         if (dataSource != null) {
             dataSource.close();
         }
-
-        if (executor != null) {
-            gracefulShutDown(executor);
-        }
-    }
-
-    private void gracefulShutDown(ExecutorService executor) {
-        try {
-            executor.shutdown();
-            executor.awaitTermination(30, TimeUnit.SECONDS);
-
-        } catch (InterruptedException e) {
-            log.error("Termination interrupted", e);
-
-        } finally {
-            if (!executor.isTerminated()) {
-                log.warn("Killing non-finished tasks");
-            }
-            executor.shutdownNow();
-        }
     }
 
     // -------------------------------------------------------------------------
@@ -219,6 +223,11 @@ public class BeanConfiguration implements WebMvcConfigurer {
         registry.addResourceHandler("/static/**").addResourceLocations("static/");
     }
 
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new QueryProfilerInterceptor());
+    }
+
     @Override
     public void addViewControllers(ViewControllerRegistry registry) {
         registry.addViewController("/manager/signin").setViewName("signin");
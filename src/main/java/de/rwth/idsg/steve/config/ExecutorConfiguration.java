@@ -0,0 +1,219 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.config;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import de.rwth.idsg.steve.SteveConfiguration;
+import de.rwth.idsg.steve.SteveException;
+import de.rwth.idsg.steve.utils.VirtualThreads;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+
+/**
+ * The executors for background work. Each kind of work has its own pool (bulkhead), so that e.g. a hanging SMTP
+ * server or an operation for many stations cannot delay the WebSocket pings.
+ *
+ * All executors are instrumented: The queue depth, active threads and rejections as gauges/counters, and the queue
+ * wait ("executor.idle") and run time ("executor") of the tasks as timers, tagged with the name of the executor.
+ * Inject them with {@link org.springframework.beans.factory.annotation.Qualifier} and the bean name.
+ *
+ * With virtual threads enabled, the notification, fan-out and write-behind executors start a virtual thread per task
+ * instead of queueing. The pings stay on platform threads, since they are short and must not wait for carriers.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+@Slf4j
+@Configuration
+public class ExecutorConfiguration {
+
+    @Autowired private MeterRegistry meterRegistry;
+
+    private final SteveConfiguration.ThreadPools config = CONFIG.getThreadPools();
+
+    // The raw executors, for shutting them down
+    private final List<ExecutorService> executors = new ArrayList<>();
+
+    /**
+     * Periodic pings of WebSocket connections. The queue of a scheduled executor cannot be bounded, but there is only
+     * one ping task per connection.
+     */
+    @Bean
+    public ScheduledExecutorService pingExecutor() {
+        String name = "ping";
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(config.getPingThreads(),
+                threadFactory(name), new RejectionHandler(name, rejectionCounter(name), false));
+
+        // Pings of closed connections are cancelled. Do not keep them in the queue until their next run
+        executor.setRemoveOnCancelPolicy(true);
+
+        executors.add(executor);
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, name);
+    }
+
+    /**
+     * The @Scheduled jobs, e.g. the heartbeat batch. Without a TaskScheduler bean, Spring would run them on the only
+     * ScheduledExecutorService, i.e. the pings, where a job that waits for the database would delay the pings.
+     *
+     * One thread per job: the adjustment of the OCPP call limit must not wait behind a heartbeat batch, since both are
+     * due when the database is slow.
+     */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(2);
+        scheduler.setThreadNamePrefix("SteVe-scheduled-");
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(30);
+        return scheduler;
+    }
+
+    /**
+     * Mails. When the queue is full (e.g. because the SMTP server hangs), new mails are dropped.
+     */
+    @Bean
+    public ExecutorService notificationExecutor() {
+        return create("notification", config.getNotificationThreads(), config.getNotificationQueue(), false);
+    }
+
+    /**
+     * Sending operations to the stations. When the queue is full, the caller gets an error instead of the operation
+     * waiting behind an unknown number of others.
+     */
+    @Bean
+    public ExecutorService fanOutExecutor() {
+        return create("fan-out", config.getFanOutThreads(), config.getFanOutQueue(), true);
+    }
+
+    /**
+     * Database writes that are not part of a response. When the queue is full, the caller gets an error and decides
+     * what to do with the write: drop it, if it can be lost (e.g. because it is repeated with the next message), or
+     * run it itself.
+     */
+    @Bean
+    public ExecutorService writeBehindExecutor() {
+        return create("write-behind", config.getWriteBehindThreads(), config.getWriteBehindQueue(), true);
+    }
+
+    @PreDestroy
+    public void shutDown() {
+        executors.forEach(ExecutorConfiguration::gracefulShutDown);
+    }
+
+    private ExecutorService create(String name, int threads, int queueCapacity, boolean failCaller) {
+        ThreadPoolExecutor executor = newBoundedExecutor(name, threads, queueCapacity, config.isVirtualThreads(),
+                new RejectionHandler(name, rejectionCounter(name), failCaller));
+
+        executors.add(executor);
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, name);
+    }
+
+    /**
+     * At most threads + queueCapacity tasks are accepted at the same time, the others are rejected. With platform
+     * threads, the tasks beyond the thread count wait in the queue. With virtual threads, every accepted task gets its
+     * own thread right away and the queue stays empty, i.e. the "active" gauge is the one to watch.
+     */
+    @VisibleForTesting
+    public static ThreadPoolExecutor newBoundedExecutor(String name, int threads, int queueCapacity, boolean virtual,
+                                                        RejectedExecutionHandler rejectionHandler) {
+        if (virtual) {
+            return new ThreadPoolExecutor(0, threads + queueCapacity, 1, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                    VirtualThreads.threadFactory("SteVe-" + name + "-"), rejectionHandler);
+        }
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), threadFactory(name), rejectionHandler);
+
+        // Most of the time there is nothing to do for these pools
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private Counter rejectionCounter(String name) {
+        return Counter.builder("executor.rejected")
+                      .description("Tasks that were rejected, because the queue was full")
+                      .tag("name", name)
+                      .register(meterRegistry);
+    }
+
+    private static ThreadFactory threadFactory(String name) {
+        return new ThreadFactoryBuilder().setNameFormat("SteVe-" + name + "-%d")
+                                         .build();
+    }
+
+    private static void gracefulShutDown(ExecutorService executor) {
+        try {
+            executor.shutdown();
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+
+        } catch (InterruptedException e) {
+            log.error("Termination interrupted", e);
+
+        } finally {
+            if (!executor.isTerminated()) {
+                log.warn("Killing non-finished tasks");
+            }
+            executor.shutdownNow();
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class RejectionHandler implements RejectedExecutionHandler {
+        private final String name;
+        private final Counter counter;
+        private final boolean failCaller;
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                log.debug("Executor '{}' is shut down, dropping a task", name);
+                return;
+            }
+
+            counter.increment();
+            if (failCaller) {
+                throw new SteveException("Too many pending tasks in executor '%s'. Try again later", name);
+            }
+            log.warn("Executor '{}' is saturated, dropping a task", name);
+        }
+    }
+}
@@ -18,9 +18,14 @@
  */
 package de.rwth.idsg.steve.config;
 
+import de.rwth.idsg.steve.metrics.OcppMetrics;
+import de.rwth.idsg.steve.ocpp.OcppCallLimiter;
+import de.rwth.idsg.steve.ocpp.soap.CallLimiterInterceptors;
 import de.rwth.idsg.steve.ocpp.soap.LoggingFeatureProxy;
+import de.rwth.idsg.steve.ocpp.soap.JfrInterceptors;
 import de.rwth.idsg.steve.ocpp.soap.MediatorInInterceptor;
 import de.rwth.idsg.steve.ocpp.soap.MessageIdInterceptor;
+import de.rwth.idsg.steve.ocpp.soap.MetricsInterceptors;
 import org.apache.cxf.Bus;
 import org.apache.cxf.bus.spring.SpringBus;
 import org.apache.cxf.common.logging.LogUtils;
@@ -36,12 +41,12 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import javax.annotation.PostConstruct;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
 import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
-import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 
 /**
@@ -65,20 +70,38 @@ public class OcppConfiguration {
     @Qualifier("MessageHeaderInterceptor")
     private PhaseInterceptor<Message> messageHeaderInterceptor;
 
+    @Autowired private OcppMetrics ocppMetrics;
+    @Autowired private OcppCallLimiter callLimiter;
+
     @PostConstruct
     public void init() {
-        List<Interceptor<? extends Message>> interceptors = asList(new MessageIdInterceptor(), messageHeaderInterceptor);
+        List<Interceptor<? extends Message>> interceptors = new ArrayList<>();
+        interceptors.add(new MessageIdInterceptor());
+        interceptors.add(messageHeaderInterceptor);
+        interceptors.addAll(JfrInterceptors.in());
+
+        CallLimiterInterceptors limiter = new CallLimiterInterceptors(callLimiter);
+        interceptors.addAll(limiter.in());
+
+        MetricsInterceptors metrics = new MetricsInterceptors(ocppMetrics);
+        interceptors.addAll(metrics.in());
         List<Feature> logging = singletonList(LoggingFeatureProxy.INSTANCE.get());
 
-        createOcppService(ocpp12Server, "/CentralSystemServiceOCPP12", interceptors, logging);
-        createOcppService(ocpp15Server, "/CentralSystemServiceOCPP15", interceptors, logging);
-        createOcppService(ocpp16Server, "/CentralSystemServiceOCPP16", interceptors, logging);
+        List<Interceptor<? extends Message>> outInterceptors = new ArrayList<>();
+        outInterceptors.addAll(JfrInterceptors.out());
+        outInterceptors.addAll(metrics.out());
+        outInterceptors.addAll(limiter.out());
+
+        createOcppService(ocpp12Server, "/CentralSystemServiceOCPP12", interceptors, outInterceptors, logging);
+        createOcppService(ocpp15Server, "/CentralSystemServiceOCPP15", interceptors, outInterceptors, logging);
+        createOcppService(ocpp16Server, "/CentralSystemServiceOCPP16", interceptors, outInterceptors, logging);
 
         // Just a dummy service to route incoming messages to the appropriate service version. This should be the last
         // one to be created, since in MediatorInInterceptor we go over created/registered services and build a map.
         //
         List<Interceptor<? extends Message>> mediator = singletonList(new MediatorInInterceptor(springBus()));
-        createOcppService(ocpp12Server, CONFIG.getRouterEndpointPath(), mediator, Collections.emptyList());
+        createOcppService(ocpp12Server, CONFIG.getRouterEndpointPath(), mediator, Collections.emptyList(),
+                Collections.emptyList());
     }
 
     @Bean(name = Bus.DEFAULT_BUS_ID, destroyMethod = "shutdown")
@@ -88,6 +111,7 @@ public class OcppConfiguration {
 
     private void createOcppService(Object serviceBean, String address,
                                    List<Interceptor<? extends Message>> interceptors,
+                                   List<Interceptor<? extends Message>> outInterceptors,
                                    Collection<? extends Feature> features) {
         JaxWsServerFactoryBean f = new JaxWsServerFactoryBean();
         f.setBus(springBus());
@@ -95,6 +119,8 @@ public class OcppConfiguration {
         f.setAddress(address);
         f.getFeatures().addAll(features);
         f.getInInterceptors().addAll(interceptors);
+        f.getOutInterceptors().addAll(outInterceptors);
+        f.getOutFaultInterceptors().addAll(outInterceptors);
         f.create();
     }
 }
@@ -0,0 +1,59 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Spans an outgoing OCPP-J call from storing its pending context until the response arrives. Calls that are never
+ * answered (e.g. because the connection is closed) are not recorded.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+@Name("de.rwth.idsg.steve.CallRoundTrip")
+@Label("OCPP Call Round Trip")
+@Description("Outgoing call from sending until its response arrives")
+@Category({"SteVe", "OCPP"})
+@StackTrace(false)
+public class CallRoundTripEvent extends jdk.jfr.Event {
+
+    @Label("Charge Box Id")
+    private String chargeBoxId;
+
+    @Label("Operation")
+    private String operation;
+
+    @Label("Message Id")
+    private String messageId;
+
+    public void complete(String chargeBoxId, String operation, String messageId) {
+        end();
+        if (shouldCommit()) {
+            this.chargeBoxId = chargeBoxId;
+            this.operation = operation;
+            this.messageId = messageId;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.jfr;
+
+import de.rwth.idsg.steve.ocpp.CommunicationTask;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Spans a {@link CommunicationTask} from its creation until all charge points responded or failed. The single calls
+ * of the fan-out are recorded as {@link CallRoundTripEvent}s.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+@Name("de.rwth.idsg.steve.CommunicationTask")
+@Label("OCPP Communication Task")
+@Description("Fan-out of an operation to charge points until all responses or errors are in")
+@Category({"SteVe", "OCPP"})
+@StackTrace(false)
+public class CommunicationTaskEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    private String operation;
+
+    @Label("OCPP Version")
+    private String version;
+
+    @Label("Origin")
+    private String origin;
+
+    @Label("Charge Box Count")
+    private int chargeBoxCount;
+
+    @Label("Response Count")
+    private int responseCount;
+
+    @Label("Error Count")
+    private int errorCount;
+
+    public void set(CommunicationTask<?, ?> task) {
+        operation = task.getOperationName();
+        version = task.getOcppVersion().name();
+        origin = task.getOrigin().name();
+        chargeBoxCount = task.getResultSize();
+        responseCount = task.getResponseCount().get();
+        errorCount = task.getErrorCount().get();
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded by {@link JfrExecuteListener}. When the query belongs to an incoming OCPP message, the event is nested in
+ * its {@link MessageDispatchedEvent}.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+@Name("de.rwth.idsg.steve.DatabaseQuery")
+@Label("Database Query")
+@Description("Execution of a jOOQ query, including fetching the results")
+@Category({"SteVe", "Database"})
+public class DatabaseQueryEvent extends jdk.jfr.Event {
+
+    @Label("SQL")
+    private String sql;
+
+    @Label("Type")
+    private String type;
+
+    @Label("Affected Rows")
+    private int rows;
+
+    public void complete(String sql, String type, int rows) {
+        end();
+        if (shouldCommit()) {
+            this.sql = sql;
+            this.type = type;
+            this.rows = rows;
+            commit();
+        }
+    }
+}
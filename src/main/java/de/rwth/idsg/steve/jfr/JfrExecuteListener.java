@@ -0,0 +1,52 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.jfr;
+
+import org.jooq.ExecuteContext;
+import org.jooq.impl.DefaultExecuteListener;
+
+/**
+ * Records a {@link DatabaseQueryEvent} per query. The event is kept in the {@link ExecuteContext}, so that one
+ * instance of this listener can be shared by all queries. We start at {@link #renderEnd(ExecuteContext)} to measure
+ * the round trip to the database, not the rendering of the SQL.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+public class JfrExecuteListener extends DefaultExecuteListener {
+
+    private static final String EVENT_KEY = JfrExecuteListener.class.getName();
+
+    @Override
+    public void renderEnd(ExecuteContext ctx) {
+        DatabaseQueryEvent event = new DatabaseQueryEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            ctx.data(EVENT_KEY, event);
+        }
+    }
+
+    @Override
+    public void end(ExecuteContext ctx) {
+        DatabaseQueryEvent event = (DatabaseQueryEvent) ctx.data(EVENT_KEY);
+        if (event != null) {
+            event.complete(ctx.sql(), ctx.type().name(), ctx.rows());
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.jfr;
+
+import de.rwth.idsg.steve.ocpp.OcppTransport;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base of the JFR events for the stages of an incoming OCPP message. The events of one message are nested in its
+ * {@link MessageReceivedEvent} on the same thread, and so are the {@link DatabaseQueryEvent}s of the dispatch stage.
+ *
+ * The fields are protected, since JFR ignores private fields of event super classes.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+@Category({"SteVe", "OCPP"})
+@StackTrace(false)
+public abstract class OcppMessageEvent extends Event {
+
+    @Label("Charge Box Id")
+    protected String chargeBoxId;
+
+    @Label("Action")
+    protected String action;
+
+    @Label("Transport")
+    protected String transport;
+
+    @Label("Payload Size")
+    @DataAmount
+    protected long payloadSize;
+
+    /**
+     * Ends the event and commits it, if it is enabled and above the threshold.
+     */
+    public void complete(String chargeBoxId, String action, OcppTransport transport, long payloadSize) {
+        end();
+        if (shouldCommit()) {
+            this.chargeBoxId = chargeBoxId;
+            this.action = action;
+            this.transport = transport.name();
+            this.payloadSize = payloadSize;
+            commit();
+        }
+    }
+}
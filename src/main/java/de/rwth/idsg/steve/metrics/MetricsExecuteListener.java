@@ -0,0 +1,70 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.jooq.ExecuteContext;
+import org.jooq.ExecuteType;
+import org.jooq.impl.DefaultExecuteListener;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the jOOQ queries per {@link ExecuteType}. Like {@link de.rwth.idsg.steve.jfr.JfrExecuteListener}, we start
+ * after rendering and keep the start in the {@link ExecuteContext}, so that one instance can be shared.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+public class MetricsExecuteListener extends DefaultExecuteListener {
+
+    private static final String START_KEY = MetricsExecuteListener.class.getName();
+
+    private final Map<ExecuteType, Timer> timers = new EnumMap<>(ExecuteType.class);
+
+    public MetricsExecuteListener(MeterRegistry registry) {
+        for (ExecuteType type : ExecuteType.values()) {
+            Timer timer = Timer.builder("steve.db.queries")
+                               .description("Execution time of the database queries, including fetching the results")
+                               .tag("type", type.name())
+                               .publishPercentileHistogram()
+                               .minimumExpectedValue(Duration.ofMillis(1))
+                               .maximumExpectedValue(Duration.ofSeconds(30))
+                               .register(registry);
+            timers.put(type, timer);
+        }
+    }
+
+    @Override
+    public void renderEnd(ExecuteContext ctx) {
+        ctx.data(START_KEY, System.nanoTime());
+    }
+
+    @Override
+    public void end(ExecuteContext ctx) {
+        Long start = (Long) ctx.data(START_KEY);
+        if (start != null) {
+            timers.get(ctx.type()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
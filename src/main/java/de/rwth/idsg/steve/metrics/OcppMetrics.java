@@ -0,0 +1,171 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.metrics;
+
+import de.rwth.idsg.steve.ocpp.OcppCallLimiter;
+import de.rwth.idsg.steve.ocpp.OcppTransport;
+import de.rwth.idsg.steve.ocpp.ws.AbstractWebSocketEndpoint;
+import de.rwth.idsg.steve.ocpp.ws.ConcurrentWebSocketHandler;
+import de.rwth.idsg.steve.ocpp.ws.ResponseCache;
+import de.rwth.idsg.steve.ocpp.ws.WebSocketMemoryBudget;
+import de.rwth.idsg.steve.ocpp.ws.data.SessionContext;
+import de.rwth.idsg.steve.ocpp.ws.journal.MessageJournal;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The OCPP related meters. The infrastructure (executor, database, Jetty) is bound in
+ * {@link de.rwth.idsg.steve.config.BeanConfiguration}.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+@Component
+public class OcppMetrics {
+
+    /**
+     * The action comes from the station. Do not let a misbehaving one create an unbounded number of timers.
+     */
+    private static final int MAX_ACTIONS_PER_TRANSPORT = 64;
+    private static final String OTHER_ACTION = "other";
+
+    @Autowired private MeterRegistry registry;
+    @Autowired private MessageJournal journal;
+    @Autowired private ResponseCache responseCache;
+    @Autowired private OcppCallLimiter callLimiter;
+
+    // The timers are looked up for every message, so we cache them instead of going through the registry
+    private final Map<OcppTransport, Map<String, Timer>> requestTimers = new EnumMap<>(OcppTransport.class);
+
+    @PostConstruct
+    public void init() {
+        for (OcppTransport transport : OcppTransport.values()) {
+            requestTimers.put(transport, new ConcurrentHashMap<>());
+        }
+
+        Gauge.builder("steve.ocpp.ws.buffer.used", ConcurrentWebSocketHandler.getBudget(),
+                      WebSocketMemoryBudget::getUsedBytes)
+             .description("Bytes of outgoing WebSocket messages that are buffered and not sent yet")
+             .baseUnit(BaseUnits.BYTES)
+             .register(registry);
+
+        Gauge.builder("steve.ocpp.journal.queue", journal, MessageJournal::getQueueSize)
+             .description("Frames waiting to be written to the message journal")
+             .register(registry);
+
+        FunctionCounter.builder("steve.ocpp.journal.dropped", journal, MessageJournal::getDroppedFrames)
+                       .description("Frames that were not journaled")
+                       .tag("reason", "queue_full")
+                       .register(registry);
+
+        FunctionCounter.builder("steve.ocpp.journal.dropped", journal, MessageJournal::getFailedFrames)
+                       .description("Frames that were not journaled")
+                       .tag("reason", "write_failed")
+                       .register(registry);
+
+        FunctionCounter.builder("steve.ocpp.ws.response.cache", responseCache, ResponseCache::getHits)
+                       .description("Lookups of incoming calls in the response cache")
+                       .tag("result", "hit")
+                       .register(registry);
+
+        FunctionCounter.builder("steve.ocpp.ws.response.cache", responseCache, ResponseCache::getMisses)
+                       .description("Lookups of incoming calls in the response cache")
+                       .tag("result", "miss")
+                       .register(registry);
+
+        Gauge.builder("steve.ocpp.ws.response.cache.stations", responseCache, ResponseCache::getStationCount)
+             .description("Stations with cached responses")
+             .register(registry);
+
+        Gauge.builder("steve.ocpp.limiter.limit", callLimiter, OcppCallLimiter::getLimit)
+             .description("Current limit of incoming calls in processing")
+             .register(registry);
+
+        Gauge.builder("steve.ocpp.limiter.inflight", callLimiter, OcppCallLimiter::getInFlight)
+             .description("Incoming calls in processing that count against the limit")
+             .register(registry);
+
+        FunctionCounter.builder("steve.ocpp.limiter.shed", callLimiter, OcppCallLimiter::getRejected)
+                       .description("Incoming calls over the limit")
+                       .tag("result", "rejected")
+                       .register(registry);
+
+        FunctionCounter.builder("steve.ocpp.limiter.shed", callLimiter, OcppCallLimiter::getDeferred)
+                       .description("Incoming calls over the limit")
+                       .tag("result", "deferred")
+                       .register(registry);
+    }
+
+    public void bind(AbstractWebSocketEndpoint endpoint) {
+        String version = endpoint.getVersion().getValue();
+
+        Gauge.builder("steve.ocpp.ws.sessions", endpoint, AbstractWebSocketEndpoint::getNumberOfChargeBoxes)
+             .description("Charge points connected over WebSocket")
+             .tag("version", version)
+             .register(registry);
+
+        Gauge.builder("steve.ocpp.ws.pending.calls", endpoint, OcppMetrics::countPendingCalls)
+             .description("Outgoing calls that wait for a response")
+             .tag("version", version)
+             .register(registry);
+    }
+
+    public void recordRequest(OcppTransport transport, String action, long durationNanos) {
+        Map<String, Timer> timers = requestTimers.get(transport);
+
+        String key = action;
+        if (key == null || (!timers.containsKey(key) && timers.size() >= MAX_ACTIONS_PER_TRANSPORT)) {
+            key = OTHER_ACTION;
+        }
+
+        timers.computeIfAbsent(key, k -> createRequestTimer(transport, k))
+              .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer createRequestTimer(OcppTransport transport, String action) {
+        return Timer.builder("steve.ocpp.requests")
+                    .description("Processing time of incoming OCPP messages, including the response")
+                    .tag("transport", transport.name())
+                    .tag("action", action)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofSeconds(30))
+                    .register(registry);
+    }
+
+    private static int countPendingCalls(AbstractWebSocketEndpoint endpoint) {
+        int count = 0;
+        for (SessionContext context : endpoint.getSessionContexts()) {
+            count += context.getPendingCalls().size();
+        }
+        return count;
+    }
+}
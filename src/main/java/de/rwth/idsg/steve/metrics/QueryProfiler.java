@@ -0,0 +1,256 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.metrics;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Aggregates the queries recorded by {@link QueryProfilerListener} per (origin, fingerprint).
+ *
+ * The origin is what caused the query: an OCPP action or a web controller method. It is set for the current thread
+ * with {@link #enter(String)} and {@link #exit()}. Queries outside of such a scope (e.g. scheduled jobs) are recorded
+ * as {@link #UNATTRIBUTED}. Per origin, we also count the statements, which shows the round trips of a message.
+ *
+ * The fingerprint is the SQL with literals replaced by placeholders and lists of placeholders collapsed into one, so
+ * that "IN (?, ?)" and "IN (?, ?, ?)" or multi-row inserts of different sizes count as the same query.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+public enum QueryProfiler {
+    INSTANCE;
+
+    public static final String UNATTRIBUTED = "-";
+
+    // Bounds, so that a pathological query mix does not grow the maps indefinitely
+    private static final int MAX_ENTRIES = 1_000;
+    private static final int MAX_CACHED_FINGERPRINTS = 10_000;
+    private static final String OTHER_QUERIES = "(other queries)";
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.`])\\d+(?:\\.\\d+)?");
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\?(?:\\s*,\\s*\\?)+");
+    private static final Pattern ROW_LIST = Pattern.compile("\\(\\?\\)(?:\\s*,\\s*\\(\\?\\))+");
+
+    private final ThreadLocal<Origin> currentOrigin = new ThreadLocal<>();
+
+    private final Map<String, String> fingerprintCache = new ConcurrentHashMap<>();
+    private final Map<QueryKey, QueryStats> queries = new ConcurrentHashMap<>();
+    private final Map<String, OriginStats> origins = new ConcurrentHashMap<>();
+
+    // -------------------------------------------------------------------------
+    // Recording
+    // -------------------------------------------------------------------------
+
+    public void enter(String origin) {
+        currentOrigin.set(new Origin(origin));
+    }
+
+    public void exit() {
+        Origin origin = currentOrigin.get();
+        if (origin == null) {
+            return;
+        }
+
+        currentOrigin.remove();
+        if (origin.statements > 0) {
+            getOriginStats(origin.name).record(origin.statements);
+        }
+    }
+
+    public void record(String sql, long durationNanos, long rows) {
+        Origin origin = currentOrigin.get();
+        String originName = UNATTRIBUTED;
+        if (origin != null) {
+            origin.statements++;
+            originName = origin.name;
+        }
+
+        QueryKey key = new QueryKey(originName, fingerprint(sql));
+        QueryStats stats = queries.get(key);
+        if (stats == null) {
+            if (queries.size() >= MAX_ENTRIES) {
+                key = new QueryKey(originName, OTHER_QUERIES);
+            }
+            stats = queries.computeIfAbsent(key, k -> new QueryStats());
+        }
+        stats.record(durationNanos, rows);
+    }
+
+    public void reset() {
+        queries.clear();
+        origins.clear();
+    }
+
+    private OriginStats getOriginStats(String name) {
+        OriginStats stats = origins.get(name);
+        if (stats == null) {
+            if (origins.size() >= MAX_ENTRIES) {
+                return origins.computeIfAbsent(OTHER_QUERIES, k -> new OriginStats());
+            }
+            stats = origins.computeIfAbsent(name, k -> new OriginStats());
+        }
+        return stats;
+    }
+
+    private String fingerprint(String sql) {
+        if (sql == null) {
+            return "";
+        }
+
+        String cached = fingerprintCache.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+
+        String fp = STRING_LITERAL.matcher(sql).replaceAll("?");
+        fp = NUMBER_LITERAL.matcher(fp).replaceAll("?");
+        fp = PLACEHOLDER_LIST.matcher(fp).replaceAll("?");
+        fp = ROW_LIST.matcher(fp).replaceAll("(?)");
+
+        if (fingerprintCache.size() < MAX_CACHED_FINGERPRINTS) {
+            fingerprintCache.put(sql, fp);
+        }
+        return fp;
+    }
+
+    // -------------------------------------------------------------------------
+    // Views
+    // -------------------------------------------------------------------------
+
+    /**
+     * @return the queries with the highest total time first
+     */
+    public List<QueryView> getTopQueries(int limit) {
+        return queries.entrySet()
+                      .stream()
+                      .map(e -> new QueryView(e.getKey(), e.getValue()))
+                      .sorted(Comparator.comparingDouble(QueryView::getTotalMillis).reversed())
+                      .limit(limit)
+                      .collect(Collectors.toList());
+    }
+
+    /**
+     * @return the origins with the most statements per call first
+     */
+    public List<OriginView> getOrigins() {
+        List<OriginView> list = new ArrayList<>(origins.size());
+        origins.forEach((name, stats) -> list.add(new OriginView(name, stats)));
+        list.sort(Comparator.comparingDouble(OriginView::getAvgStatements).reversed());
+        return list;
+    }
+
+    @Getter
+    public static class QueryView {
+        private final String origin;
+        private final String fingerprint;
+        private final long count;
+        private final long rows;
+        private final double totalMillis;
+        private final double avgMillis;
+        private final double maxMillis;
+
+        private QueryView(QueryKey key, QueryStats stats) {
+            origin = key.origin;
+            fingerprint = key.fingerprint;
+            count = stats.count.sum();
+            rows = stats.rows.sum();
+            totalMillis = toMillis(stats.totalNanos.sum());
+            avgMillis = count == 0 ? 0 : totalMillis / count;
+            maxMillis = toMillis(stats.maxNanos.get());
+        }
+    }
+
+    @Getter
+    public static class OriginView {
+        private final String origin;
+        private final long calls;
+        private final long statements;
+        private final double avgStatements;
+        private final long maxStatements;
+
+        private OriginView(String origin, OriginStats stats) {
+            this.origin = origin;
+            calls = stats.calls.sum();
+            statements = stats.statements.sum();
+            avgStatements = calls == 0 ? 0 : (double) statements / calls;
+            maxStatements = stats.maxStatements.get();
+        }
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    // -------------------------------------------------------------------------
+    // Internal
+    // -------------------------------------------------------------------------
+
+    @RequiredArgsConstructor
+    private static class Origin {
+        private final String name;
+        private int statements;
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class QueryKey {
+        private final String origin;
+        private final String fingerprint;
+    }
+
+    private static class QueryStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder rows = new LongAdder();
+
+        private void record(long durationNanos, long rowCount) {
+            count.increment();
+            totalNanos.add(durationNanos);
+            maxNanos.accumulate(durationNanos);
+            rows.add(rowCount);
+        }
+    }
+
+    private static class OriginStats {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAccumulator maxStatements = new LongAccumulator(Math::max, 0);
+
+        private void record(int count) {
+            calls.increment();
+            statements.add(count);
+            maxStatements.accumulate(count);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.metrics;
+
+import org.jooq.ExecuteContext;
+import org.jooq.impl.DefaultExecuteListener;
+
+/**
+ * Feeds the {@link QueryProfiler}. The rows are the fetched records for reads, and the affected rows otherwise.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+public class QueryProfilerListener extends DefaultExecuteListener {
+
+    private static final String SAMPLE_KEY = QueryProfilerListener.class.getName();
+
+    @Override
+    public void renderEnd(ExecuteContext ctx) {
+        ctx.data(SAMPLE_KEY, new Sample(System.nanoTime()));
+    }
+
+    @Override
+    public void recordEnd(ExecuteContext ctx) {
+        Sample sample = (Sample) ctx.data(SAMPLE_KEY);
+        if (sample != null) {
+            sample.records++;
+        }
+    }
+
+    @Override
+    public void end(ExecuteContext ctx) {
+        Sample sample = (Sample) ctx.data(SAMPLE_KEY);
+        if (sample == null) {
+            return;
+        }
+
+        long duration = System.nanoTime() - sample.start;
+        long rows = sample.records > 0 ? sample.records : Math.max(0, ctx.rows());
+        QueryProfiler.INSTANCE.record(getSql(ctx), duration, rows);
+    }
+
+    private static String getSql(ExecuteContext ctx) {
+        String sql = ctx.sql();
+        if (sql == null && ctx.batchSQL().length > 0) {
+            sql = String.join("; ", ctx.batchSQL());
+        }
+        return sql;
+    }
+
+    private static class Sample {
+        private final long start;
+        private long records;
+
+        private Sample(long start) {
+            this.start = start;
+        }
+    }
+}
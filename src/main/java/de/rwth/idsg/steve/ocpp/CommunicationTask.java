@@ -20,6 +20,7 @@ package de.rwth.idsg.steve.ocpp;
 
 import de.rwth.idsg.ocpp.jaxb.RequestType;
 import de.rwth.idsg.ocpp.jaxb.ResponseType;
+import de.rwth.idsg.steve.jfr.CommunicationTaskEvent;
 import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonError;
 import de.rwth.idsg.steve.repository.dto.ChargePointSelect;
 import de.rwth.idsg.steve.utils.StringUtils;
@@ -66,6 +67,9 @@ public abstract class CommunicationTask<S extends ChargePointSelection, RESPONSE
     @Getter(AccessLevel.NONE) // disable getter generation
     private final Object lockObject = new Object();
 
+    @Getter(AccessLevel.NONE)
+    private final CommunicationTaskEvent event = new CommunicationTaskEvent();
+
     // The default initial capacity is 10. We probably won't need that much.
     private ArrayList<OcppCallback<RESPONSE>> callbackList = new ArrayList<>(2);
 
@@ -92,6 +96,7 @@ public abstract class CommunicationTask<S extends ChargePointSelection, RESPONSE
 
         callbackList.add(defaultCallback());
         operationName = StringUtils.getOperationName(this);
+        event.begin();
     }
 
     public void addCallback(OcppCallback<RESPONSE> cb) {
@@ -109,7 +114,7 @@ public abstract class CommunicationTask<S extends ChargePointSelection, RESPONSE
 
         synchronized (lockObject) {
             if (resultSize == (errorCount.get() + responseCount.incrementAndGet())) {
-                endTimestamp = DateTime.now();
+                finish();
             }
         }
     }
@@ -119,11 +124,24 @@ public abstract class CommunicationTask<S extends ChargePointSelection, RESPONSE
 
         synchronized (lockObject) {
             if (resultSize == (errorCount.incrementAndGet() + responseCount.get())) {
-                endTimestamp = DateTime.now();
+                finish();
             }
         }
     }
 
+    /**
+     * Must be called while holding the lock.
+     */
+    private void finish() {
+        endTimestamp = DateTime.now();
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.set(this);
+            event.commit();
+        }
+    }
+
     protected void success(String chargeBoxId, RESPONSE response) {
         for (OcppCallback<RESPONSE> c : callbackList) {
             try {
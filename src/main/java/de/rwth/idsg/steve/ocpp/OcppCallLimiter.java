@@ -0,0 +1,232 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import de.rwth.idsg.steve.SteveConfiguration;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+
+/**
+ * Load shedding of incoming OCPP calls (JSON and SOAP), when the database is saturated. Otherwise, all calls would be
+ * accepted until the Jetty and connection pool threads are exhausted, and then Heartbeats and StartTransactions fail
+ * alike.
+ *
+ * The number of calls in processing is limited. The limit adapts periodically (AIMD): It shrinks while the mean query
+ * time or the mean wait for a pooled connection exceeds the target, and grows while the calls use it up and the
+ * database keeps up. Depending on their {@link Priority}, calls may only use a share of the limit, such that there
+ * is room for the transaction messages when everything else is shed.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+@Slf4j
+@Component
+public class OcppCallLimiter {
+
+    private static final long ADJUST_INTERVAL_MILLIS = 1_000;
+    private static final double DECREASE_FACTOR = 0.8;
+
+    private static final Map<String, Priority> PRIORITIES = ImmutableMap.<String, Priority>builder()
+            .put("StartTransaction", Priority.CRITICAL)
+            .put("StopTransaction", Priority.CRITICAL)
+            .put("Authorize", Priority.CRITICAL)
+            .put("MeterValues", Priority.DEFERRABLE)
+            // The heartbeat timestamps are coalesced in memory, no database work to limit
+            .put("Heartbeat", Priority.UNLIMITED)
+            .build();
+
+    @RequiredArgsConstructor
+    public enum Priority {
+        // Share of the limit that the calls may use
+        CRITICAL(1.0),
+        NORMAL(0.75),
+        DEFERRABLE(0.5),
+        UNLIMITED(Double.NaN);
+
+        private final double share;
+    }
+
+    /**
+     * Has to be released after processing the call
+     */
+    public interface Permit {
+        void release();
+    }
+
+    private static final Permit NO_PERMIT = () -> { };
+
+    @Autowired private MeterRegistry registry;
+
+    private final SteveConfiguration.Ocpp config;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final Permit permit = this::release;
+
+    @Getter private volatile int limit;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder deferred = new LongAdder();
+
+    private final TimerDelta queries = new TimerDelta("steve.db.queries");
+    private final TimerDelta connectionAcquires = new TimerDelta("hikaricp.connections.acquire");
+
+    public OcppCallLimiter() {
+        this(CONFIG.getOcpp());
+    }
+
+    @VisibleForTesting
+    OcppCallLimiter(SteveConfiguration.Ocpp config) {
+        this.config = config;
+        this.limit = config.getCallLimiterMax();
+    }
+
+    public static Priority getPriority(String action) {
+        return PRIORITIES.getOrDefault(action, Priority.NORMAL);
+    }
+
+    /**
+     * For the entry points of the transports. Deferrable calls pass here, since they are limited where they can be
+     * deferred.
+     *
+     * @return null, if the call should be rejected
+     */
+    public Permit acquireAtEntry(String action) {
+        Priority priority = getPriority(action);
+        if (priority == Priority.DEFERRABLE) {
+            return NO_PERMIT;
+        }
+        return acquire(priority);
+    }
+
+    /**
+     * @return null, if the limit for the priority is reached
+     */
+    public Permit acquire(Priority priority) {
+        if (!config.isCallLimiterEnabled() || priority == Priority.UNLIMITED) {
+            return NO_PERMIT;
+        }
+
+        int max = Math.max(1, (int) (limit * priority.share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= max) {
+                if (priority == Priority.DEFERRABLE) {
+                    deferred.increment();
+                } else {
+                    rejected.increment();
+                }
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                peakInFlight.accumulateAndGet(current + 1, Math::max);
+                return permit;
+            }
+        }
+    }
+
+    private void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Runs on the taskScheduler of ExecutorConfiguration, not on the ping threads
+     */
+    @Scheduled(fixedDelay = ADJUST_INTERVAL_MILLIS)
+    public void adjust() {
+        if (!config.isCallLimiterEnabled()) {
+            return;
+        }
+
+        double queryMillis = queries.nextMeanMillis(registry);
+        double acquireMillis = connectionAcquires.nextMeanMillis(registry);
+        int peak = peakInFlight.getAndSet(inFlight.get());
+
+        int target = config.getCallLimiterDbLatencyTargetMillis();
+        int current = limit;
+
+        if (queryMillis > target || acquireMillis > target) {
+            limit = Math.max(config.getCallLimiterMin(), (int) (current * DECREASE_FACTOR));
+            if (limit != current) {
+                log.warn("Database is saturated (mean query time: {} ms, mean connection wait: {} ms). "
+                        + "Decreasing the limit of concurrent OCPP calls to {}",
+                        (int) queryMillis, (int) acquireMillis, limit);
+            }
+
+        } else if (peak >= current) {
+            limit = Math.min(config.getCallLimiterMax(), current + Math.max(1, current / 10));
+            if (limit != current) {
+                log.debug("Increasing the limit of concurrent OCPP calls to {}", limit);
+            }
+        }
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getDeferred() {
+        return deferred.sum();
+    }
+
+    /**
+     * Mean duration of the timers with the name since the last call, summed over their tags
+     */
+    @RequiredArgsConstructor
+    private static class TimerDelta {
+        private final String name;
+        private long count;
+        private double totalMillis;
+
+        private double nextMeanMillis(MeterRegistry registry) {
+            long newCount = 0;
+            double newTotalMillis = 0;
+            for (Timer timer : registry.find(name).timers()) {
+                newCount += timer.count();
+                newTotalMillis += timer.totalTime(TimeUnit.MILLISECONDS);
+            }
+
+            long deltaCount = newCount - count;
+            double deltaMillis = newTotalMillis - totalMillis;
+            count = newCount;
+            totalMillis = newTotalMillis;
+
+            return deltaCount <= 0 ? 0 : deltaMillis / deltaCount;
+        }
+    }
+}
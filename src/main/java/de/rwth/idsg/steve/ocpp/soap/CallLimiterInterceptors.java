@@ -0,0 +1,108 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.soap;
+
+import de.rwth.idsg.steve.ocpp.OcppCallLimiter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.cxf.binding.soap.Soap12;
+import org.apache.cxf.binding.soap.SoapFault;
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.interceptor.Interceptor;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+
+import javax.xml.namespace.QName;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The SOAP entry point of the {@link OcppCallLimiter}, the counterpart of
+ * {@link de.rwth.idsg.steve.ocpp.ws.pipeline.IncomingPipeline} for OCPP-J. The permit is acquired after
+ * {@link MessageHeaderInterceptor} checked the registration, and released when the response (or fault) is written.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class CallLimiterInterceptors {
+
+    private static final String PERMIT_KEY = CallLimiterInterceptors.class.getName() + ".Permit";
+
+    private final OcppCallLimiter callLimiter;
+
+    public List<Interceptor<? extends Message>> in() {
+        return Collections.singletonList(new AcquireInterceptor());
+    }
+
+    /**
+     * To be added to the out and out fault chains.
+     */
+    public List<Interceptor<? extends Message>> out() {
+        return Collections.singletonList(new ReleaseInterceptor());
+    }
+
+    private class AcquireInterceptor extends AbstractPhaseInterceptor<Message> {
+
+        AcquireInterceptor() {
+            super(Phase.PRE_INVOKE);
+            addAfter(MessageHeaderInterceptor.class.getName());
+        }
+
+        @Override
+        public void handleMessage(Message message) throws Fault {
+            QName opName = message.getExchange().getBindingOperationInfo().getOperationInfo().getName();
+
+            OcppCallLimiter.Permit permit = callLimiter.acquireAtEntry(opName.getLocalPart());
+            if (permit == null) {
+                log.warn("[chargeBoxId={}] Operation '{}' is rejected, because the database is saturated",
+                        message.getExchange().get(MessageHeaderInterceptor.CHARGEBOX_ID_KEY), opName.getLocalPart());
+                throw createOverloadFault(opName);
+            }
+            message.getExchange().put(PERMIT_KEY, permit);
+        }
+    }
+
+    private static class ReleaseInterceptor extends AbstractPhaseInterceptor<Message> {
+
+        ReleaseInterceptor() {
+            super(Phase.SETUP_ENDING);
+        }
+
+        @Override
+        public void handleMessage(Message message) throws Fault {
+            Exchange exchange = message.getExchange();
+            OcppCallLimiter.Permit permit = (OcppCallLimiter.Permit) exchange.remove(PERMIT_KEY);
+            if (permit != null) {
+                permit.release();
+            }
+        }
+    }
+
+    private static SoapFault createOverloadFault(QName qName) {
+        // as defined by OCPP spec
+        String message = "The server is overloaded, please retry later.";
+        SoapFault sf = new SoapFault(message, Soap12.getInstance().getReceiver());
+        sf.addSubCode(new QName(qName.getNamespaceURI(), "InternalError"));
+        return sf;
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.soap;
+
+import com.google.common.io.CountingOutputStream;
+import de.rwth.idsg.steve.jfr.MessageDeserializedEvent;
+import de.rwth.idsg.steve.jfr.MessageDispatchedEvent;
+import de.rwth.idsg.steve.jfr.MessageReceivedEvent;
+import de.rwth.idsg.steve.jfr.MessageSentEvent;
+import de.rwth.idsg.steve.jfr.OcppMessageEvent;
+import de.rwth.idsg.steve.ocpp.OcppTransport;
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.interceptor.Interceptor;
+import org.apache.cxf.interceptor.StaxOutInterceptor;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+import org.apache.cxf.service.model.BindingOperationInfo;
+import org.apache.cxf.transport.http.AbstractHTTPDestination;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Records the JFR events of {@link de.rwth.idsg.steve.jfr} for SOAP messages. The events of a message are kept in its
+ * {@link Exchange}. If no recording is running, the first interceptor does not put anything into the exchange and all
+ * others return early.
+ *
+ * Since CXF streams the (un)marshalling, the stages do not map one-to-one to the ones of OCPP-J:
+ *
+ * - Deserialized: From receiving the request until the service is invoked (parsing, WS-A and the registration check
+ * of {@link MessageHeaderInterceptor}).
+ * - Dispatched: The service call.
+ * - Serialized: Not recorded, since the response is written while it is marshalled.
+ * - Sent: Marshalling and writing the response (or fault).
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+public final class JfrInterceptors {
+
+    private static final String PAYLOAD_SIZE_KEY = JfrInterceptors.class.getName() + ".PayloadSize";
+
+    private JfrInterceptors() { }
+
+    public static List<Interceptor<? extends Message>> in() {
+        return Arrays.asList(new ReceiveInterceptor(), new InvokeInterceptor());
+    }
+
+    /**
+     * To be added to the out and out fault chains.
+     */
+    public static List<Interceptor<? extends Message>> out() {
+        return Arrays.asList(new ResponseStartInterceptor(), new StreamInterceptor(), new ResponseEndInterceptor());
+    }
+
+    // -------------------------------------------------------------------------
+    // In
+    // -------------------------------------------------------------------------
+
+    private static class ReceiveInterceptor extends AbstractPhaseInterceptor<Message> {
+
+        ReceiveInterceptor() {
+            super(Phase.RECEIVE);
+        }
+
+        @Override
+        public void handleMessage(Message message) throws Fault {
+            MessageReceivedEvent received = new MessageReceivedEvent();
+            if (!received.isEnabled()) {
+                return;
+            }
+
+            HttpServletRequest request = (HttpServletRequest) message.get(AbstractHTTPDestination.HTTP_REQUEST);
+            long payloadSize = request == null ? 0 : Math.max(0, request.getContentLengthLong());
+
+            Exchange exchange = message.getExchange();
+            exchange.put(PAYLOAD_SIZE_KEY, payloadSize);
+            begin(exchange, MessageReceivedEvent.class, received);
+            begin(exchange, MessageDeserializedEvent.class, new MessageDeserializedEvent());
+        }
+    }
+
+    private static class InvokeInterceptor extends AbstractPhaseInterceptor<Message> {
+
+        InvokeInterceptor() {
+            super(Phase.PRE_INVOKE);
+            addAfter(MessageHeaderInterceptor.class.getName());
+        }
+
+        @Override
+        public void handleMessage(Message message) throws Fault {
+            Exchange exchange = message.getExchange();
+            if (complete(exchange, MessageDeserializedEvent.class, requestSize(exchange))) {
+                begin(exchange, MessageDispatchedEvent.class, new MessageDispatchedEvent());
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Out
+    // -------------------------------------------------------------------------
+
+    private static class ResponseStartInterceptor extends AbstractPhaseInterceptor<Message> {
+
+        ResponseStartInterceptor() {
+            super(Phase.SETUP);
+        }
+
+        @Override
+        public void handleMessage(Message message) throws Fault {
+            Exchange exchange = message.getExchange();
+            if (exchange.get(MessageReceivedEvent.class) == null) {
+                return;
+            }
+
+            // Not begun, if the request failed before the service was invoked
+            complete(exchange, MessageDispatchedEvent.class, requestSize(exchange));
+            begin(exchange, MessageSentEvent.class, new MessageSentEvent());
+        }
+    }
+
+    /**
+     * Counts the bytes of the response. The output stream is set in PREPARE_SEND, and we must wrap it before the
+     * writer is created.
+     */
+    private static class StreamInterceptor extends AbstractPhaseInterceptor<Message> {
+
+        StreamInterceptor() {
+            super(Phase.PRE_STREAM);
+            addBefore(StaxOutInterceptor.class.getName());
+        }
+
+        @Override
+        public void handleMessage(Message message) throws Fault {
+            Exchange exchange = message.getExchange();
+            OutputStream os = message.getContent(OutputStream.class);
+            if (os == null || exchange.get(MessageSentEvent.class) == null) {
+                return;
+            }
+
+            CountingOutputStream counting = new CountingOutputStream(os);
+            message.setContent(OutputStream.class, counting);
+            exchange.put(CountingOutputStream.class, counting);
+        }
+    }
+
+    private static class ResponseEndInterceptor extends AbstractPhaseInterceptor<Message> {
+
+        ResponseEndInterceptor() {
+            super(Phase.SETUP_ENDING);
+        }
+
+        @Override
+        public void handleMessage(Message message) throws Fault {
+            Exchange exchange = message.getExchange();
+            if (exchange.get(MessageReceivedEvent.class) == null) {
+                return;
+            }
+
+            CountingOutputStream counting = exchange.get(CountingOutputStream.class);
+            complete(exchange, MessageSentEvent.class, counting == null ? 0 : counting.getCount());
+            complete(exchange, MessageReceivedEvent.class, requestSize(exchange));
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    private static <T extends OcppMessageEvent> void begin(Exchange exchange, Class<T> key, T event) {
+        event.begin();
+        exchange.put(key, event);
+    }
+
+    /**
+     * @return true, if the event was begun before
+     */
+    private static boolean complete(Exchange exchange, Class<? extends OcppMessageEvent> key, long payloadSize) {
+        OcppMessageEvent event = exchange.get(key);
+        if (event == null) {
+            return false;
+        }
+
+        // Exchange stores the class keys by their names
+        exchange.remove(key.getName());
+        String chargeBoxId = (String) exchange.get(MessageHeaderInterceptor.CHARGEBOX_ID_KEY);
+        event.complete(chargeBoxId, getAction(exchange), OcppTransport.SOAP, payloadSize);
+        return true;
+    }
+
+    private static long requestSize(Exchange exchange) {
+        Long size = (Long) exchange.get(PAYLOAD_SIZE_KEY);
+        return size == null ? 0 : size;
+    }
+
+    private static String getAction(Exchange exchange) {
+        BindingOperationInfo boi = exchange.getBindingOperationInfo();
+        return boi == null ? null : boi.getOperationInfo().getName().getLocalPart();
+    }
+}
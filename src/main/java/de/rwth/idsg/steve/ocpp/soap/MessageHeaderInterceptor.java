@@ -18,6 +18,7 @@
  */
 package de.rwth.idsg.steve.ocpp.soap;
 
+import de.rwth.idsg.steve.SteveException;
 import de.rwth.idsg.steve.ocpp.OcppProtocol;
 import de.rwth.idsg.steve.repository.OcppServerRepository;
 import de.rwth.idsg.steve.repository.impl.ChargePointRepositoryImpl;
@@ -37,11 +38,12 @@ import org.apache.cxf.ws.addressing.AddressingProperties;
 import org.apache.cxf.ws.addressing.ContextUtils;
 import org.apache.cxf.ws.addressing.EndpointReferenceType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
 import javax.xml.namespace.QName;
 import java.util.Optional;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ExecutorService;
 
 import static org.apache.cxf.ws.addressing.JAXWSAConstants.ADDRESSING_PROPERTIES_INBOUND;
 
@@ -62,11 +64,19 @@ public class MessageHeaderInterceptor extends AbstractPhaseInterceptor<Message>
 
     @Autowired private OcppServerRepository ocppServerRepository;
     @Autowired private ChargePointHelperService chargePointHelperService;
-    @Autowired private ScheduledExecutorService executorService;
+
+    @Autowired
+    @Qualifier("writeBehindExecutor")
+    private ExecutorService executorService;
 
     private static final String BOOT_OPERATION_NAME = "BootNotification";
     private static final String CHARGEBOX_ID_HEADER = "ChargeBoxIdentity";
 
+    /**
+     * Exchange key of the charge box id, for the interceptors that run after this one
+     */
+    public static final String CHARGEBOX_ID_KEY = MessageHeaderInterceptor.class.getName() + ".ChargeBoxId";
+
     public MessageHeaderInterceptor() {
         super(Phase.PRE_INVOKE);
     }
@@ -74,6 +84,7 @@ public class MessageHeaderInterceptor extends AbstractPhaseInterceptor<Message>
     @Override
     public void handleMessage(Message message) throws Fault {
         String chargeBoxId = getChargeBoxId(message);
+        message.getExchange().put(CHARGEBOX_ID_KEY, chargeBoxId);
 
         // -------------------------------------------------------------------------
         // 1. check registration for operations other than BootNotification
@@ -93,16 +104,21 @@ public class MessageHeaderInterceptor extends AbstractPhaseInterceptor<Message>
         // 2. update endpoint
         // -------------------------------------------------------------------------
 
-        executorService.execute(() -> {
-            try {
-                String endpointAddress = getEndpointAddress(message);
-                if (endpointAddress != null) {
-                    ocppServerRepository.updateEndpointAddress(chargeBoxId, endpointAddress);
+        try {
+            executorService.execute(() -> {
+                try {
+                    String endpointAddress = getEndpointAddress(message);
+                    if (endpointAddress != null) {
+                        ocppServerRepository.updateEndpointAddress(chargeBoxId, endpointAddress);
+                    }
+                } catch (Exception e) {
+                    log.error("Exception occurred", e);
                 }
-            } catch (Exception e) {
-                log.error("Exception occurred", e);
-            }
-        });
+            });
+        } catch (SteveException e) {
+            // the address is sent with every message, so it will be updated with one of the next ones
+            log.warn("Dropping the endpoint address update of '{}': {}", chargeBoxId, e.getMessage());
+        }
     }
 
     private String getChargeBoxId(Message message) {
@@ -0,0 +1,111 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.soap;
+
+import de.rwth.idsg.steve.metrics.OcppMetrics;
+import de.rwth.idsg.steve.metrics.QueryProfiler;
+import de.rwth.idsg.steve.ocpp.OcppTransport;
+import lombok.RequiredArgsConstructor;
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.interceptor.Interceptor;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+import org.apache.cxf.service.model.BindingOperationInfo;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Times the SOAP messages from receiving the request until the response (or fault) is written, which is the
+ * counterpart of what {@link de.rwth.idsg.steve.ocpp.ws.pipeline.IncomingPipeline} measures for OCPP-J.
+ *
+ * The queries in between are attributed to the action in the {@link QueryProfiler}. We enter it once the operation
+ * is known, and before {@link MessageHeaderInterceptor} checks the registration.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+@RequiredArgsConstructor
+public class MetricsInterceptors {
+
+    private static final String START_KEY = MetricsInterceptors.class.getName() + ".Start";
+
+    private final OcppMetrics metrics;
+
+    public List<Interceptor<? extends Message>> in() {
+        return Arrays.asList(new StartInterceptor(), new ProfilerInterceptor());
+    }
+
+    /**
+     * To be added to the out and out fault chains.
+     */
+    public List<Interceptor<? extends Message>> out() {
+        return Collections.singletonList(new EndInterceptor());
+    }
+
+    private static class StartInterceptor extends AbstractPhaseInterceptor<Message> {
+
+        StartInterceptor() {
+            super(Phase.RECEIVE);
+        }
+
+        @Override
+        public void handleMessage(Message message) throws Fault {
+            message.getExchange().put(START_KEY, System.nanoTime());
+        }
+    }
+
+    private static class ProfilerInterceptor extends AbstractPhaseInterceptor<Message> {
+
+        ProfilerInterceptor() {
+            super(Phase.PRE_LOGICAL);
+        }
+
+        @Override
+        public void handleMessage(Message message) throws Fault {
+            QueryProfiler.INSTANCE.enter("SOAP " + getAction(message.getExchange()));
+        }
+    }
+
+    private class EndInterceptor extends AbstractPhaseInterceptor<Message> {
+
+        EndInterceptor() {
+            super(Phase.SETUP_ENDING);
+        }
+
+        @Override
+        public void handleMessage(Message message) throws Fault {
+            QueryProfiler.INSTANCE.exit();
+
+            Exchange exchange = message.getExchange();
+            Long start = (Long) exchange.get(START_KEY);
+            if (start != null) {
+                metrics.recordRequest(OcppTransport.SOAP, getAction(exchange), System.nanoTime() - start);
+            }
+        }
+    }
+
+    private static String getAction(Exchange exchange) {
+        BindingOperationInfo boi = exchange.getBindingOperationInfo();
+        return boi == null ? null : boi.getOperationInfo().getName().getLocalPart();
+    }
+}
@@ -19,16 +19,17 @@
 package de.rwth.idsg.steve.ocpp.ws;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.ImmutableSet;
-import com.google.common.reflect.ClassPath;
 import de.rwth.idsg.ocpp.jaxb.RequestType;
 import de.rwth.idsg.ocpp.jaxb.ResponseType;
 import de.rwth.idsg.steve.ocpp.ws.data.ActionResponsePair;
 
-import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
+import static de.rwth.idsg.steve.ocpp.ws.TypeStoreIndex.getClassesWithInterface;
+
 /**
  * @author Sevket Goekay <goekay@dbis.rwth-aachen.de>
  * @since 14.05.2018
@@ -52,6 +53,11 @@ public abstract class AbstractTypeStore implements TypeStore {
         return requestClassMap.get(action);
     }
 
+    @Override
+    public Collection<Class<? extends RequestType>> getRequestClasses() {
+        return Collections.unmodifiableCollection(requestClassMap.values());
+    }
+
     @Override
     public <T extends RequestType> ActionResponsePair findActionResponse(T requestPayload) {
         return actionResponseMap.get(requestPayload.getClass());
@@ -86,30 +92,6 @@ public abstract class AbstractTypeStore implements TypeStore {
         }
     }
 
-    /**
-     * @return <simple name of class, class>
-     */
-    @SuppressWarnings("unchecked")
-    private static <INTERFACE, IMPL extends INTERFACE> Map<String, Class<IMPL>> getClassesWithInterface(
-            String packageName, Class<INTERFACE> interfaceClass) {
-        try {
-            ImmutableSet<ClassPath.ClassInfo> classInfos =
-                    ClassPath.from(Thread.currentThread().getContextClassLoader())
-                             .getTopLevelClasses(packageName);
-
-            Map<String, Class<IMPL>> map = new HashMap<>();
-            for (ClassPath.ClassInfo classInfo : classInfos) {
-                Class<?> clazz = classInfo.load();
-                if (interfaceClass.isAssignableFrom(clazz)) {
-                    map.put(clazz.getSimpleName(), (Class<IMPL>) clazz);
-                }
-            }
-            return map;
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-    }
-
     private static String getAction(Class<? extends RequestType> clazz) {
         String s = clazz.getSimpleName();
         if (s.endsWith(REQUEST_CLASS_SUFFIX)) {
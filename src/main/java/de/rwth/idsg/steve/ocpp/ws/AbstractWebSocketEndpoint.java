@@ -20,14 +20,19 @@ package de.rwth.idsg.steve.ocpp.ws;
 
 import com.google.common.base.Strings;
 import de.rwth.idsg.steve.config.WebSocketConfiguration;
+import de.rwth.idsg.steve.metrics.OcppMetrics;
+import de.rwth.idsg.steve.ocpp.OcppCallLimiter;
 import de.rwth.idsg.steve.ocpp.OcppVersion;
 import de.rwth.idsg.steve.ocpp.ws.data.CommunicationContext;
 import de.rwth.idsg.steve.ocpp.ws.data.SessionContext;
+import de.rwth.idsg.steve.ocpp.ws.pipeline.AbstractCallHandler;
+import de.rwth.idsg.steve.ocpp.ws.pipeline.Deserializer;
 import de.rwth.idsg.steve.ocpp.ws.pipeline.IncomingPipeline;
 import de.rwth.idsg.steve.repository.OcppServerRepository;
 import de.rwth.idsg.steve.service.NotificationService;
 import org.joda.time.DateTime;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.PongMessage;
@@ -36,11 +41,8 @@ import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
 
 import java.util.ArrayList;
-import java.util.Deque;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
@@ -50,48 +52,54 @@ import java.util.function.Consumer;
  */
 public abstract class AbstractWebSocketEndpoint extends ConcurrentWebSocketHandler {
 
-    @Autowired private ScheduledExecutorService service;
+    @Autowired
+    @Qualifier("pingExecutor")
+    private ScheduledExecutorService service;
+
     @Autowired private OcppServerRepository ocppServerRepository;
-    @Autowired private FutureResponseContextStore futureResponseContextStore;
     @Autowired private NotificationService notificationService;
+    @Autowired private OcppMetrics metrics;
+    @Autowired private ResponseCache responseCache;
+    @Autowired private OcppCallLimiter callLimiter;
 
     public static final String CHARGEBOX_ID_KEY = "CHARGEBOX_ID_KEY";
 
     private final SessionContextStore sessionContextStore = new SessionContextStore();
     private final List<Consumer<String>> connectedCallbackList = new ArrayList<>();
     private final List<Consumer<String>> disconnectedCallbackList = new ArrayList<>();
-    private final Object sessionContextLock = new Object();
 
     private IncomingPipeline pipeline;
 
     public abstract OcppVersion getVersion();
 
-    public void init(IncomingPipeline pipeline) {
-        this.pipeline = pipeline;
+    public void init(Deserializer deserializer, AbstractCallHandler handler) {
+        this.pipeline = new IncomingPipeline(deserializer, handler, metrics, responseCache, callLimiter);
+        metrics.bind(this);
 
         connectedCallbackList.add((chargeBoxId) -> notificationService.ocppStationWebSocketConnected(chargeBoxId));
         disconnectedCallbackList.add((chargeBoxId) -> notificationService.ocppStationWebSocketDisconnected(chargeBoxId));
     }
 
     @Override
-    public void onMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
+    public void onMessage(SessionContext context, WebSocketMessage<?> message) throws Exception {
         if (message instanceof TextMessage) {
-            handleTextMessage(session, (TextMessage) message);
+            handleTextMessage(context, (TextMessage) message);
 
         } else if (message instanceof PongMessage) {
-            handlePongMessage(session);
+            handlePongMessage(context);
 
         } else if (message instanceof BinaryMessage) {
-            session.close(CloseStatus.NOT_ACCEPTABLE.withReason("Binary messages not supported"));
+            context.getSession().close(CloseStatus.NOT_ACCEPTABLE.withReason("Binary messages not supported"));
 
         } else {
             throw new IllegalStateException("Unexpected WebSocket message type: " + message);
         }
     }
 
-    private void handleTextMessage(WebSocketSession session, TextMessage webSocketMessage) throws Exception {
+    private void handleTextMessage(SessionContext sessionContext, TextMessage webSocketMessage) throws Exception {
         String incomingString = webSocketMessage.getPayload();
-        String chargeBoxId = getChargeBoxId(session);
+        String chargeBoxId = sessionContext.getChargeBoxId();
+        WebSocketSession session = sessionContext.getSession();
 
         // https://github.com/RWTH-i5-IDSG/steve/issues/66
         if (Strings.isNullOrEmpty(incomingString)) {
@@ -101,61 +109,49 @@ public abstract class AbstractWebSocketEndpoint extends ConcurrentWebSocketHandl
 
         WebSocketLogger.receivedText(chargeBoxId, session, incomingString);
 
-        CommunicationContext context = new CommunicationContext(session, chargeBoxId);
+        CommunicationContext context = new CommunicationContext(sessionContext);
         context.setIncomingString(incomingString);
 
         pipeline.accept(context);
     }
 
-    private void handlePongMessage(WebSocketSession session) {
-        WebSocketLogger.receivedPong(getChargeBoxId(session), session);
-        ocppServerRepository.updateChargeboxHeartbeat(getChargeBoxId(session), DateTime.now());
+    private void handlePongMessage(SessionContext context) {
+        WebSocketLogger.receivedPong(context.getChargeBoxId(), context.getSession());
+        ocppServerRepository.updateChargeboxHeartbeat(context.getChargeBoxId(), DateTime.now());
     }
 
     @Override
-    public void onOpen(WebSocketSession session) throws Exception {
-        String chargeBoxId = getChargeBoxId(session);
+    public void onOpen(SessionContext context) throws Exception {
+        String chargeBoxId = context.getChargeBoxId();
+        WebSocketSession session = context.getSession();
 
         WebSocketLogger.connected(chargeBoxId, session);
 
         // Just to keep the connection alive, such that the servers do not close
         // the connection because of a idle timeout, we ping-pong at fixed intervals.
-        ScheduledFuture pingSchedule = service.scheduleAtFixedRate(
+        context.setPingSchedule(service.scheduleAtFixedRate(
                 new PingTask(chargeBoxId, session),
                 WebSocketConfiguration.PING_INTERVAL,
                 WebSocketConfiguration.PING_INTERVAL,
-                TimeUnit.MINUTES);
-
-        futureResponseContextStore.addSession(session);
+                TimeUnit.MINUTES));
 
-        int sizeBeforeAdd;
-
-        synchronized (sessionContextLock) {
-            sizeBeforeAdd = sessionContextStore.getSize(chargeBoxId);
-            sessionContextStore.add(chargeBoxId, session, pingSchedule);
-        }
+        int sizeAfterAdd = sessionContextStore.add(context);
 
         // Take into account that there might be multiple connections to a charging station.
         // Send notification only for the change 0 -> 1.
-        if (sizeBeforeAdd == 0) {
+        if (sizeAfterAdd == 1) {
             connectedCallbackList.forEach(consumer -> consumer.accept(chargeBoxId));
         }
     }
 
     @Override
-    public void onClose(WebSocketSession session, CloseStatus closeStatus) throws Exception {
-        String chargeBoxId = getChargeBoxId(session);
-
-        WebSocketLogger.closed(chargeBoxId, session, closeStatus);
+    public void onClose(SessionContext context, CloseStatus closeStatus) throws Exception {
+        String chargeBoxId = context.getChargeBoxId();
 
-        futureResponseContextStore.removeSession(session);
+        WebSocketLogger.closed(chargeBoxId, context.getSession(), closeStatus);
 
-        int sizeAfterRemove;
-
-        synchronized (sessionContextLock) {
-            sessionContextStore.remove(chargeBoxId, session);
-            sizeAfterRemove = sessionContextStore.getSize(chargeBoxId);
-        }
+        // the calls that wait for a response are discarded together with the context
+        int sizeAfterRemove = sessionContextStore.remove(context);
 
         // Take into account that there might be multiple connections to a charging station.
         // Send notification only for the change 1 -> 0.
@@ -165,8 +161,8 @@ public abstract class AbstractWebSocketEndpoint extends ConcurrentWebSocketHandl
     }
 
     @Override
-    public void onError(WebSocketSession session, Throwable throwable) throws Exception {
-        WebSocketLogger.transportError(getChargeBoxId(session), session, throwable);
+    public void onError(SessionContext context, Throwable throwable) throws Exception {
+        WebSocketLogger.transportError(context.getChargeBoxId(), context.getSession(), throwable);
     }
 
     @Override
@@ -178,10 +174,6 @@ public abstract class AbstractWebSocketEndpoint extends ConcurrentWebSocketHandl
     // Helpers
     // -------------------------------------------------------------------------
 
-    protected String getChargeBoxId(WebSocketSession session) {
-        return (String) session.getAttributes().get(CHARGEBOX_ID_KEY);
-    }
-
     protected void registerConnectedCallback(Consumer<String> consumer) {
         connectedCallbackList.add(consumer);
     }
@@ -198,12 +190,12 @@ public abstract class AbstractWebSocketEndpoint extends ConcurrentWebSocketHandl
         return sessionContextStore.getNumberOfChargeBoxes();
     }
 
-    public Map<String, Deque<SessionContext>> getACopy() {
-        return sessionContextStore.getACopy();
+    public Iterable<SessionContext> getSessionContexts() {
+        return sessionContextStore.getSessionContexts();
     }
 
-    public WebSocketSession getSession(String chargeBoxId) {
-        return sessionContextStore.getSession(chargeBoxId);
+    public SessionContext getSessionContext(String chargeBoxId) {
+        return sessionContextStore.getSessionContext(chargeBoxId);
     }
 
 }
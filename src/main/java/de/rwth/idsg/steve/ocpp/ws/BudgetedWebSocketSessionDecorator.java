@@ -0,0 +1,170 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Accounts the messages of this session, from the moment they are handed over for sending until they are actually
+ * sent, against the global {@link WebSocketMemoryBudget}. If the budget is exhausted and this session already has
+ * buffered messages (i.e. the station is a slow consumer), the session is closed.
+ *
+ * The size of text messages is approximated with the number of chars, to not encode the payload one more time.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+@Slf4j
+public class BudgetedWebSocketSessionDecorator extends ConcurrentWebSocketSessionDecorator {
+
+    private static final CloseStatus OVER_BUDGET =
+            CloseStatus.SESSION_NOT_RELIABLE.withReason("Outbound buffer budget exceeded");
+
+    private final WebSocketMemoryBudget budget;
+    private final AccountingDecorator accounting;
+
+    private volatile boolean closing;
+    private boolean released; // guarded by accounting
+
+    public BudgetedWebSocketSessionDecorator(WebSocketSession delegate, int sendTimeLimit, int bufferSizeLimit,
+                                             WebSocketMemoryBudget budget) {
+        super(new AccountingDecorator(delegate, budget), sendTimeLimit, bufferSizeLimit);
+        this.budget = budget;
+        this.accounting = (AccountingDecorator) getDelegate();
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        if (closing) {
+            // the super class drops the message without queueing it, so there is nothing to reserve
+            super.sendMessage(message);
+            return;
+        }
+
+        long size = sizeOf(message);
+
+        if (!reserve(size)) {
+            if (getBufferSize() > 0) {
+                log.warn("Closing the session '{}', since the outbound buffer budget is exhausted and the session "
+                        + "has {} bytes buffered", getId(), getBufferSize());
+                close(OVER_BUDGET);
+            }
+            throw new IOException("Outbound buffer budget exceeded (" + budget.getLimitBytes() + " bytes)");
+        }
+
+        try {
+            super.sendMessage(message);
+        } catch (SessionLimitExceededException e) {
+            // the super class abandons the buffered messages from now on. closing the session makes sure that
+            // releaseAll() is called for them.
+            close(CloseStatus.SESSION_NOT_RELIABLE);
+            throw e;
+        }
+    }
+
+    /**
+     * The super class passes close() directly to the delegate, which would skip the flag below
+     */
+    @Override
+    public void close() throws IOException {
+        close(CloseStatus.NORMAL);
+    }
+
+    /**
+     * After this, the super class does not queue messages anymore. A message that slips through between the check
+     * in sendMessage() and the one in the super class stays reserved until releaseAll().
+     */
+    @Override
+    public void close(CloseStatus status) throws IOException {
+        closing = true;
+        super.close(status);
+    }
+
+    /**
+     * Bytes of this session that are reserved in the budget, i.e. buffered or being sent
+     */
+    public long getReservedBytes() {
+        return accounting.reserved.get();
+    }
+
+    /**
+     * When the session is closed, the buffered messages are discarded without being sent. This is final: messages
+     * that are sent afterwards are not reserved anymore.
+     */
+    public void releaseAll() {
+        synchronized (accounting) {
+            released = true;
+            closing = true;
+            budget.release(accounting.reserved.getAndSet(0));
+        }
+    }
+
+    private boolean reserve(long size) {
+        synchronized (accounting) {
+            if (released) {
+                return true;
+            }
+            if (!budget.tryReserve(size)) {
+                return false;
+            }
+            accounting.reserved.addAndGet(size);
+            return true;
+        }
+    }
+
+    private static long sizeOf(WebSocketMessage<?> message) {
+        if (message instanceof TextMessage) {
+            return ((TextMessage) message).getPayload().length();
+        } else {
+            return message.getPayloadLength();
+        }
+    }
+
+    private static class AccountingDecorator extends WebSocketSessionDecorator {
+
+        private final WebSocketMemoryBudget budget;
+        private final AtomicLong reserved = new AtomicLong();
+
+        private AccountingDecorator(WebSocketSession delegate, WebSocketMemoryBudget budget) {
+            super(delegate);
+            this.budget = budget;
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            try {
+                super.sendMessage(message);
+            } finally {
+                long size = sizeOf(message);
+                long before = reserved.getAndUpdate(current -> Math.max(0, current - size));
+                budget.release(Math.min(before, size));
+            }
+        }
+    }
+}
@@ -31,8 +31,6 @@ import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.UUID;
-
 /**
  * @author Sevket Goekay <goekay@dbis.rwth-aachen.de>
  * @since 20.03.2015
@@ -65,20 +63,19 @@ public class ChargePointServiceInvoker {
     private void run(String chargeBoxId, CommunicationTask task) {
         RequestType request = task.getRequest();
 
-        String messageId = UUID.randomUUID().toString();
         ActionResponsePair pair = typeStore.findActionResponse(request);
         if (pair == null) {
             throw new SteveException("Action name is not found");
         }
 
+        // The message id is assigned by the pipeline, since it depends on the selected session
         OcppJsonCall call = new OcppJsonCall();
-        call.setMessageId(messageId);
         call.setPayload(request);
         call.setAction(pair.getAction());
 
         FutureResponseContext frc = new FutureResponseContext(task, pair.getResponseClass());
 
-        CommunicationContext context = new CommunicationContext(endpoint.getSession(chargeBoxId), chargeBoxId);
+        CommunicationContext context = new CommunicationContext(endpoint.getSessionContext(chargeBoxId));
         context.setOutgoingMessage(call);
         context.setFutureResponseContext(frc);
 
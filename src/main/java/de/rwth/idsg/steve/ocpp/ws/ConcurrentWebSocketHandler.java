@@ -18,17 +18,26 @@
  */
 package de.rwth.idsg.steve.ocpp.ws;
 
+import de.rwth.idsg.steve.SteveConfiguration;
 import de.rwth.idsg.steve.config.WebSocketConfiguration;
+import de.rwth.idsg.steve.ocpp.ws.data.SessionContext;
+import de.rwth.idsg.steve.ocpp.ws.journal.JournalDirection;
+import de.rwth.idsg.steve.ocpp.ws.journal.JournalingWebSocketSessionDecorator;
+import de.rwth.idsg.steve.ocpp.ws.journal.MessageJournal;
+import org.joda.time.DateTime;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
-import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+
 /**
  * @author Sevket Goekay <goekay@dbis.rwth-aachen.de>
  * @since 07.05.2019
@@ -36,9 +45,15 @@ import java.util.concurrent.TimeUnit;
 public abstract class ConcurrentWebSocketHandler implements WebSocketHandler {
 
     private static final int sendTimeLimit = (int) TimeUnit.SECONDS.toMillis(10);
-    private static final int bufferSizeLimit = 5 * WebSocketConfiguration.MAX_MSG_SIZE;
 
-    private final Map<String, ConcurrentWebSocketSessionDecorator> sessions = new ConcurrentHashMap<>();
+    // shared by the endpoints of all OCPP versions
+    private static final WebSocketMemoryBudget budget =
+            new WebSocketMemoryBudget(CONFIG.getOcpp().getWsBufferBudgetBytes());
+
+    @Autowired private MessageJournal journal;
+
+    // The only place where the state of a connection is registered. Everything else references the SessionContext.
+    private final Map<String, SessionContext> sessions = new ConcurrentHashMap<>();
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
@@ -47,7 +62,11 @@ public abstract class ConcurrentWebSocketHandler implements WebSocketHandler {
 
     @Override
     public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
-        this.onMessage(internalGet(session), message);
+        SessionContext context = internalGet(session);
+        if (message instanceof TextMessage) {
+            journal.record(context.getChargeBoxId(), JournalDirection.IN, ((TextMessage) message).getPayload());
+        }
+        this.onMessage(context, message);
     }
 
     @Override
@@ -57,19 +76,48 @@ public abstract class ConcurrentWebSocketHandler implements WebSocketHandler {
 
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
-        this.onClose(sessions.remove(session.getId()), closeStatus);
+        SessionContext context = sessions.remove(session.getId());
+        ((BudgetedWebSocketSessionDecorator) context.getSession()).releaseAll();
+        this.onClose(context, closeStatus);
+    }
+
+    public static WebSocketMemoryBudget getBudget() {
+        return budget;
     }
 
-    private ConcurrentWebSocketSessionDecorator internalGet(WebSocketSession session) {
-        return sessions.computeIfAbsent(session.getId(), s -> new ConcurrentWebSocketSessionDecorator(session, sendTimeLimit, bufferSizeLimit));
+    private SessionContext internalGet(WebSocketSession session) {
+        return sessions.computeIfAbsent(session.getId(), s -> {
+            String chargeBoxId = (String) session.getAttributes().get(AbstractWebSocketEndpoint.CHARGEBOX_ID_KEY);
+            return new SessionContext(chargeBoxId, decorate(chargeBoxId, session), DateTime.now());
+        });
+    }
+
+    /**
+     * Stations that are configured to receive large messages (e.g. SendLocalList with a full list) get the large
+     * buffer limit, all others the default one. The limit only applies to the outbound buffer. Incoming messages
+     * keep the limit of {@link WebSocketConfiguration#MAX_MSG_SIZE} for all stations.
+     */
+    private BudgetedWebSocketSessionDecorator decorate(String chargeBoxId, WebSocketSession session) {
+        SteveConfiguration.Ocpp ocpp = CONFIG.getOcpp();
+
+        int bufferSizeLimit = ocpp.getWsLargeBufferStations().contains(chargeBoxId)
+                ? ocpp.getWsLargeSessionBufferBytes()
+                : ocpp.getWsSessionBufferBytes();
+
+        // innermost, so that the messages are recorded in the order they are actually sent
+        if (journal.isSampled(chargeBoxId)) {
+            session = new JournalingWebSocketSessionDecorator(session, chargeBoxId, journal);
+        }
+
+        return new BudgetedWebSocketSessionDecorator(session, sendTimeLimit, bufferSizeLimit, budget);
     }
 
     // -------------------------------------------------------------------------
     // Implement in extending classes
     // -------------------------------------------------------------------------
 
-    abstract void onMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception;
-    abstract void onOpen(WebSocketSession session) throws Exception;
-    abstract void onClose(WebSocketSession session, CloseStatus closeStatus) throws Exception;
-    abstract void onError(WebSocketSession session, Throwable throwable) throws Exception;
+    abstract void onMessage(SessionContext context, WebSocketMessage<?> message) throws Exception;
+    abstract void onOpen(SessionContext context) throws Exception;
+    abstract void onClose(SessionContext context, CloseStatus closeStatus) throws Exception;
+    abstract void onError(SessionContext context, Throwable throwable) throws Exception;
 }
@@ -56,6 +56,11 @@ public final class ErrorFactory {
                 "Internal services failed while processing of the payload", details);
     }
 
+    public static OcppJsonError overloaded(String messageId) {
+        return setFields(messageId, ErrorCode.InternalError,
+                "The server is overloaded, please retry later", null);
+    }
+
     private static OcppJsonError setFields(String messageId, ErrorCode code, String desc, String details) {
         OcppJsonError error = new OcppJsonError();
         error.setMessageId(messageId);
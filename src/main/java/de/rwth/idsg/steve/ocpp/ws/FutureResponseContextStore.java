@@ -18,21 +18,24 @@
  */
 package de.rwth.idsg.steve.ocpp.ws;
 
+import de.rwth.idsg.steve.jfr.CallRoundTripEvent;
+import de.rwth.idsg.steve.ocpp.ws.custom.MessageIdStrategy;
 import de.rwth.idsg.steve.ocpp.ws.data.FutureResponseContext;
-import lombok.AccessLevel;
-import lombok.RequiredArgsConstructor;
+import de.rwth.idsg.steve.ocpp.ws.data.SessionContext;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.Nullable;
 import org.springframework.stereotype.Service;
-import org.springframework.web.socket.WebSocketSession;
 
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.BiFunction;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
 
 /**
  * Presumption: The responses must be sent using the same connection as the requests!
  *
+ * The (messageId, context) pairs are kept in the {@link SessionContext} of the connection, so that they are
+ * discarded together with it when the connection is closed.
+ *
  * @author Sevket Goekay <goekay@dbis.rwth-aachen.de>
  * @since 21.03.2015
  */
@@ -40,52 +43,49 @@ import java.util.function.BiFunction;
 @Service
 public class FutureResponseContextStore {
 
-    // We store for each chargeBox connection, multiple pairs of (messageId, context)
-    // (session, (messageId, context))
-    private final Map<WebSocketSession, Map<String, FutureResponseContext>> lookupTable = new ConcurrentHashMap<>();
-
-    public void addSession(WebSocketSession session) {
-        addIfAbsent(session);
-    }
+    private final MessageIdStrategy messageIdStrategy = CONFIG.getOcpp().getMessageIdStrategy();
 
-    public void removeSession(WebSocketSession session) {
-        log.debug("Deleting the store for sessionId '{}'", session.getId());
-        lookupTable.remove(session);
+    /**
+     * Generates the message id for the next outgoing call over this connection.
+     */
+    public String nextMessageId(SessionContext session) {
+        long id = messageIdStrategy.nextId(session.getMessageIdCounter());
+        return messageIdStrategy.toMessageId(id);
     }
 
-    public void add(WebSocketSession session, String messageId, FutureResponseContext context) {
-        Map<String, FutureResponseContext> map = addIfAbsent(session);
-        map.put(messageId, context);
-        log.debug("Store size for sessionId '{}': {}", session.getId(), map.size());
-    }
+    public void add(SessionContext session, String messageId, FutureResponseContext context) {
+        Long key = messageIdStrategy.fromMessageId(messageId);
+        if (key == null) {
+            // we are the ones who generated the id. should not happen
+            throw new IllegalArgumentException("The message id '" + messageId + "' was not generated by " + messageIdStrategy);
+        }
 
-    @Nullable
-    public FutureResponseContext get(WebSocketSession session, String messageId) {
-        RemoveFunction removeFunction = new RemoveFunction(messageId);
-        lookupTable.computeIfPresent(session, removeFunction);
-        return removeFunction.removedContext;
-    }
+        CallRoundTripEvent event = new CallRoundTripEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            context.setRoundTripEvent(event);
+        }
 
-    private Map<String, FutureResponseContext> addIfAbsent(WebSocketSession session) {
-        return lookupTable.computeIfAbsent(session, innerSession -> {
-            log.debug("Creating new store for sessionId '{}'", innerSession.getId());
-            return new ConcurrentHashMap<>();
-        });
+        Map<Long, FutureResponseContext> map = session.getPendingCalls();
+        map.put(key, context);
+        log.debug("Store size for sessionId '{}': {}", session.getSession().getId(), map.size());
     }
 
-    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
-    private static class RemoveFunction implements
-            BiFunction<WebSocketSession, Map<String, FutureResponseContext>, Map<String, FutureResponseContext>> {
+    @Nullable
+    public FutureResponseContext get(SessionContext session, String messageId) {
+        Long key = messageIdStrategy.fromMessageId(messageId);
+        if (key == null) {
+            return null;
+        }
 
-        private final String messageId;
-        @Nullable private FutureResponseContext removedContext;
+        Map<Long, FutureResponseContext> map = session.getPendingCalls();
+        FutureResponseContext removedContext = map.remove(key);
+        log.debug("Store size for sessionId '{}': {}", session.getSession().getId(), map.size());
 
-        @Override
-        public Map<String, FutureResponseContext> apply(WebSocketSession session,
-                                                        Map<String, FutureResponseContext> map) {
-            removedContext = map.remove(messageId);
-            log.debug("Store size for sessionId '{}': {}", session.getId(), map.size());
-            return map;
+        if (removedContext != null && removedContext.getRoundTripEvent() != null) {
+            removedContext.getRoundTripEvent()
+                          .complete(session.getChargeBoxId(), removedContext.getTask().getOperationName(), messageId);
         }
+        return removedContext;
     }
 }
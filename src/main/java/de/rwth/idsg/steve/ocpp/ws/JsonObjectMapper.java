@@ -22,13 +22,22 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.AnnotationIntrospector;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
 import com.fasterxml.jackson.module.jaxb.JaxbAnnotationIntrospector;
+import de.rwth.idsg.ocpp.jaxb.RequestType;
+import de.rwth.idsg.ocpp.jaxb.ResponseType;
 import de.rwth.idsg.steve.ocpp.ws.ocpp12.Ocpp12JacksonModule;
 import de.rwth.idsg.steve.ocpp.ws.ocpp15.Ocpp15JacksonModule;
 import de.rwth.idsg.steve.ocpp.ws.ocpp16.Ocpp16JacksonModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.List;
 
 import static com.fasterxml.jackson.core.JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN;
 import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_NULL_FOR_PRIMITIVES;
+import static de.rwth.idsg.steve.ocpp.ws.TypeStoreIndex.getClassesWithInterface;
 
 /**
  * Because ObjectMapper can and should be reused, if config does not change after init.
@@ -39,6 +48,8 @@ import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_NULL
 public enum JsonObjectMapper {
     INSTANCE;
 
+    // not static, since static fields of an enum are initialized after its constants
+    private final Logger log = LoggerFactory.getLogger(JsonObjectMapper.class);
     private final ObjectMapper mapper;
 
     JsonObjectMapper() {
@@ -60,15 +71,59 @@ public enum JsonObjectMapper {
         mapper.registerModule(new Ocpp15JacksonModule());
         mapper.registerModule(new Ocpp16JacksonModule());
 
+        // replaces the reflection-based access to bean properties with generated code. it does not change what is
+        // (de)serialized and how, i.e. the introspectors, mixins and custom (de)serializers still apply.
+        mapper.registerModule(new BlackbirdModule());
+
         mapper.setAnnotationIntrospector(
                 AnnotationIntrospector.pair(
                         new JacksonAnnotationIntrospector(),
                         new JaxbAnnotationIntrospector(mapper.getTypeFactory())
                 )
         );
+
+        warmUp();
     }
 
     public ObjectMapper getMapper() {
         return mapper;
     }
+
+    /**
+     * Jackson creates the (de)serializer of a class lazily, when the class is (de)serialized for the first time. This
+     * involves introspection of the class and its annotations (and code generation with Blackbird), which we do not
+     * want to happen while processing the first messages of stations. Therefore, create and cache them for all OCPP
+     * messages upfront.
+     */
+    private void warmUp() {
+        List<String> ocppPackages = Arrays.asList(
+                ocpp.cs._2010._08.ObjectFactory.class.getPackage().getName(),
+                ocpp.cp._2010._08.ObjectFactory.class.getPackage().getName(),
+                ocpp.cs._2012._06.ObjectFactory.class.getPackage().getName(),
+                ocpp.cp._2012._06.ObjectFactory.class.getPackage().getName(),
+                ocpp.cs._2015._10.ObjectFactory.class.getPackage().getName(),
+                ocpp.cp._2015._10.ObjectFactory.class.getPackage().getName()
+        );
+
+        int count = 0;
+        for (String packageName : ocppPackages) {
+            for (Class<?> clazz : getClassesWithInterface(packageName, RequestType.class).values()) {
+                count += warmUp(clazz);
+            }
+            for (Class<?> clazz : getClassesWithInterface(packageName, ResponseType.class).values()) {
+                count += warmUp(clazz);
+            }
+        }
+        log.debug("Created the JSON (de)serializers of {} OCPP message classes", count);
+    }
+
+    private int warmUp(Class<?> clazz) {
+        boolean serializer = mapper.canSerialize(clazz);
+        boolean deserializer = mapper.canDeserialize(mapper.constructType(clazz));
+        if (!serializer || !deserializer) {
+            log.warn("Could not create the JSON (de)serializer of {}", clazz.getName());
+            return 0;
+        }
+        return 1;
+    }
 }
@@ -0,0 +1,188 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonCall;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+
+/**
+ * Responses to the recent calls of WebSocket stations. When a station does not receive our response (e.g. because
+ * the connection dropped), it sends the call with the same message id again. Such retransmits are answered with the
+ * cached response, instead of processing them (and writing to the database) again.
+ *
+ * The entries of a station survive reconnects until the TTL expires. Every station keeps only its last calls, so that
+ * a chatty station cannot evict the entries of others. Only results are cached, calls that failed are processed again.
+ *
+ * Only the calls are cached whose processing writes data that must not be duplicated, and whose response does not
+ * get outdated: StartTransaction (the same transaction id), StopTransaction, MeterValues and StatusNotification.
+ * Others, e.g. Authorize or BootNotification, must get a current answer.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+@Slf4j
+@Component
+public class ResponseCache {
+
+    // More stations than one instance is expected to serve. The idle ones expire with the TTL anyway
+    private static final int MAX_STATIONS = 100_000;
+
+    private static final Set<String> CACHED_ACTIONS =
+            ImmutableSet.of("StartTransaction", "StopTransaction", "MeterValues", "StatusNotification");
+
+    private final int sizePerStation;
+    private final long ttlNanos;
+    private final Cache<String, StationResponses> stations;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ResponseCache() {
+        this(CONFIG.getOcpp().getWsResponseCacheSize(), CONFIG.getOcpp().getWsResponseCacheTtlSeconds());
+    }
+
+    @VisibleForTesting
+    ResponseCache(int sizePerStation, int ttlSeconds) {
+        this.sizePerStation = sizePerStation;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.stations = CacheBuilder.newBuilder()
+                                    .maximumSize(MAX_STATIONS)
+                                    .expireAfterAccess(ttlSeconds, TimeUnit.SECONDS)
+                                    .build();
+    }
+
+    public boolean isEnabled() {
+        return sizePerStation > 0;
+    }
+
+    /**
+     * @return the response to the same call that was sent before, or null
+     */
+    @Nullable
+    public String get(String chargeBoxId, OcppJsonCall call, String incomingString) {
+        if (!CACHED_ACTIONS.contains(call.getAction())) {
+            return null;
+        }
+
+        StationResponses responses = stations.getIfPresent(chargeBoxId);
+
+        String response = null;
+        if (responses != null) {
+            response = responses.get(call.getMessageId(), digest(incomingString), System.nanoTime() - ttlNanos);
+        }
+
+        if (response == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return response;
+    }
+
+    public void put(String chargeBoxId, OcppJsonCall call, String incomingString, String response) {
+        if (!CACHED_ACTIONS.contains(call.getAction())) {
+            return;
+        }
+
+        try {
+            stations.get(chargeBoxId, () -> new StationResponses(sizePerStation))
+                    .put(call.getMessageId(), new Entry(digest(incomingString), response, System.nanoTime()));
+        } catch (ExecutionException e) {
+            log.error("Error occurred", e);
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getStationCount() {
+        return stations.size();
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    /**
+     * Message ids are only unique per station, and some stations start counting from the beginning after a reboot.
+     * Therefore, a retransmit must be the same call, not only have the same message id. The calls are compared by
+     * a strong digest, which is smaller than the call and practically free of collisions.
+     */
+    private static HashCode digest(String incomingString) {
+        return Hashing.sha256().hashString(incomingString, StandardCharsets.UTF_8);
+    }
+
+    @RequiredArgsConstructor
+    private static class Entry {
+        private final HashCode incomingDigest;
+        private final String response;
+        private final long createdNanos;
+    }
+
+    private static class StationResponses {
+        private final Map<String, Entry> entries;
+
+        private StationResponses(int maxSize) {
+            entries = new LinkedHashMap<String, Entry>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        private synchronized String get(String messageId, HashCode incomingDigest, long createdAfterNanos) {
+            Entry entry = entries.get(messageId);
+            if (entry == null
+                    || entry.createdNanos - createdAfterNanos < 0
+                    || !entry.incomingDigest.equals(incomingDigest)) {
+                return null;
+            }
+            return entry.response;
+        }
+
+        private synchronized void put(String messageId, Entry entry) {
+            entries.put(messageId, entry);
+        }
+    }
+}
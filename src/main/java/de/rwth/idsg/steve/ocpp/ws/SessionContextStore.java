@@ -18,28 +18,27 @@
  */
 package de.rwth.idsg.steve.ocpp.ws;
 
-import com.google.common.collect.ImmutableMap;
-import com.google.common.util.concurrent.Striped;
+import com.google.common.collect.Iterators;
 import de.rwth.idsg.steve.SteveException;
 import de.rwth.idsg.steve.ocpp.ws.custom.WsSessionSelectStrategy;
 import de.rwth.idsg.steve.ocpp.ws.data.SessionContext;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.joda.time.DateTime;
-import org.springframework.web.socket.WebSocketSession;
 
-import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Deque;
 import java.util.List;
-import java.util.Map;
-import java.util.NoSuchElementException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.locks.Lock;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
 
 /**
+ * The session contexts of a station are kept in an array that is never modified, but replaced when a connection is
+ * opened or closed (copy-on-write). Connections change rarely compared to outgoing calls, so that the lookups for
+ * outgoing calls and the status pages never take a lock.
+ *
  * @author Sevket Goekay <goekay@dbis.rwth-aachen.de>
  * @since 17.03.2015
  */
@@ -47,94 +46,75 @@ import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
 public class SessionContextStore {
 
     /**
-     * Key   (String)                = chargeBoxId
-     * Value (Deque<SessionContext>) = WebSocket session contexts
+     * Key   (String)      = chargeBoxId
+     * Value (Connections) = WebSocket session contexts
      */
-    private final ConcurrentHashMap<String, Deque<SessionContext>> lookupTable = new ConcurrentHashMap<>();
-
-    private final Striped<Lock> locks = Striped.lock(16);
+    private final ConcurrentHashMap<String, Connections> lookupTable = new ConcurrentHashMap<>();
 
     private final WsSessionSelectStrategy wsSessionSelectStrategy = CONFIG.getOcpp().getWsSessionSelectStrategy();
 
-    public void add(String chargeBoxId, WebSocketSession session, ScheduledFuture pingSchedule) {
-        Lock l = locks.get(chargeBoxId);
-        l.lock();
-        try {
-            SessionContext context = new SessionContext(session, pingSchedule, DateTime.now());
+    /**
+     * @return the number of connections of the station after adding
+     */
+    public int add(SessionContext context) {
+        String chargeBoxId = context.getChargeBoxId();
+
+        Connections connections = lookupTable.compute(chargeBoxId, (id, old) -> {
+            if (old == null) {
+                return new Connections(new SessionContext[] {context}, new AtomicInteger());
+            }
+            SessionContext[] contexts = Arrays.copyOf(old.contexts, old.contexts.length + 1);
+            contexts[old.contexts.length] = context; // Adding at the end
+            return new Connections(contexts, old.cursor);
+        });
 
-            Deque<SessionContext> endpointDeque = lookupTable.computeIfAbsent(chargeBoxId, str -> new ArrayDeque<>());
-            endpointDeque.addLast(context); // Adding at the end
+        log.debug("A new SessionContext is stored for chargeBoxId '{}'. Store size: {}",
+                chargeBoxId, connections.contexts.length);
 
-            log.debug("A new SessionContext is stored for chargeBoxId '{}'. Store size: {}",
-                    chargeBoxId, endpointDeque.size());
-        } finally {
-            l.unlock();
-        }
+        return connections.contexts.length;
     }
 
-    public void remove(String chargeBoxId, WebSocketSession session) {
-        Lock l = locks.get(chargeBoxId);
-        l.lock();
-        try {
-            Deque<SessionContext> endpointDeque = lookupTable.get(chargeBoxId);
-            if (endpointDeque == null) {
-                log.debug("No session context to remove for chargeBoxId '{}'", chargeBoxId);
-                return;
-            }
-
-            // Prevent "java.util.ConcurrentModificationException: null"
-            // Reason: Cannot modify the set (remove the item) we are iterating
-            // Solution: Iterate the set, find the item, remove the item after the for-loop
-            //
-            SessionContext toRemove = null;
-            for (SessionContext context : endpointDeque) {
-                if (context.getSession().getId().equals(session.getId())) {
-                    toRemove = context;
-                    break;
-                }
-            }
+    /**
+     * @return the number of connections of the station after removing
+     */
+    public int remove(SessionContext context) {
+        String chargeBoxId = context.getChargeBoxId();
 
-            if (toRemove != null) {
-                // 1. Cancel the ping task
-                toRemove.getPingSchedule().cancel(true);
-                // 2. Delete from collection
-                if (endpointDeque.remove(toRemove)) {
-                    log.debug("A SessionContext is removed for chargeBoxId '{}'. Store size: {}",
-                            chargeBoxId, endpointDeque.size());
-                }
-                // 3. Delete empty collection from lookup table in order to correctly calculate
-                // the number of connected chargeboxes with getNumberOfChargeBoxes()
-                if (endpointDeque.size() == 0) {
-                    lookupTable.remove(chargeBoxId);
-                }
-            }
-        } finally {
-            l.unlock();
+        // 1. Cancel the ping task
+        ScheduledFuture<?> pingSchedule = context.getPingSchedule();
+        if (pingSchedule != null) {
+            pingSchedule.cancel(true);
         }
+
+        // 2. Delete from collection. There is exactly one context per connection, so we can compare references.
+        // 3. Delete empty collection from lookup table (by returning null) in order to correctly calculate
+        // the number of connected chargeboxes with getNumberOfChargeBoxes()
+        Connections connections = lookupTable.computeIfPresent(chargeBoxId, (id, old) -> {
+            SessionContext[] contexts = Arrays.stream(old.contexts)
+                                              .filter(c -> c != context)
+                                              .toArray(SessionContext[]::new);
+            return contexts.length == 0 ? null : new Connections(contexts, old.cursor);
+        });
+
+        int size = (connections == null) ? 0 : connections.contexts.length;
+        log.debug("A SessionContext is removed for chargeBoxId '{}'. Store size: {}", chargeBoxId, size);
+        return size;
     }
 
-    public WebSocketSession getSession(String chargeBoxId) {
-        Lock l = locks.get(chargeBoxId);
-        l.lock();
-        try {
-            Deque<SessionContext> endpointDeque = lookupTable.get(chargeBoxId);
-            if (endpointDeque == null) {
-                throw new NoSuchElementException();
-            }
-            return wsSessionSelectStrategy.getSession(endpointDeque);
-        } catch (NoSuchElementException e) {
-            throw new SteveException("No session context for chargeBoxId '%s'", chargeBoxId, e);
-        } finally {
-            l.unlock();
+    public SessionContext getSessionContext(String chargeBoxId) {
+        Connections connections = lookupTable.get(chargeBoxId);
+        if (connections == null) {
+            throw new SteveException("No session context for chargeBoxId '%s'", chargeBoxId);
         }
+        return wsSessionSelectStrategy.getSessionContext(connections.contexts, connections.cursor);
     }
 
     public int getSize(String chargeBoxId) {
-        Deque<SessionContext> endpointDeque = lookupTable.get(chargeBoxId);
-        if (endpointDeque == null) {
+        Connections connections = lookupTable.get(chargeBoxId);
+        if (connections == null) {
             return 0;
         } else {
-            return endpointDeque.size();
+            return connections.contexts.length;
         }
     }
 
@@ -146,7 +126,20 @@ public class SessionContextStore {
         return Collections.list(lookupTable.keys());
     }
 
-    public Map<String, Deque<SessionContext>> getACopy() {
-        return ImmutableMap.copyOf(lookupTable);
+    /**
+     * Does not copy anything. The iterator is weakly consistent: It reflects the connections of a station at some
+     * point during the iteration, never a partially modified state.
+     */
+    public Iterable<SessionContext> getSessionContexts() {
+        return () -> Iterators.concat(
+                Iterators.transform(lookupTable.values().iterator(), c -> Iterators.forArray(c.contexts))
+        );
+    }
+
+    @RequiredArgsConstructor
+    private static class Connections {
+        private final SessionContext[] contexts;
+        // shared by all versions of the array of a station, so that round robin continues where it left off
+        private final AtomicInteger cursor;
     }
 }
@@ -21,6 +21,8 @@ package de.rwth.idsg.steve.ocpp.ws;
 import de.rwth.idsg.ocpp.jaxb.RequestType;
 import de.rwth.idsg.steve.ocpp.ws.data.ActionResponsePair;
 
+import java.util.Collection;
+
 /**
  * @author Sevket Goekay <goekay@dbis.rwth-aachen.de>
  * @since 17.03.2015
@@ -34,6 +36,13 @@ public interface TypeStore {
      */
     Class<? extends RequestType> findRequestClass(String action);
 
+    /**
+     * For incoming requests
+     *
+     * All request JAXB classes that {@link #findRequestClass(String)} can return
+     */
+    Collection<Class<? extends RequestType>> getRequestClasses();
+
     /**
      * For outgoing requests
      *
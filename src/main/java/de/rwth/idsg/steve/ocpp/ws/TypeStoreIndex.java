@@ -0,0 +1,164 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.reflect.ClassPath;
+import de.rwth.idsg.ocpp.jaxb.RequestType;
+import de.rwth.idsg.ocpp.jaxb.ResponseType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Index of the OCPP JAXB classes per package, so that the type stores do not have to scan the classpath and load
+ * every class of the ocpp-jaxb packages at startup.
+ *
+ * The index is generated during the build (see the exec-maven-plugin execution in pom.xml, which calls
+ * {@link #main(String[])}) and written as one properties file per package with the entries
+ * "simple class name = fully qualified name of the implemented interface". If the index of a package is not on the
+ * classpath (e.g. when running from an IDE without the Maven build), we fall back to scanning.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+@Slf4j
+public final class TypeStoreIndex {
+
+    private static final String RESOURCE_DIR = "ocpp-type-index";
+
+    private static final Class<?>[] INDEXED_INTERFACES = {RequestType.class, ResponseType.class};
+
+    private TypeStoreIndex() { }
+
+    /**
+     * Generates the index.
+     *
+     * @param args first the output directory (i.e. the root of the classpath), then the packages to index
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: TypeStoreIndex <outputDirectory> <package>...");
+        }
+
+        Path dir = Paths.get(args[0], RESOURCE_DIR);
+        Files.createDirectories(dir);
+
+        for (int i = 1; i < args.length; i++) {
+            String packageName = args[i];
+            Map<String, String> entries = new TreeMap<>();
+            for (Class<?> interfaceClass : INDEXED_INTERFACES) {
+                for (String simpleName : scan(packageName, interfaceClass).keySet()) {
+                    entries.put(simpleName, interfaceClass.getName());
+                }
+            }
+
+            Path file = dir.resolve(packageName + ".properties");
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.ISO_8859_1)) {
+                writer.write("# Generated during the build by " + TypeStoreIndex.class.getName() + "\n");
+                for (Map.Entry<String, String> entry : entries.entrySet()) {
+                    writer.write(entry.getKey() + "=" + entry.getValue() + "\n");
+                }
+            }
+            log.info("Wrote type index with {} classes to {}", entries.size(), file);
+        }
+    }
+
+    /**
+     * @return <simple name of class, class>
+     */
+    public static <INTERFACE, IMPL extends INTERFACE> Map<String, Class<IMPL>> getClassesWithInterface(
+            String packageName, Class<INTERFACE> interfaceClass) {
+        Map<String, Class<IMPL>> indexed = read(packageName, interfaceClass);
+        if (indexed != null) {
+            return indexed;
+        }
+
+        log.info("No type index found for package '{}', falling back to classpath scanning", packageName);
+        return scan(packageName, interfaceClass);
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    @SuppressWarnings("unchecked")
+    private static <INTERFACE, IMPL extends INTERFACE> Map<String, Class<IMPL>> read(
+            String packageName, Class<INTERFACE> interfaceClass) {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        String resource = RESOURCE_DIR + "/" + packageName + ".properties";
+
+        Properties properties = new Properties();
+        try (InputStream in = classLoader.getResourceAsStream(resource)) {
+            if (in == null) {
+                return null;
+            }
+            properties.load(in);
+        } catch (IOException e) {
+            log.warn("Failed to read the type index '{}'", resource, e);
+            return null;
+        }
+
+        try {
+            Map<String, Class<IMPL>> map = new HashMap<>();
+            for (String simpleName : properties.stringPropertyNames()) {
+                if (interfaceClass.getName().equals(properties.getProperty(simpleName))) {
+                    Class<?> clazz = Class.forName(packageName + "." + simpleName, true, classLoader);
+                    map.put(simpleName, (Class<IMPL>) clazz);
+                }
+            }
+            return map;
+        } catch (ClassNotFoundException e) {
+            // the index does not match the ocpp-jaxb version on the classpath
+            log.warn("Type index '{}' is stale", resource, e);
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <INTERFACE, IMPL extends INTERFACE> Map<String, Class<IMPL>> scan(
+            String packageName, Class<INTERFACE> interfaceClass) {
+        try {
+            ImmutableSet<ClassPath.ClassInfo> classInfos =
+                    ClassPath.from(Thread.currentThread().getContextClassLoader())
+                             .getTopLevelClasses(packageName);
+
+            Map<String, Class<IMPL>> map = new HashMap<>();
+            for (ClassPath.ClassInfo classInfo : classInfos) {
+                Class<?> clazz = classInfo.load();
+                if (interfaceClass.isAssignableFrom(clazz)) {
+                    map.put(clazz.getSimpleName(), (Class<IMPL>) clazz);
+                }
+            }
+            return map;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -18,10 +18,14 @@
  */
 package de.rwth.idsg.steve.ocpp.ws;
 
+import de.rwth.idsg.steve.SteveConfiguration;
+import de.rwth.idsg.steve.ocpp.ws.journal.MessageJournal;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.WebSocketSession;
 
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+
 /**
  * @author Sevket Goekay <goekay@dbis.rwth-aachen.de>
  * @since 10.05.2018
@@ -29,6 +33,8 @@ import org.springframework.web.socket.WebSocketSession;
 @Slf4j
 public final class WebSocketLogger {
 
+    private static final SteveConfiguration.Journal JOURNAL = CONFIG.getJournal();
+
     private WebSocketLogger() { }
 
     public static void connected(String chargeBoxId, WebSocketSession session) {
@@ -40,7 +46,11 @@ public final class WebSocketLogger {
     }
 
     public static void sending(String chargeBoxId, WebSocketSession session, String msg) {
-        log.info("[chargeBoxId={}, sessionId={}] Sending: {}", chargeBoxId, session.getId(), msg);
+        if (payloadsAtDebug(chargeBoxId)) {
+            log.debug("[chargeBoxId={}, sessionId={}] Sending: {}", chargeBoxId, session.getId(), msg);
+        } else {
+            log.info("[chargeBoxId={}, sessionId={}] Sending: {}", chargeBoxId, session.getId(), msg);
+        }
     }
 
     public static void sendingPing(String chargeBoxId, WebSocketSession session) {
@@ -52,7 +62,11 @@ public final class WebSocketLogger {
     }
 
     public static void receivedText(String chargeBoxId, WebSocketSession session, String msg) {
-        log.info("[chargeBoxId={}, sessionId={}] Received: {}", chargeBoxId, session.getId(), msg);
+        if (payloadsAtDebug(chargeBoxId)) {
+            log.debug("[chargeBoxId={}, sessionId={}] Received: {}", chargeBoxId, session.getId(), msg);
+        } else {
+            log.info("[chargeBoxId={}, sessionId={}] Received: {}", chargeBoxId, session.getId(), msg);
+        }
     }
 
     public static void receivedEmptyText(String chargeBoxId, WebSocketSession session) {
@@ -70,4 +84,11 @@ public final class WebSocketLogger {
             log.error("[chargeBoxId=" + chargeBoxId + ", sessionId=" + session.getId() + "] Transport error", t);
         }
     }
+
+    /**
+     * The payloads of the stations that are recorded in the journal are already there in full
+     */
+    private static boolean payloadsAtDebug(String chargeBoxId) {
+        return MessageJournal.isSampled(JOURNAL, chargeBoxId);
+    }
 }
@@ -0,0 +1,60 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Global memory budget for the messages that are buffered for sending, summed over all WebSocket sessions. Without
+ * it, the worst case is the per-session buffer limit multiplied by the number of connections, which is far beyond
+ * the heap with many stations.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+@RequiredArgsConstructor
+public class WebSocketMemoryBudget {
+
+    @Getter private final long limitBytes;
+    private final AtomicLong usedBytes = new AtomicLong();
+
+    public boolean tryReserve(long bytes) {
+        while (true) {
+            long current = usedBytes.get();
+            long next = current + bytes;
+            if (next > limitBytes) {
+                return false;
+            }
+            if (usedBytes.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long bytes) {
+        usedBytes.addAndGet(-bytes);
+    }
+
+    public long getUsedBytes() {
+        return usedBytes.get();
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws.custom;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Every outgoing CALL needs a message id, which the station echoes back in its CALLRESULT/CALLERROR. The id only has
+ * to be unique within the connection. Implementations of this interface decide how to generate these ids.
+ *
+ * Internally, the ids are represented as long values, such that pending calls can be stored with compact keys. The
+ * String representation is only used on the wire.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+public interface MessageIdStrategy {
+
+    /**
+     * @param sessionCounter the counter that is bound to the WebSocket session of the outgoing call
+     */
+    long nextId(AtomicLong sessionCounter);
+
+    String toMessageId(long id);
+
+    /**
+     * @return null, if the message id was not generated by this strategy
+     */
+    @Nullable
+    Long fromMessageId(String messageId);
+}
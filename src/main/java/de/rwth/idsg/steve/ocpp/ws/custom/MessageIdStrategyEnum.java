@@ -0,0 +1,100 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws.custom;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+public enum MessageIdStrategyEnum implements MessageIdStrategy {
+
+    SESSION_COUNTER {
+        /**
+         * A monotonic counter per session. The ids are prefixed with the start time of this node, such that responses
+         * to calls sent by a previous run of the application cannot be mistaken for responses to current calls.
+         */
+        @Override
+        public long nextId(AtomicLong sessionCounter) {
+            return sessionCounter.incrementAndGet();
+        }
+
+        @Override
+        public String toMessageId(long id) {
+            return NODE_PREFIX + id;
+        }
+
+        @Nullable
+        @Override
+        public Long fromMessageId(String messageId) {
+            if (messageId == null || !messageId.startsWith(NODE_PREFIX)) {
+                return null;
+            }
+            try {
+                return Long.parseLong(messageId.substring(NODE_PREFIX.length()));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    },
+
+    RANDOM {
+        /**
+         * Random ids from the random number generator of the current thread. Unlike {@link java.util.UUID#randomUUID()},
+         * this does not go through SecureRandom and does not contend when many threads send calls at the same time.
+         */
+        @Override
+        public long nextId(AtomicLong sessionCounter) {
+            return ThreadLocalRandom.current().nextLong();
+        }
+
+        @Override
+        public String toMessageId(long id) {
+            return Long.toHexString(id);
+        }
+
+        @Nullable
+        @Override
+        public Long fromMessageId(String messageId) {
+            if (messageId == null) {
+                return null;
+            }
+            try {
+                return Long.parseUnsignedLong(messageId, 16);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    };
+
+    private static final String NODE_PREFIX = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX) + "-";
+
+    public static MessageIdStrategy fromName(String v) {
+        for (MessageIdStrategyEnum s : MessageIdStrategyEnum.values()) {
+            if (s.name().equals(v)) {
+                return s;
+            }
+        }
+        throw new IllegalArgumentException("Could not find a valid MessageIdStrategy for name: " + v);
+    }
+}
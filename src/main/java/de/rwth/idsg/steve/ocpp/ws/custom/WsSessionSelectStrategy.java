@@ -19,9 +19,8 @@
 package de.rwth.idsg.steve.ocpp.ws.custom;
 
 import de.rwth.idsg.steve.ocpp.ws.data.SessionContext;
-import org.springframework.web.socket.WebSocketSession;
 
-import java.util.Deque;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * We want to support multiple connections to a charge point. For sending messages we need a
@@ -32,5 +31,10 @@ import java.util.Deque;
  * @since 30.04.2015
  */
 public interface WsSessionSelectStrategy {
-    WebSocketSession getSession(Deque<SessionContext> sessionContexts);
+
+    /**
+     * @param sessionContexts  the connections of a station, in the order they were opened. must not be modified
+     * @param cursor           for strategies that need to remember their position across calls
+     */
+    SessionContext getSessionContext(SessionContext[] sessionContexts, AtomicInteger cursor);
 }
@@ -20,9 +20,8 @@ package de.rwth.idsg.steve.ocpp.ws.custom;
 
 import de.rwth.idsg.steve.ocpp.ws.data.SessionContext;
 import lombok.Getter;
-import org.springframework.web.socket.WebSocketSession;
 
-import java.util.Deque;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author Sevket Goekay <goekay@dbis.rwth-aachen.de>
@@ -36,8 +35,8 @@ public enum WsSessionSelectStrategyEnum implements WsSessionSelectStrategy {
          * Always use the last opened session/connection.
          */
         @Override
-        public WebSocketSession getSession(Deque<SessionContext> sessionContexts) {
-            return sessionContexts.getLast().getSession();
+        public SessionContext getSessionContext(SessionContext[] sessionContexts, AtomicInteger cursor) {
+            return sessionContexts[sessionContexts.length - 1];
         }
     },
 
@@ -47,11 +46,9 @@ public enum WsSessionSelectStrategyEnum implements WsSessionSelectStrategy {
          * This would allow to distribute load to different connections.
          */
         @Override
-        public WebSocketSession getSession(Deque<SessionContext> sessionContexts) {
-            // Remove the first item, and add at the end
-            SessionContext s = sessionContexts.removeFirst();
-            sessionContexts.addLast(s);
-            return s.getSession();
+        public SessionContext getSessionContext(SessionContext[] sessionContexts, AtomicInteger cursor) {
+            // floorMod, since the cursor overflows eventually
+            return sessionContexts[Math.floorMod(cursor.getAndIncrement(), sessionContexts.length)];
         }
     };
 
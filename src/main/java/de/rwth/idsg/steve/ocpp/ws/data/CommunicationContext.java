@@ -41,8 +41,7 @@ import java.util.function.Consumer;
 @Getter
 public class CommunicationContext {
 
-    private final WebSocketSession session;
-    private final String chargeBoxId;
+    private final SessionContext sessionContext;
 
     @Setter private String incomingString;
     @Setter private String outgoingString;
@@ -56,6 +55,14 @@ public class CommunicationContext {
     private Consumer<OcppJsonResult> resultHandler;
     private Consumer<OcppJsonError> errorHandler;
 
+    public WebSocketSession getSession() {
+        return sessionContext.getSession();
+    }
+
+    public String getChargeBoxId() {
+        return sessionContext.getChargeBoxId();
+    }
+
     public boolean isSetOutgoingError() {
         return (outgoingMessage != null) && (outgoingMessage instanceof OcppJsonError);
     }
@@ -63,14 +70,14 @@ public class CommunicationContext {
     @SuppressWarnings("unchecked")
     public void createResultHandler(CommunicationTask task) {
         // TODO: not so sure about this
-        resultHandler = result -> task.getHandler(chargeBoxId)
+        resultHandler = result -> task.getHandler(getChargeBoxId())
                                       .handleResponse(new DummyResponse(result.getPayload()));
     }
 
     public void createErrorHandler(CommunicationTask task) {
         // TODO: not so sure about this
         errorHandler = result -> task.defaultCallback()
-                                     .success(chargeBoxId, result);
+                                     .success(getChargeBoxId(), result);
     }
 
     @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
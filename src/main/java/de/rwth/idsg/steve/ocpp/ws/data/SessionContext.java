@@ -20,19 +20,33 @@ package de.rwth.idsg.steve.ocpp.ws.data;
 
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import org.joda.time.DateTime;
 import org.springframework.web.socket.WebSocketSession;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
+ * The state of one WebSocket connection. It is created once when the connection is opened, and the stores and
+ * pipelines reference it directly instead of looking up per-connection state in their own maps.
+ *
  * @author Sevket Goekay <goekay@dbis.rwth-aachen.de>
  * @since 25.03.2015
  */
 @Getter
 @RequiredArgsConstructor
 public class SessionContext {
+    private final String chargeBoxId;
     private final WebSocketSession session;
-    private final ScheduledFuture pingSchedule;
     private final DateTime openSince;
+
+    @Setter private volatile ScheduledFuture<?> pingSchedule;
+
+    // Outgoing calls that wait for a response: counter for the message ids and (message id, context) pairs.
+    // Stations have only a few calls in flight, hence the small initial capacity.
+    private final AtomicLong messageIdCounter = new AtomicLong();
+    private final Map<Long, FutureResponseContext> pendingCalls = new ConcurrentHashMap<>(4);
 }
@@ -0,0 +1,130 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends frames to memory-mapped segment files and rotates them. Not thread-safe: only the writer thread of
+ * {@link MessageJournal} uses it.
+ *
+ * Layout of a segment (see {@link MessageJournalReader} for reading):
+ *
+ * <pre>
+ * header: int magic, long creation time
+ * frame:  int length of the rest of the frame, long timestamp, byte direction,
+ *         short length of chargeBoxId, chargeBoxId (UTF-8), payload (UTF-8)
+ * </pre>
+ *
+ * A segment is pre-allocated with zeros, so that a frame length of 0 marks the end of the written data.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+@Slf4j
+class JournalSegmentWriter {
+
+    private final Path directory;
+    private final int segmentSizeBytes;
+    private final int maxSegments;
+
+    private MappedByteBuffer buffer;
+    private long lastSegmentTime;
+
+    JournalSegmentWriter(Path directory, int segmentSizeBytes, int maxSegments) throws IOException {
+        this.directory = directory;
+        this.segmentSizeBytes = segmentSizeBytes;
+        this.maxSegments = maxSegments;
+        Files.createDirectories(directory);
+    }
+
+    void write(JournalFrame frame, int maxPayloadBytes) throws IOException {
+        byte[] id = frame.getChargeBoxId().getBytes(StandardCharsets.UTF_8);
+        byte[] payload = frame.getPayload().getBytes(StandardCharsets.UTF_8);
+
+        int payloadLength = truncatedLength(payload, maxPayloadBytes);
+        int frameLength = Long.BYTES + 1 + Short.BYTES + id.length + payloadLength;
+
+        if (buffer == null || buffer.remaining() < Integer.BYTES + frameLength) {
+            rotate(frame.getTimestamp());
+        }
+
+        // the length is written last, so that readers never see a partially written frame as valid
+        int start = buffer.position();
+        buffer.position(start + Integer.BYTES);
+        buffer.putLong(frame.getTimestamp())
+              .put(frame.getDirection().getCode())
+              .putShort((short) id.length)
+              .put(id)
+              .put(payload, 0, payloadLength);
+        buffer.putInt(start, frameLength);
+    }
+
+    /**
+     * The length of the payload after truncating it to the max bytes, without splitting a multi-byte UTF-8 character
+     */
+    static int truncatedLength(byte[] utf8, int maxBytes) {
+        if (utf8.length <= maxBytes) {
+            return utf8.length;
+        }
+
+        // the first byte that is cut off must not be a continuation byte (10xxxxxx) of the last kept character
+        int length = maxBytes;
+        while (length > 0 && (utf8[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        return length;
+    }
+
+    private void rotate(long timestamp) throws IOException {
+        // segment names must be unique and sortable by time
+        long segmentTime = Math.max(timestamp, lastSegmentTime + 1);
+        lastSegmentTime = segmentTime;
+
+        Path file = directory.resolve(MessageJournalReader.fileName(segmentTime));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // the mapping stays valid after closing the channel
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSizeBytes);
+        }
+
+        buffer.putInt(MessageJournalReader.MAGIC)
+              .putLong(segmentTime);
+
+        log.debug("Started journal segment {}", file);
+        deleteOldSegments();
+    }
+
+    private void deleteOldSegments() throws IOException {
+        List<Path> segments = MessageJournalReader.list(directory);
+        for (int i = 0; i < segments.size() - maxSegments; i++) {
+            Files.deleteIfExists(segments.get(i));
+            log.debug("Deleted journal segment {}", segments.get(i));
+        }
+    }
+}
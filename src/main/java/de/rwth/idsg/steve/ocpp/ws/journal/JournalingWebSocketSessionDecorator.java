@@ -0,0 +1,52 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws.journal;
+
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+
+/**
+ * Records the outgoing text messages of a sampled station in the {@link MessageJournal}.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+public class JournalingWebSocketSessionDecorator extends WebSocketSessionDecorator {
+
+    private final String chargeBoxId;
+    private final MessageJournal journal;
+
+    public JournalingWebSocketSessionDecorator(WebSocketSession delegate, String chargeBoxId, MessageJournal journal) {
+        super(delegate);
+        this.chargeBoxId = chargeBoxId;
+        this.journal = journal;
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        if (message instanceof TextMessage) {
+            journal.record(chargeBoxId, JournalDirection.OUT, ((TextMessage) message).getPayload());
+        }
+        super.sendMessage(message);
+    }
+}
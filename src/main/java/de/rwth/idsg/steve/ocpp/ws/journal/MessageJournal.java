@@ -0,0 +1,157 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws.journal;
+
+import com.google.common.annotations.VisibleForTesting;
+import de.rwth.idsg.steve.SteveConfiguration;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+
+/**
+ * Records the OCPP-J messages of the sampled stations. The threads that send and receive messages only put the
+ * frame into a bounded, lock-free queue. Encoding and writing to the segment files happen in a dedicated thread.
+ * If the queue is full, frames are dropped (and counted) rather than slowing down the message processing. A frame
+ * that cannot be written is counted as failed, and the thread continues with the next one.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+@Slf4j
+@Service
+public class MessageJournal {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final SteveConfiguration.Journal config;
+
+    private final Queue<JournalFrame> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queueSize = new AtomicInteger();
+    private final LongAdder droppedFrames = new LongAdder();
+    private final LongAdder failedFrames = new LongAdder();
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public MessageJournal() {
+        this(CONFIG.getJournal());
+    }
+
+    @VisibleForTesting
+    MessageJournal(SteveConfiguration.Journal config) {
+        this.config = config;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!config.isEnabled()) {
+            return;
+        }
+
+        JournalSegmentWriter writer = new JournalSegmentWriter(
+                Paths.get(config.getDirectory()), config.getSegmentSizeBytes(), config.getMaxSegments());
+
+        running = true;
+        writerThread = new Thread(() -> drain(writer), "SteVe-Journal");
+        writerThread.setDaemon(true);
+        writerThread.start();
+
+        log.info("Message journal is enabled, directory: {}", Paths.get(config.getDirectory()).toAbsolutePath());
+    }
+
+    @PreDestroy
+    public void shutDown() throws InterruptedException {
+        if (writerThread != null) {
+            running = false;
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * Stations are sampled by chargeBoxId, so that the journal contains either all or none of their messages
+     */
+    public boolean isSampled(String chargeBoxId) {
+        return running && isSampled(config, chargeBoxId);
+    }
+
+    /**
+     * The sampling decision of the configuration, for the places that have no access to the bean
+     */
+    public static boolean isSampled(SteveConfiguration.Journal config, String chargeBoxId) {
+        return config.isEnabled() && Math.floorMod(chargeBoxId.hashCode(), 100) < config.getSamplePercent();
+    }
+
+    public void record(String chargeBoxId, JournalDirection direction, String payload) {
+        if (!isSampled(chargeBoxId)) {
+            return;
+        }
+
+        if (queueSize.incrementAndGet() > config.getQueueCapacity()) {
+            queueSize.decrementAndGet();
+            droppedFrames.increment();
+            return;
+        }
+
+        queue.offer(new JournalFrame(System.currentTimeMillis(), chargeBoxId, direction, payload));
+    }
+
+    public long getDroppedFrames() {
+        return droppedFrames.sum();
+    }
+
+    public long getFailedFrames() {
+        return failedFrames.sum();
+    }
+
+    public int getQueueSize() {
+        return queueSize.get();
+    }
+
+    private void drain(JournalSegmentWriter writer) {
+        // after the shutdown is requested, write the remaining frames
+        while (running || !queue.isEmpty()) {
+            JournalFrame frame = queue.poll();
+            if (frame == null) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+
+            queueSize.decrementAndGet();
+            try {
+                writer.write(frame, config.getMaxFrameBytes());
+            } catch (IOException | RuntimeException e) {
+                // e.g. a frame that cannot be encoded must not stop the journal
+                failedFrames.increment();
+                log.error("Could not write a frame of '{}' to the message journal", frame.getChargeBoxId(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws.journal;
+
+import org.joda.time.DateTime;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Prints the frames of a journal directory, optionally restricted to a station and a time range:
+ *
+ * <pre>
+ * java -cp "steve.jar:libs/*" de.rwth.idsg.steve.ocpp.ws.journal.MessageJournalCli directory [chargeBoxId|*] [from] [to]
+ * </pre>
+ *
+ * from and to are ISO 8601 date times, e.g. 2026-10-19T08:00:00Z
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+public final class MessageJournalCli {
+
+    private MessageJournalCli() { }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 4) {
+            System.err.println("Usage: MessageJournalCli directory [chargeBoxId|*] [from] [to]");
+            System.exit(1);
+        }
+
+        String chargeBoxId = (args.length > 1 && !"*".equals(args[1])) ? args[1] : null;
+        long from = (args.length > 2) ? DateTime.parse(args[2]).getMillis() : Long.MIN_VALUE;
+        long to = (args.length > 3) ? DateTime.parse(args[3]).getMillis() : Long.MAX_VALUE;
+
+        new MessageJournalReader(Paths.get(args[0])).search(chargeBoxId, from, to, frame ->
+                System.out.println(new DateTime(frame.getTimestamp()) + " " + frame.getDirection() + " "
+                        + frame.getChargeBoxId() + " " + frame.getPayload())
+        );
+    }
+}
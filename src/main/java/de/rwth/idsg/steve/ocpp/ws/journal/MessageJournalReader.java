@@ -0,0 +1,143 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws.journal;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Searches the segments of a journal directory. Can be used while the journal is being written.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class MessageJournalReader {
+
+    static final int MAGIC = 0x53544A31; // "STJ1"
+
+    private static final String FILE_PREFIX = "segment-";
+    private static final String FILE_SUFFIX = ".journal";
+
+    private final Path directory;
+
+    /**
+     * @param chargeBoxId   if null, the frames of all stations
+     * @param from          inclusive, epoch millis
+     * @param to            exclusive, epoch millis
+     */
+    public void search(@Nullable String chargeBoxId, long from, long to, Consumer<JournalFrame> consumer)
+            throws IOException {
+        List<Path> segments = list(directory);
+
+        for (int i = 0; i < segments.size(); i++) {
+            // a segment only contains frames until the next segment was started
+            if (i + 1 < segments.size() && segmentTime(segments.get(i + 1)) <= from) {
+                continue;
+            }
+            if (segmentTime(segments.get(i)) >= to) {
+                break;
+            }
+            read(segments.get(i), chargeBoxId, from, to, consumer);
+        }
+    }
+
+    private static void read(Path segment, @Nullable String chargeBoxId, long from, long to,
+                             Consumer<JournalFrame> consumer) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.remaining() < Integer.BYTES + Long.BYTES || buffer.getInt() != MAGIC) {
+            log.warn("Skipping {}, since it is not a journal segment", segment);
+            return;
+        }
+        buffer.getLong(); // creation time
+
+        while (buffer.remaining() >= Integer.BYTES) {
+            int frameLength = buffer.getInt();
+            if (frameLength <= 0 || frameLength > buffer.remaining()) {
+                break; // end of the written data
+            }
+
+            int frameEnd = buffer.position() + frameLength;
+            long timestamp = buffer.getLong();
+            JournalDirection direction = JournalDirection.fromCode(buffer.get());
+            String id = readString(buffer, buffer.getShort());
+
+            if (timestamp >= from && timestamp < to && (chargeBoxId == null || chargeBoxId.equals(id))) {
+                String payload = readString(buffer, frameEnd - buffer.position());
+                consumer.accept(new JournalFrame(timestamp, id, direction, payload));
+            }
+            buffer.position(frameEnd);
+        }
+    }
+
+    private static String readString(MappedByteBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // -------------------------------------------------------------------------
+    // Segment files, shared with the writer
+    // -------------------------------------------------------------------------
+
+    static String fileName(long segmentTime) {
+        // zero-padded, so that the lexicographical order is the chronological one
+        return String.format("%s%020d%s", FILE_PREFIX, segmentTime, FILE_SUFFIX);
+    }
+
+    static List<Path> list(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return Collections.emptyList();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(MessageJournalReader::isSegment)
+                        .sorted()
+                        .collect(Collectors.toList());
+        }
+    }
+
+    private static boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX);
+    }
+
+    private static long segmentTime(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+    }
+}
@@ -18,17 +18,14 @@
  */
 package de.rwth.idsg.steve.ocpp.ws.ocpp15;
 
-import de.rwth.idsg.ocpp.jaxb.RequestType;
-import de.rwth.idsg.ocpp.jaxb.ResponseType;
 import de.rwth.idsg.steve.ocpp.OcppProtocol;
 import de.rwth.idsg.steve.ocpp.OcppVersion;
 import de.rwth.idsg.steve.ocpp.soap.CentralSystemService15_SoapServer;
 import de.rwth.idsg.steve.ocpp.ws.AbstractWebSocketEndpoint;
 import de.rwth.idsg.steve.ocpp.ws.FutureResponseContextStore;
 import de.rwth.idsg.steve.ocpp.ws.pipeline.AbstractCallHandler;
+import de.rwth.idsg.steve.ocpp.ws.pipeline.CallHandlerTable;
 import de.rwth.idsg.steve.ocpp.ws.pipeline.Deserializer;
-import de.rwth.idsg.steve.ocpp.ws.pipeline.IncomingPipeline;
-import lombok.RequiredArgsConstructor;
 import ocpp.cs._2012._06.AuthorizeRequest;
 import ocpp.cs._2012._06.BootNotificationRequest;
 import ocpp.cs._2012._06.DataTransferRequest;
@@ -57,8 +54,7 @@ public class Ocpp15WebSocketEndpoint extends AbstractWebSocketEndpoint {
     @PostConstruct
     public void init() {
         Deserializer deserializer = new Deserializer(futureResponseContextStore, Ocpp15TypeStore.INSTANCE);
-        IncomingPipeline pipeline = new IncomingPipeline(deserializer, new Ocpp15CallHandler(server));
-        super.init(pipeline);
+        super.init(deserializer, new Ocpp15CallHandler(server));
     }
 
     @Override
@@ -66,49 +62,22 @@ public class Ocpp15WebSocketEndpoint extends AbstractWebSocketEndpoint {
         return OcppVersion.V_15;
     }
 
-    @RequiredArgsConstructor
     private static class Ocpp15CallHandler extends AbstractCallHandler {
 
-        private final CentralSystemService15_SoapServer server;
-
-        @Override
-        protected ResponseType dispatch(RequestType params, String chargeBoxId) {
-            ResponseType r;
-
-            if (params instanceof BootNotificationRequest) {
-                r = server.bootNotificationWithTransport((BootNotificationRequest) params, chargeBoxId, OcppProtocol.V_15_JSON);
-
-            } else if (params instanceof FirmwareStatusNotificationRequest) {
-                r = server.firmwareStatusNotification((FirmwareStatusNotificationRequest) params, chargeBoxId);
-
-            } else if (params instanceof StatusNotificationRequest) {
-                r = server.statusNotification((StatusNotificationRequest) params, chargeBoxId);
-
-            } else if (params instanceof MeterValuesRequest) {
-                r = server.meterValues((MeterValuesRequest) params, chargeBoxId);
-
-            } else if (params instanceof DiagnosticsStatusNotificationRequest) {
-                r = server.diagnosticsStatusNotification((DiagnosticsStatusNotificationRequest) params, chargeBoxId);
-
-            } else if (params instanceof StartTransactionRequest) {
-                r = server.startTransaction((StartTransactionRequest) params, chargeBoxId);
-
-            } else if (params instanceof StopTransactionRequest) {
-                r = server.stopTransaction((StopTransactionRequest) params, chargeBoxId);
-
-            } else if (params instanceof HeartbeatRequest) {
-                r = server.heartbeat((HeartbeatRequest) params, chargeBoxId);
-
-            } else if (params instanceof AuthorizeRequest) {
-                r = server.authorize((AuthorizeRequest) params, chargeBoxId);
-
-            } else if (params instanceof DataTransferRequest) {
-                r = server.dataTransfer((DataTransferRequest) params, chargeBoxId);
-            } else {
-                throw new IllegalArgumentException("Unexpected RequestType, dispatch method not found");
-            }
-
-            return r;
+        private Ocpp15CallHandler(CentralSystemService15_SoapServer server) {
+            super(CallHandlerTable.builder(Ocpp15TypeStore.INSTANCE)
+                    .add(BootNotificationRequest.class,
+                            (p, chargeBoxId) -> server.bootNotificationWithTransport(p, chargeBoxId, OcppProtocol.V_15_JSON))
+                    .add(FirmwareStatusNotificationRequest.class, server::firmwareStatusNotification)
+                    .add(StatusNotificationRequest.class, server::statusNotification)
+                    .add(MeterValuesRequest.class, server::meterValues)
+                    .add(DiagnosticsStatusNotificationRequest.class, server::diagnosticsStatusNotification)
+                    .add(StartTransactionRequest.class, server::startTransaction)
+                    .add(StopTransactionRequest.class, server::stopTransaction)
+                    .add(HeartbeatRequest.class, server::heartbeat)
+                    .add(AuthorizeRequest.class, server::authorize)
+                    .add(DataTransferRequest.class, server::dataTransfer)
+                    .build());
         }
     }
 }
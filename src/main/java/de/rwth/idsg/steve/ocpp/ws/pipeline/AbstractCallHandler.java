@@ -18,12 +18,12 @@
  */
 package de.rwth.idsg.steve.ocpp.ws.pipeline;
 
-import de.rwth.idsg.ocpp.jaxb.RequestType;
 import de.rwth.idsg.ocpp.jaxb.ResponseType;
 import de.rwth.idsg.steve.ocpp.ws.ErrorFactory;
 import de.rwth.idsg.steve.ocpp.ws.data.CommunicationContext;
 import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonCall;
 import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonResult;
+import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,9 +33,12 @@ import java.util.function.Consumer;
  * @author Sevket Goekay <goekay@dbis.rwth-aachen.de>
  * @since 17.03.2015
  */
+@RequiredArgsConstructor
 public abstract class AbstractCallHandler implements Consumer<CommunicationContext> {
     private final Logger log = LoggerFactory.getLogger(getClass());
 
+    private final CallHandlerTable table;
+
     @Override
     public void accept(CommunicationContext context) {
         OcppJsonCall call = (OcppJsonCall) context.getIncomingMessage();
@@ -43,7 +46,7 @@ public abstract class AbstractCallHandler implements Consumer<CommunicationConte
 
         ResponseType response;
         try {
-            response = dispatch(call.getPayload(), context.getChargeBoxId());
+            response = table.dispatch(call.getPayload(), context.getChargeBoxId());
         } catch (Exception e) {
             log.error("Exception occurred", e);
             context.setOutgoingMessage(ErrorFactory.payloadProcessingError(messageId, e.getMessage()));
@@ -55,6 +58,4 @@ public abstract class AbstractCallHandler implements Consumer<CommunicationConte
         result.setMessageId(messageId);
         context.setOutgoingMessage(result);
     }
-
-    protected abstract ResponseType dispatch(RequestType params, String chargeBoxId);
 }
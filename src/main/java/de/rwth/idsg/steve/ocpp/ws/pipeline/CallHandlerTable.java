@@ -0,0 +1,101 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws.pipeline;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import de.rwth.idsg.ocpp.jaxb.RequestType;
+import de.rwth.idsg.ocpp.jaxb.ResponseType;
+import de.rwth.idsg.steve.ocpp.ws.TypeStore;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Immutable lookup table from the request class of an incoming call to the method that handles it. Built once at
+ * startup, so that dispatching a call is a single map lookup instead of a chain of instanceof checks.
+ *
+ * The keys are validated against the {@link TypeStore} of the OCPP version, i.e. the classes the deserializer can
+ * actually produce. Adding support for a new action is therefore one more {@link Builder#add(Class, BiFunction)}.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+public final class CallHandlerTable {
+
+    private final Map<Class<? extends RequestType>, BiFunction<RequestType, String, ResponseType>> handlers;
+
+    private CallHandlerTable(
+            Map<Class<? extends RequestType>, BiFunction<RequestType, String, ResponseType>> handlers) {
+        this.handlers = ImmutableMap.copyOf(handlers);
+    }
+
+    public static Builder builder(TypeStore typeStore) {
+        return new Builder(typeStore);
+    }
+
+    public ResponseType dispatch(RequestType params, String chargeBoxId) {
+        BiFunction<RequestType, String, ResponseType> handler = handlers.get(params.getClass());
+        if (handler == null) {
+            throw new IllegalArgumentException("Unexpected RequestType, dispatch method not found");
+        }
+        return handler.apply(params, chargeBoxId);
+    }
+
+    // -------------------------------------------------------------------------
+    // Builder
+    // -------------------------------------------------------------------------
+
+    @Slf4j
+    public static final class Builder {
+
+        private final TypeStore typeStore;
+        private final Map<Class<? extends RequestType>, BiFunction<RequestType, String, ResponseType>> handlers =
+                new HashMap<>();
+
+        private Builder(TypeStore typeStore) {
+            this.typeStore = typeStore;
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T extends RequestType> Builder add(Class<T> requestClass,
+                                                   BiFunction<T, String, ? extends ResponseType> handler) {
+            Preconditions.checkArgument(typeStore.getRequestClasses().contains(requestClass),
+                    "%s is not an incoming request of this OCPP version", requestClass.getName());
+
+            BiFunction<RequestType, String, ResponseType> erased =
+                    (BiFunction<RequestType, String, ResponseType>) (BiFunction<?, ?, ?>) handler;
+
+            Preconditions.checkArgument(handlers.put(requestClass, erased) == null,
+                    "Duplicate handler for %s", requestClass.getName());
+            return this;
+        }
+
+        public CallHandlerTable build() {
+            for (Class<? extends RequestType> clazz : typeStore.getRequestClasses()) {
+                if (!handlers.containsKey(clazz)) {
+                    log.warn("No handler registered for incoming request '{}'", clazz.getName());
+                }
+            }
+            return new CallHandlerTable(handlers);
+        }
+    }
+}
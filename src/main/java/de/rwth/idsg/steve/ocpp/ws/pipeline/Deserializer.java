@@ -145,7 +145,7 @@ public class Deserializer implements Consumer<CommunicationContext> {
      * There is no mechanism in OCPP to report back such erroneous messages.
      */
     private void handleResult(CommunicationContext context, String messageId, JsonParser parser) {
-        FutureResponseContext responseContext = futureResponseContextStore.get(context.getSession(), messageId);
+        FutureResponseContext responseContext = futureResponseContextStore.get(context.getSessionContext(), messageId);
         if (responseContext == null) {
             throw new SteveException(
                     "A result message was received as response to a not-sent call. The message was: %s",
@@ -175,7 +175,7 @@ public class Deserializer implements Consumer<CommunicationContext> {
      * There is no mechanism in OCPP to report back such erroneous messages.
      */
     private void handleError(CommunicationContext context, String messageId, JsonParser parser) {
-        FutureResponseContext responseContext = futureResponseContextStore.get(context.getSession(), messageId);
+        FutureResponseContext responseContext = futureResponseContextStore.get(context.getSessionContext(), messageId);
         if (responseContext == null) {
             throw new SteveException(
                     "An error message was received as response to a not-sent call. The message was: %s",
@@ -18,6 +18,18 @@
  */
 package de.rwth.idsg.steve.ocpp.ws.pipeline;
 
+import de.rwth.idsg.steve.jfr.MessageDeserializedEvent;
+import de.rwth.idsg.steve.jfr.MessageDispatchedEvent;
+import de.rwth.idsg.steve.jfr.MessageReceivedEvent;
+import de.rwth.idsg.steve.jfr.MessageSentEvent;
+import de.rwth.idsg.steve.jfr.MessageSerializedEvent;
+import de.rwth.idsg.steve.jfr.OcppMessageEvent;
+import de.rwth.idsg.steve.metrics.OcppMetrics;
+import de.rwth.idsg.steve.metrics.QueryProfiler;
+import de.rwth.idsg.steve.ocpp.OcppCallLimiter;
+import de.rwth.idsg.steve.ocpp.OcppTransport;
+import de.rwth.idsg.steve.ocpp.ws.ErrorFactory;
+import de.rwth.idsg.steve.ocpp.ws.ResponseCache;
 import de.rwth.idsg.steve.ocpp.ws.data.CommunicationContext;
 import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonCall;
 import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonError;
@@ -43,32 +55,142 @@ public class IncomingPipeline implements Consumer<CommunicationContext> {
 
     private final Deserializer deserializer;
     private final AbstractCallHandler handler;
+    private final OcppMetrics metrics;
+    private final ResponseCache responseCache;
+    private final OcppCallLimiter callLimiter;
 
     @Override
     public void accept(CommunicationContext context) {
-        deserializer.accept(context);
+        long start = System.nanoTime();
+        MessageReceivedEvent received = new MessageReceivedEvent();
+        received.begin();
+        try {
+            process(context);
+        } finally {
+            complete(received, context, context.getIncomingString());
+            long duration = System.nanoTime() - start;
+            metrics.recordRequest(OcppTransport.JSON, getAction(context.getIncomingMessage()), duration);
+        }
+    }
+
+    private void process(CommunicationContext context) {
+        stage(new MessageDeserializedEvent(), deserializer, context);
 
         // When the incoming could not be deserialized
         if (context.isSetOutgoingError()) {
-            serializer.accept(context);
-            sender.accept(context);
+            respond(context);
             return;
         }
 
         OcppJsonMessage msg = context.getIncomingMessage();
 
         if (msg instanceof OcppJsonCall) {
-            handler.accept(context);
-            serializer.accept(context);
-            sender.accept(context);
+            if (respondFromCache(context, (OcppJsonCall) msg)) {
+                return;
+            }
+
+            OcppCallLimiter.Permit permit = callLimiter.acquireAtEntry(((OcppJsonCall) msg).getAction());
+            if (permit == null) {
+                shed(context, (OcppJsonCall) msg);
+                return;
+            }
+
+            QueryProfiler.INSTANCE.enter("OCPP-J " + ((OcppJsonCall) msg).getAction());
+            try {
+                stage(new MessageDispatchedEvent(), handler, context);
+            } finally {
+                QueryProfiler.INSTANCE.exit();
+                permit.release();
+            }
+            respond(context);
 
         } else if (msg instanceof OcppJsonResult) {
-            context.getResultHandler()
-                   .accept((OcppJsonResult) msg);
+            stage(new MessageDispatchedEvent(), c -> c.getResultHandler().accept((OcppJsonResult) msg), context);
 
         } else if (msg instanceof OcppJsonError) {
-            context.getErrorHandler()
-                   .accept((OcppJsonError) msg);
+            stage(new MessageDispatchedEvent(), c -> c.getErrorHandler().accept((OcppJsonError) msg), context);
+        }
+    }
+
+    /**
+     * A retransmitted call is answered with the response that was sent before, without processing it again.
+     */
+    private boolean respondFromCache(CommunicationContext context, OcppJsonCall call) {
+        if (!responseCache.isEnabled()) {
+            return false;
+        }
+
+        String response = responseCache.get(context.getChargeBoxId(), call, context.getIncomingString());
+        if (response == null) {
+            return false;
+        }
+
+        log.info("[chargeBoxId={}] Call '{}' was retransmitted, responding from the cache",
+                context.getChargeBoxId(), call.getMessageId());
+        context.setOutgoingString(response);
+        send(context);
+        return true;
+    }
+
+    /**
+     * The last resort under overload. The station retries the call later.
+     */
+    private void shed(CommunicationContext context, OcppJsonCall call) {
+        log.warn("[chargeBoxId={}] Call '{}' ({}) is rejected, because the database is saturated",
+                context.getChargeBoxId(), call.getMessageId(), call.getAction());
+        context.setOutgoingMessage(ErrorFactory.overloaded(call.getMessageId()));
+        respond(context);
+    }
+
+    private void respond(CommunicationContext context) {
+        MessageSerializedEvent serialized = new MessageSerializedEvent();
+        serialized.begin();
+        serializer.accept(context);
+        complete(serialized, context, context.getOutgoingString());
+
+        // Before sending, because a failed send is what makes the station retransmit the call
+        if (responseCache.isEnabled()
+                && context.getIncomingMessage() instanceof OcppJsonCall
+                && context.getOutgoingMessage() instanceof OcppJsonResult) {
+            responseCache.put(context.getChargeBoxId(), (OcppJsonCall) context.getIncomingMessage(),
+                    context.getIncomingString(), context.getOutgoingString());
+        }
+
+        send(context);
+    }
+
+    private void send(CommunicationContext context) {
+        MessageSentEvent sent = new MessageSentEvent();
+        sent.begin();
+        sender.accept(context);
+        complete(sent, context, context.getOutgoingString());
+    }
+
+    private static void stage(OcppMessageEvent event, Consumer<CommunicationContext> stage,
+                              CommunicationContext context) {
+        event.begin();
+        stage.accept(context);
+        complete(event, context, context.getIncomingString());
+    }
+
+    private static void complete(OcppMessageEvent event, CommunicationContext context, String payload) {
+        if (!event.isEnabled()) {
+            return;
+        }
+        event.complete(context.getChargeBoxId(), getAction(context.getIncomingMessage()), OcppTransport.JSON,
+                payload == null ? 0 : payload.length());
+    }
+
+    /**
+     * Responses do not carry the action, so we fall back to the message type for them.
+     */
+    private static String getAction(OcppJsonMessage msg) {
+        if (msg == null) {
+            return null;
+        } else if (msg instanceof OcppJsonCall) {
+            return ((OcppJsonCall) msg).getAction();
+        } else {
+            return msg.getMessageType().name();
         }
     }
 
@@ -40,7 +40,8 @@ public class OutgoingCallPipeline implements Consumer<CommunicationContext> {
 
     @Autowired
     public OutgoingCallPipeline(FutureResponseContextStore store) {
-        chainedConsumers = OutgoingCallPipeline.start(Serializer.INSTANCE)
+        chainedConsumers = OutgoingCallPipeline.start(assignMessageId(store))
+                                               .andThen(Serializer.INSTANCE)
                                                .andThen(Sender.INSTANCE)
                                                .andThen(saveInStore(store));
     }
@@ -50,10 +51,15 @@ public class OutgoingCallPipeline implements Consumer<CommunicationContext> {
         chainedConsumers.accept(ctx);
     }
 
+    private static Consumer<CommunicationContext> assignMessageId(FutureResponseContextStore store) {
+        return context -> context.getOutgoingMessage()
+                                 .setMessageId(store.nextMessageId(context.getSessionContext()));
+    }
+
     private static Consumer<CommunicationContext> saveInStore(FutureResponseContextStore store) {
         return context -> {
             // All went well, and the call is sent. Store the response context for later lookup.
-            store.add(context.getSession(),
+            store.add(context.getSessionContext(),
                       context.getOutgoingMessage().getMessageId(),
                       context.getFutureResponseContext());
         };
@@ -22,6 +22,7 @@ import de.rwth.idsg.steve.repository.dto.InsertConnectorStatusParams;
 import de.rwth.idsg.steve.repository.dto.InsertTransactionParams;
 import de.rwth.idsg.steve.repository.dto.UpdateChargeboxParams;
 import de.rwth.idsg.steve.repository.dto.UpdateTransactionParams;
+import de.rwth.idsg.steve.repository.wal.WalEntry;
 import ocpp.cs._2015._10.MeterValue;
 import org.joda.time.DateTime;
 
@@ -42,8 +43,12 @@ public interface OcppServerRepository {
     void insertConnectorStatus(InsertConnectorStatusParams params);
 
     void insertMeterValues(String chargeBoxIdentity, List<MeterValue> list, int connectorId, Integer transactionId);
-    void insertMeterValues(String chargeBoxIdentity, List<MeterValue> list, int transactionId);
 
     int insertTransaction(InsertTransactionParams params);
     void updateTransaction(UpdateTransactionParams params);
+
+    /**
+     * Writes an entry of the write-ahead log. Idempotent, and throws if the database is unavailable.
+     */
+    void replay(WalEntry entry);
 }
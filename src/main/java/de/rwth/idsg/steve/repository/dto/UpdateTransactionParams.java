@@ -21,8 +21,11 @@ package de.rwth.idsg.steve.repository.dto;
 import jooq.steve.db.enums.TransactionStopEventActor;
 import lombok.Builder;
 import lombok.Getter;
+import ocpp.cs._2015._10.MeterValue;
 import org.joda.time.DateTime;
 
+import java.util.List;
+
 /**
  * @author Sevket Goekay <goekay@dbis.rwth-aachen.de>
  * @since 17.03.2016
@@ -36,6 +39,9 @@ public class UpdateTransactionParams {
     private final String stopMeterValue;
     private final String stopReason;
 
+    // Only in OCPP1.5 (transactionData of StopTransaction)
+    private final List<MeterValue> transactionData;
+
     private final TransactionStatusUpdate statusUpdate = TransactionStatusUpdate.AfterStop;
 
     // these two came after splitting transaction table into two tables (start and stop)
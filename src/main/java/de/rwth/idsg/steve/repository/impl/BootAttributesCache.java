@@ -0,0 +1,130 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import de.rwth.idsg.steve.repository.dto.UpdateChargeboxParams;
+import jooq.steve.db.tables.records.ChargeBoxRecord;
+import org.jooq.DSLContext;
+import org.jooq.Record;
+import org.jooq.TableField;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import static jooq.steve.db.tables.ChargeBox.CHARGE_BOX;
+
+/**
+ * The descriptive columns of charge_box (vendor, model, serials, firmware...) as last persisted for a
+ * BootNotification. Stations boot often, but these rarely change. Knowing the last values, a boot only writes the
+ * columns that changed, and usually none.
+ *
+ * Stations that are not known yet (e.g. after a restart) are read from the database once. The entries expire after
+ * an hour, such that a station that was deleted and added again in the meantime gets its columns written again.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+public class BootAttributesCache {
+
+    // More stations than one instance is expected to serve
+    private static final int MAX_STATIONS = 100_000;
+
+    private static final List<TableField<ChargeBoxRecord, String>> COLUMNS = Arrays.asList(
+            CHARGE_BOX.OCPP_PROTOCOL,
+            CHARGE_BOX.CHARGE_POINT_VENDOR,
+            CHARGE_BOX.CHARGE_POINT_MODEL,
+            CHARGE_BOX.CHARGE_POINT_SERIAL_NUMBER,
+            CHARGE_BOX.CHARGE_BOX_SERIAL_NUMBER,
+            CHARGE_BOX.FW_VERSION,
+            CHARGE_BOX.ICCID,
+            CHARGE_BOX.IMSI,
+            CHARGE_BOX.METER_TYPE,
+            CHARGE_BOX.METER_SERIAL_NUMBER
+    );
+
+    private final Cache<String, Map<TableField<ChargeBoxRecord, String>, String>> stations =
+            CacheBuilder.newBuilder()
+                        .maximumSize(MAX_STATIONS)
+                        .expireAfterWrite(1, TimeUnit.HOURS)
+                        .build();
+
+    /**
+     * @return the columns with their new values, that differ from the persisted ones
+     */
+    public Map<TableField<ChargeBoxRecord, String>, String> getChanged(DSLContext ctx, UpdateChargeboxParams p) {
+        Map<TableField<ChargeBoxRecord, String>, String> persisted = stations.getIfPresent(p.getChargeBoxId());
+        if (persisted == null) {
+            persisted = load(ctx, p.getChargeBoxId());
+        }
+
+        Map<TableField<ChargeBoxRecord, String>, String> changed = new HashMap<>();
+        for (Map.Entry<TableField<ChargeBoxRecord, String>, String> e : toColumns(p).entrySet()) {
+            if (!Objects.equals(e.getValue(), persisted.get(e.getKey()))) {
+                changed.put(e.getKey(), e.getValue());
+            }
+        }
+        return changed;
+    }
+
+    public void persisted(UpdateChargeboxParams p) {
+        stations.put(p.getChargeBoxId(), toColumns(p));
+    }
+
+    private static Map<TableField<ChargeBoxRecord, String>, String> load(DSLContext ctx, String chargeBoxId) {
+        Record r = ctx.select(COLUMNS)
+                      .from(CHARGE_BOX)
+                      .where(CHARGE_BOX.CHARGE_BOX_ID.equal(chargeBoxId))
+                      .fetchOne();
+
+        if (r == null) {
+            return Collections.emptyMap();
+        }
+
+        Map<TableField<ChargeBoxRecord, String>, String> columns = new HashMap<>();
+        for (TableField<ChargeBoxRecord, String> column : COLUMNS) {
+            columns.put(column, r.get(column));
+        }
+        return columns;
+    }
+
+    /**
+     * HashMap, since most of the values are optional in OCPP
+     */
+    private static Map<TableField<ChargeBoxRecord, String>, String> toColumns(UpdateChargeboxParams p) {
+        Map<TableField<ChargeBoxRecord, String>, String> columns = new HashMap<>();
+        columns.put(CHARGE_BOX.OCPP_PROTOCOL, p.getOcppProtocol().getCompositeValue());
+        columns.put(CHARGE_BOX.CHARGE_POINT_VENDOR, p.getVendor());
+        columns.put(CHARGE_BOX.CHARGE_POINT_MODEL, p.getModel());
+        columns.put(CHARGE_BOX.CHARGE_POINT_SERIAL_NUMBER, p.getPointSerial());
+        columns.put(CHARGE_BOX.CHARGE_BOX_SERIAL_NUMBER, p.getBoxSerial());
+        columns.put(CHARGE_BOX.FW_VERSION, p.getFwVersion());
+        columns.put(CHARGE_BOX.ICCID, p.getIccid());
+        columns.put(CHARGE_BOX.IMSI, p.getImsi());
+        columns.put(CHARGE_BOX.METER_TYPE, p.getMeterType());
+        columns.put(CHARGE_BOX.METER_SERIAL_NUMBER, p.getMeterSerial());
+        return columns;
+    }
+}
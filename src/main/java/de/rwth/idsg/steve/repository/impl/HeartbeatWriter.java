@@ -0,0 +1,100 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.joda.time.DateTime;
+import org.jooq.BatchBindStep;
+import org.jooq.DSLContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static jooq.steve.db.tables.ChargeBox.CHARGE_BOX;
+
+/**
+ * Coalesces the heartbeat timestamps of the stations (Heartbeat, BootNotification, WebSocket pong) and writes them
+ * periodically as one batch. Only the latest timestamp of a station within the interval is written, such that a boot
+ * storm or many pongs at once do not cause one row lock on charge_box each.
+ *
+ * The timestamps are only used for display and filtering in the web interface, where a delay of a few seconds does
+ * not matter.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+@Slf4j
+@Component
+public class HeartbeatWriter {
+
+    private static final long FLUSH_INTERVAL_MILLIS = 10_000;
+
+    @Autowired private DSLContext ctx;
+
+    private final Map<String, DateTime> pending = new ConcurrentHashMap<>();
+
+    public void add(String chargeBoxId, DateTime ts) {
+        pending.merge(chargeBoxId, ts, HeartbeatWriter::latest);
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelay = FLUSH_INTERVAL_MILLIS)
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        BatchBindStep batch = ctx.batch(ctx.update(CHARGE_BOX)
+                                           .set(CHARGE_BOX.LAST_HEARTBEAT_TIMESTAMP, (DateTime) null)
+                                           .where(CHARGE_BOX.CHARGE_BOX_ID.equal((String) null)));
+
+        // Remove one by one, such that timestamps added in the meantime are kept for the next flush
+        Map<String, DateTime> drained = new HashMap<>();
+        for (String chargeBoxId : pending.keySet()) {
+            DateTime ts = pending.remove(chargeBoxId);
+            if (ts != null) {
+                drained.put(chargeBoxId, ts);
+                batch.bind(ts, chargeBoxId);
+            }
+        }
+
+        if (drained.isEmpty()) {
+            return;
+        }
+
+        try {
+            batch.execute();
+            log.debug("Wrote the heartbeat timestamps of {} stations.", drained.size());
+        } catch (Exception e) {
+            // Retried with the next flush, unless newer timestamps arrive in the meantime
+            drained.forEach((chargeBoxId, ts) -> pending.merge(chargeBoxId, ts, HeartbeatWriter::latest));
+            log.error("Failed to write the heartbeat timestamps of {} stations, retrying with the next flush",
+                    drained.size(), e);
+        }
+    }
+
+    private static DateTime latest(DateTime a, DateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import de.rwth.idsg.steve.repository.dto.InsertConnectorStatusParams;
+import lombok.EqualsAndHashCode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The last status of the connectors, as inserted into connector_status. Many stations send the same
+ * StatusNotification every few minutes or after every reconnect. Such exact repeats do not add anything to the
+ * status history.
+ *
+ * Only the statuses inserted by this instance are known. Transaction messages insert statuses as well, therefore they
+ * invalidate the entries of the station.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+@Slf4j
+public class LastConnectorStatusCache {
+
+    // More stations than one instance is expected to serve
+    private static final int MAX_STATIONS = 100_000;
+
+    private final Cache<String, Map<Integer, Status>> stations = CacheBuilder.newBuilder()
+                                                                             .maximumSize(MAX_STATIONS)
+                                                                             .expireAfterAccess(1, TimeUnit.DAYS)
+                                                                             .build();
+
+    public boolean isRepeat(InsertConnectorStatusParams p) {
+        Map<Integer, Status> connectors = stations.getIfPresent(p.getChargeBoxId());
+        return connectors != null && new Status(p).equals(connectors.get(p.getConnectorId()));
+    }
+
+    public void inserted(InsertConnectorStatusParams p) {
+        try {
+            stations.get(p.getChargeBoxId(), ConcurrentHashMap::new)
+                    .put(p.getConnectorId(), new Status(p));
+        } catch (ExecutionException e) {
+            log.error("Error occurred", e);
+        }
+    }
+
+    public void invalidate(String chargeBoxId) {
+        stations.invalidate(chargeBoxId);
+    }
+
+    /**
+     * Everything except the timestamp
+     */
+    @EqualsAndHashCode
+    private static class Status {
+        private final String status;
+        private final String errorCode;
+        private final String errorInfo;
+        private final String vendorId;
+        private final String vendorErrorCode;
+
+        private Status(InsertConnectorStatusParams p) {
+            status = p.getStatus();
+            errorCode = p.getErrorCode();
+            errorInfo = p.getErrorInfo();
+            vendorId = p.getVendorId();
+            vendorErrorCode = p.getVendorErrorCode();
+        }
+    }
+}
@@ -19,40 +19,41 @@
 package de.rwth.idsg.steve.repository.impl;
 
 import com.google.common.base.Throwables;
-import com.google.common.util.concurrent.Striped;
 import de.rwth.idsg.steve.SteveException;
 import de.rwth.idsg.steve.repository.OcppServerRepository;
-import de.rwth.idsg.steve.repository.ReservationRepository;
 import de.rwth.idsg.steve.repository.dto.InsertConnectorStatusParams;
 import de.rwth.idsg.steve.repository.dto.InsertTransactionParams;
-import de.rwth.idsg.steve.repository.dto.TransactionStatusUpdate;
 import de.rwth.idsg.steve.repository.dto.UpdateChargeboxParams;
 import de.rwth.idsg.steve.repository.dto.UpdateTransactionParams;
+import de.rwth.idsg.steve.repository.wal.WalEntry;
+import de.rwth.idsg.steve.repository.wal.WriteAheadLog;
 import jooq.steve.db.enums.TransactionStopEventActor;
 import jooq.steve.db.enums.TransactionStopFailedEventActor;
+import jooq.steve.db.routines.InsertTransaction;
+import jooq.steve.db.routines.UpdateTransaction;
+import jooq.steve.db.tables.records.ChargeBoxRecord;
 import jooq.steve.db.tables.records.ConnectorMeterValueRecord;
-import lombok.AccessLevel;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import ocpp.cs._2015._10.MeterValue;
 import org.joda.time.DateTime;
 import org.jooq.DSLContext;
-import org.jooq.Record1;
-import org.jooq.SelectConditionStep;
+import org.jooq.TableField;
 import org.jooq.impl.DSL;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.CollectionUtils;
 
 import java.util.List;
-import java.util.concurrent.locks.Lock;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
 import static jooq.steve.db.tables.ChargeBox.CHARGE_BOX;
+import static jooq.steve.db.tables.ChargeBoxBoot.CHARGE_BOX_BOOT;
 import static jooq.steve.db.tables.Connector.CONNECTOR;
 import static jooq.steve.db.tables.ConnectorMeterValue.CONNECTOR_METER_VALUE;
 import static jooq.steve.db.tables.ConnectorStatus.CONNECTOR_STATUS;
-import static jooq.steve.db.tables.OcppTag.OCPP_TAG;
 import static jooq.steve.db.tables.TransactionStart.TRANSACTION_START;
 import static jooq.steve.db.tables.TransactionStop.TRANSACTION_STOP;
 import static jooq.steve.db.tables.TransactionStopFailed.TRANSACTION_STOP_FAILED;
@@ -70,26 +71,52 @@ import static jooq.steve.db.tables.TransactionStopFailed.TRANSACTION_STOP_FAILED
 public class OcppServerRepositoryImpl implements OcppServerRepository {
 
     @Autowired private DSLContext ctx;
-    @Autowired private ReservationRepository reservationRepository;
+    @Autowired private HeartbeatWriter heartbeatWriter;
+    @Autowired private WriteAheadLog writeAheadLog;
 
-    private final Striped<Lock> transactionTableLocks = Striped.lock(16);
+    private final boolean skipRepeatedStatuses = CONFIG.getOcpp().isSkipRepeatedStatusNotifications();
+    private final LastConnectorStatusCache lastStatusCache = new LastConnectorStatusCache();
+    private final BootAttributesCache bootAttributesCache = new BootAttributesCache();
 
+    /**
+     * Only the descriptive columns that changed since the last boot are written, usually none. The heartbeat
+     * timestamp goes with the next batch of {@link HeartbeatWriter}. The boots are counted per hour in charge_box_boot.
+     */
     @Override
     public void updateChargebox(UpdateChargeboxParams p) {
-        ctx.update(CHARGE_BOX)
-           .set(CHARGE_BOX.OCPP_PROTOCOL, p.getOcppProtocol().getCompositeValue())
-           .set(CHARGE_BOX.CHARGE_POINT_VENDOR, p.getVendor())
-           .set(CHARGE_BOX.CHARGE_POINT_MODEL, p.getModel())
-           .set(CHARGE_BOX.CHARGE_POINT_SERIAL_NUMBER, p.getPointSerial())
-           .set(CHARGE_BOX.CHARGE_BOX_SERIAL_NUMBER, p.getBoxSerial())
-           .set(CHARGE_BOX.FW_VERSION, p.getFwVersion())
-           .set(CHARGE_BOX.ICCID, p.getIccid())
-           .set(CHARGE_BOX.IMSI, p.getImsi())
-           .set(CHARGE_BOX.METER_TYPE, p.getMeterType())
-           .set(CHARGE_BOX.METER_SERIAL_NUMBER, p.getMeterSerial())
-           .set(CHARGE_BOX.LAST_HEARTBEAT_TIMESTAMP, p.getHeartbeatTimestamp())
-           .where(CHARGE_BOX.CHARGE_BOX_ID.equal(p.getChargeBoxId()))
+        Map<TableField<ChargeBoxRecord, String>, String> changed = bootAttributesCache.getChanged(ctx, p);
+
+        if (!changed.isEmpty()) {
+            ctx.update(CHARGE_BOX)
+               .set(changed)
+               .where(CHARGE_BOX.CHARGE_BOX_ID.equal(p.getChargeBoxId()))
+               .execute();
+
+            log.info("Updated the columns {} of the chargebox '{}'.", changed.keySet(), p.getChargeBoxId());
+        }
+        bootAttributesCache.persisted(p);
+
+        // Only the first boot of an hour inserts a row (and checks the foreign key). The later ones update it in place.
+        DateTime ts = p.getHeartbeatTimestamp();
+        int attributesChanged = changed.isEmpty() ? 0 : 1;
+
+        ctx.insertInto(CHARGE_BOX_BOOT)
+           .set(CHARGE_BOX_BOOT.CHARGE_BOX_PK, DSL.select(CHARGE_BOX.CHARGE_BOX_PK)
+                                                  .from(CHARGE_BOX)
+                                                  .where(CHARGE_BOX.CHARGE_BOX_ID.equal(p.getChargeBoxId()))
+           )
+           .set(CHARGE_BOX_BOOT.BOOT_HOUR, ts.hourOfDay().roundFloorCopy())
+           .set(CHARGE_BOX_BOOT.BOOT_COUNT, 1)
+           .set(CHARGE_BOX_BOOT.ATTRIBUTES_CHANGED_COUNT, attributesChanged)
+           .set(CHARGE_BOX_BOOT.LAST_BOOT_TIMESTAMP, ts)
+           .onDuplicateKeyUpdate()
+           .set(CHARGE_BOX_BOOT.BOOT_COUNT, CHARGE_BOX_BOOT.BOOT_COUNT.add(1))
+           .set(CHARGE_BOX_BOOT.ATTRIBUTES_CHANGED_COUNT,
+                CHARGE_BOX_BOOT.ATTRIBUTES_CHANGED_COUNT.add(attributesChanged))
+           .set(CHARGE_BOX_BOOT.LAST_BOOT_TIMESTAMP, ts)
            .execute();
+
+        heartbeatWriter.add(p.getChargeBoxId(), p.getHeartbeatTimestamp());
     }
 
     @Override
@@ -120,14 +147,16 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
 
     @Override
     public void updateChargeboxHeartbeat(String chargeBoxIdentity, DateTime ts) {
-        ctx.update(CHARGE_BOX)
-           .set(CHARGE_BOX.LAST_HEARTBEAT_TIMESTAMP, ts)
-           .where(CHARGE_BOX.CHARGE_BOX_ID.equal(chargeBoxIdentity))
-           .execute();
+        heartbeatWriter.add(chargeBoxIdentity, ts);
     }
 
     @Override
     public void insertConnectorStatus(InsertConnectorStatusParams p) {
+        if (skipRepeatedStatuses && lastStatusCache.isRepeat(p)) {
+            log.debug("Skipped the repeated connector status for {}/{}.", p.getChargeBoxId(), p.getConnectorId());
+            return;
+        }
+
         ctx.transaction(configuration -> {
             DSLContext ctx = DSL.using(configuration);
 
@@ -154,219 +183,200 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
 
             log.debug("Stored a new connector status for {}/{}.", p.getChargeBoxId(), p.getConnectorId());
         });
+
+        if (skipRepeatedStatuses) {
+            lastStatusCache.inserted(p);
+        }
     }
 
+    /**
+     * While the database is unavailable, and until the writes buffered during that time are replayed, the meter
+     * values go to the write-ahead log. See {@link WriteAheadLog#appendIfPending(WalEntry)} for the order.
+     */
     @Override
     public void insertMeterValues(String chargeBoxIdentity, List<MeterValue> list, int connectorId, Integer transactionId) {
         if (CollectionUtils.isEmpty(list)) {
             return;
         }
 
-        ctx.transaction(configuration -> {
-            try {
-                DSLContext ctx = DSL.using(configuration);
-
-                insertIgnoreConnector(ctx, chargeBoxIdentity, connectorId);
-                int connectorPk = getConnectorPkFromConnector(ctx, chargeBoxIdentity, connectorId);
-                batchInsertMeterValues(ctx, list, connectorPk, transactionId);
-            } catch (Exception e) {
-                log.error("Exception occurred", e);
-            }
-        });
-    }
-
-    @Override
-    public void insertMeterValues(String chargeBoxIdentity, List<MeterValue> list, int transactionId) {
-        if (CollectionUtils.isEmpty(list)) {
+        WalEntry entry = WalEntry.meterValues(chargeBoxIdentity, connectorId, transactionId, list);
+        if (writeAheadLog.appendIfPending(entry)) {
             return;
         }
 
-        ctx.transaction(configuration -> {
-            try {
+        try {
+            ctx.transaction(configuration -> {
                 DSLContext ctx = DSL.using(configuration);
 
-                // First, get connector primary key from transaction table
-                int connectorPk = ctx.select(TRANSACTION_START.CONNECTOR_PK)
-                                     .from(TRANSACTION_START)
-                                     .where(TRANSACTION_START.TRANSACTION_PK.equal(transactionId))
-                                     .fetchOne()
-                                     .value1();
-
+                insertIgnoreConnector(ctx, chargeBoxIdentity, connectorId);
+                int connectorPk = getConnectorPkFromConnector(ctx, chargeBoxIdentity, connectorId);
                 batchInsertMeterValues(ctx, list, connectorPk, transactionId);
-            } catch (Exception e) {
+            });
+        } catch (Exception e) {
+            if (!bufferIfRetryable(e, entry)) {
                 log.error("Exception occurred", e);
             }
-        });
+        }
     }
 
+    /**
+     * All steps run in the procedure insert_transaction in one database transaction and round trip:
+     *
+     * 1. Insert connector and idTag, if they are new to us
+     * 2. Insert transaction if it does not exist already
+     * 3. For OCPP >= 1.5: A startTransaction may be related to a reservation
+     * 4. Set connector status
+     *
+     * Steps 3 and 4 are skipped, if the transaction exists already. Step 4 is best-effort: the transaction is
+     * inserted even if the connector status cannot be.
+     */
     @Override
     public int insertTransaction(InsertTransactionParams p) {
+        // The procedure may insert a connector status
+        lastStatusCache.invalidate(p.getChargeBoxId());
+
+        InsertTransaction call = new InsertTransaction();
+        call.setPChargeBoxId(p.getChargeBoxId());
+        call.setPConnectorId(p.getConnectorId());
+        call.setPIdTag(p.getIdTag());
+        call.setPIdTagNote(unknownIdTagNote(p));
+        call.setPStartTimestamp(p.getStartTimestamp());
+        call.setPStartValue(p.getStartMeterValue());
+        call.setPEventTimestamp(p.getEventTimestamp());
+        call.setPReservationId(p.getReservationId());
+        call.setPStatus(p.getStatusUpdate().getStatus());
+        call.setPErrorCode(p.getStatusUpdate().getErrorCode());
+        call.execute(ctx.configuration());
+
+        // Actually unnecessary, because JOOQ will throw an exception, if something goes wrong
+        Integer transactionId = call.getOTransactionPk();
+        if (transactionId == null) {
+            throw new SteveException("Failed to INSERT transaction into database");
+        }
 
-        SelectConditionStep<Record1<Integer>> connectorPkQuery =
-                DSL.select(CONNECTOR.CONNECTOR_PK)
-                   .from(CONNECTOR)
-                   .where(CONNECTOR.CHARGE_BOX_ID.equal(p.getChargeBoxId()))
-                   .and(CONNECTOR.CONNECTOR_ID.equal(p.getConnectorId()));
-
-        // -------------------------------------------------------------------------
-        // Step 1: Insert connector and idTag, if they are new to us
-        // -------------------------------------------------------------------------
-
-        insertIgnoreConnector(ctx, p.getChargeBoxId(), p.getConnectorId());
-
-        // it is important to insert idTag before transaction, since the transaction table references it
-        boolean unknownTagInserted = insertIgnoreIdTag(ctx, p);
-
-        // -------------------------------------------------------------------------
-        // Step 2: Insert transaction if it does not exist already
-        // -------------------------------------------------------------------------
-
-        TransactionDataHolder data = insertIgnoreTransaction(p, connectorPkQuery);
-        int transactionId = data.transactionId;
+        if (call.getOConnectorInserted()) {
+            log.info("The connector {}/{} is NEW, and inserted into DB.", p.getChargeBoxId(), p.getConnectorId());
+        }
 
-        if (data.existsAlready) {
+        if (call.getOExistsAlready()) {
             return transactionId;
         }
 
-        if (unknownTagInserted) {
+        if (call.getOIdTagInserted()) {
             log.warn("The transaction '{}' contains an unknown idTag '{}' which was inserted into DB "
                     + "to prevent information loss and has been blocked", transactionId, p.getIdTag());
         }
 
-        // -------------------------------------------------------------------------
-        // Step 3 for OCPP >= 1.5: A startTransaction may be related to a reservation
-        // -------------------------------------------------------------------------
-
-        if (p.isSetReservationId()) {
-            reservationRepository.used(connectorPkQuery, p.getIdTag(), p.getReservationId(), transactionId);
+        if (p.isSetReservationId() && !call.getOReservationUsed()) {
+            log.warn("Could not mark the reservation '{}' as used: Problems occurred due to sent reservation id, "
+                    + "charge box connector, user id tag or the reservation was used already.", p.getReservationId());
         }
 
-        // -------------------------------------------------------------------------
-        // Step 4: Set connector status
-        // -------------------------------------------------------------------------
-
-        if (shouldInsertConnectorStatusAfterTransactionMsg(p.getChargeBoxId())) {
-            insertConnectorStatus(ctx, connectorPkQuery, p.getStartTimestamp(), p.getStatusUpdate());
+        if (call.getOStatusFailReason() != null) {
+            log.warn("Failed to insert the connector status of transaction '{}': {}",
+                    transactionId, call.getOStatusFailReason());
         }
 
         return transactionId;
     }
 
+    /**
+     * The stop event and the connector status are inserted by the procedure update_transaction in one database
+     * transaction and round trip. The connector status is set back even in cases where inserting the stop event
+     * fails. It probably and hopefully makes sense.
+     *
+     * The transaction data (if any) follows as one batch, with the connector of the transaction returned by the
+     * procedure.
+     */
     @Override
     public void updateTransaction(UpdateTransactionParams p) {
+        // The procedure may insert a connector status
+        lastStatusCache.invalidate(p.getChargeBoxId());
 
-        // -------------------------------------------------------------------------
-        // Step 1: insert transaction stop data
-        // -------------------------------------------------------------------------
+        // If the database is unavailable, the stop is replayed later. Like the meter values, it is appended to the
+        // write-ahead log directly, as long as earlier writes are waiting for their replay
+        WalEntry entry = WalEntry.stopTransaction(p);
+        if (writeAheadLog.appendIfPending(entry)) {
+            return;
+        }
 
-        // JOOQ will throw an exception, if something goes wrong
+        UpdateTransaction call;
         try {
-            ctx.insertInto(TRANSACTION_STOP)
-               .set(TRANSACTION_STOP.TRANSACTION_PK, p.getTransactionId())
-               .set(TRANSACTION_STOP.EVENT_TIMESTAMP, p.getEventTimestamp())
-               .set(TRANSACTION_STOP.EVENT_ACTOR, p.getEventActor())
-               .set(TRANSACTION_STOP.STOP_TIMESTAMP, p.getStopTimestamp())
-               .set(TRANSACTION_STOP.STOP_VALUE, p.getStopMeterValue())
-               .set(TRANSACTION_STOP.STOP_REASON, p.getStopReason())
-               .execute();
+            call = callUpdateTransaction(p);
         } catch (Exception e) {
+            if (bufferIfRetryable(e, entry)) {
+                return;
+            }
             log.error("Exception occurred", e);
-            tryInsertingFailed(p, e);
-        }
-
-        // -------------------------------------------------------------------------
-        // Step 2: Set connector status back. We do this even in cases where step 1
-        // fails. It probably and hopefully makes sense.
-        // -------------------------------------------------------------------------
-
-        if (shouldInsertConnectorStatusAfterTransactionMsg(p.getChargeBoxId())) {
-            SelectConditionStep<Record1<Integer>> connectorPkQuery =
-                    DSL.select(TRANSACTION_START.CONNECTOR_PK)
-                       .from(TRANSACTION_START)
-                       .where(TRANSACTION_START.TRANSACTION_PK.equal(p.getTransactionId()));
-
-            insertConnectorStatus(ctx, connectorPkQuery, p.getStopTimestamp(), p.getStatusUpdate());
+            tryInsertingFailed(p, Throwables.getStackTraceAsString(e));
+            return;
         }
-    }
 
-    // -------------------------------------------------------------------------
-    // Helpers
-    // -------------------------------------------------------------------------
-
-    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
-    private static final class TransactionDataHolder {
-        final boolean existsAlready;
-        final int transactionId;
-    }
-
-    /**
-     * Use case: If the station sends identical StartTransaction messages multiple times (e.g. due to connection
-     * problems the response of StartTransaction could not be delivered and station tries again later), we do not want
-     * to insert this into database multiple times.
-     */
-    private TransactionDataHolder insertIgnoreTransaction(InsertTransactionParams p,
-                                                          SelectConditionStep<Record1<Integer>> connectorPkQuery) {
-        Lock l = transactionTableLocks.get(p.getChargeBoxId());
-        l.lock();
-        try {
-            Record1<Integer> r = ctx.select(TRANSACTION_START.TRANSACTION_PK)
-                                    .from(TRANSACTION_START)
-                                    .where(TRANSACTION_START.CONNECTOR_PK.eq(connectorPkQuery))
-                                    .and(TRANSACTION_START.ID_TAG.eq(p.getIdTag()))
-                                    .and(TRANSACTION_START.START_TIMESTAMP.eq(p.getStartTimestamp()))
-                                    .and(TRANSACTION_START.START_VALUE.eq(p.getStartMeterValue()))
-                                    .fetchOne();
-
-            if (r != null) {
-                return new TransactionDataHolder(true, r.value1());
-            }
-
-            Integer transactionId = ctx.insertInto(TRANSACTION_START)
-                                       .set(TRANSACTION_START.EVENT_TIMESTAMP, p.getEventTimestamp())
-                                       .set(TRANSACTION_START.CONNECTOR_PK, connectorPkQuery)
-                                       .set(TRANSACTION_START.ID_TAG, p.getIdTag())
-                                       .set(TRANSACTION_START.START_TIMESTAMP, p.getStartTimestamp())
-                                       .set(TRANSACTION_START.START_VALUE, p.getStartMeterValue())
-                                       .returning(TRANSACTION_START.TRANSACTION_PK)
-                                       .fetchOne()
-                                       .getTransactionPk();
-
-            // Actually unnecessary, because JOOQ will throw an exception, if something goes wrong
-            if (transactionId == null) {
-                throw new SteveException("Failed to INSERT transaction into database");
+        Integer connectorPk = checkUpdateTransactionResult(p, call);
+        if (connectorPk != null && !CollectionUtils.isEmpty(p.getTransactionData())) {
+            try {
+                batchInsertMeterValues(ctx, p.getTransactionData(), connectorPk, p.getTransactionId());
+            } catch (Exception e) {
+                // The replay skips the stop event, since it exists already
+                if (!bufferIfRetryable(e, entry)) {
+                    log.error("Exception occurred", e);
+                }
             }
-
-            return new TransactionDataHolder(false, transactionId);
-        } finally {
-            l.unlock();
         }
     }
 
     /**
-     * After a transaction start/stop event, a charging station _might_ send a connector status notification, but it is
-     * not required. With this, we make sure that the status is updated accordingly. Since we use the timestamp of the
-     * transaction data, we do not necessarily insert a "most recent" status.
-     *
-     * If the station sends a notification, we will have a more recent timestamp, and therefore the status of the
-     * notification will be used as current. Or, if this transaction data was sent to us for a failed push from the past
-     * and we have a "more recent" status, it will still be the current status.
+     * The parts of the entry that exist already (the stop event, meter values with the same timestamp) are skipped,
+     * such that an entry can be replayed more than once, e.g. after a crash before the checkpoint was written.
      */
-    private void insertConnectorStatus(DSLContext ctx,
-                                       SelectConditionStep<Record1<Integer>> connectorPkQuery,
-                                       DateTime timestamp,
-                                       TransactionStatusUpdate statusUpdate) {
-        try {
-            ctx.insertInto(CONNECTOR_STATUS)
-               .set(CONNECTOR_STATUS.CONNECTOR_PK, connectorPkQuery)
-               .set(CONNECTOR_STATUS.STATUS_TIMESTAMP, timestamp)
-               .set(CONNECTOR_STATUS.STATUS, statusUpdate.getStatus())
-               .set(CONNECTOR_STATUS.ERROR_CODE, statusUpdate.getErrorCode())
-               .execute();
-        } catch (Exception e) {
-            log.error("Exception occurred", e);
+    @Override
+    public void replay(WalEntry entry) {
+        switch (entry.getType()) {
+            case METER_VALUES:
+                ctx.transaction(configuration -> {
+                    DSLContext ctx = DSL.using(configuration);
+
+                    insertIgnoreConnector(ctx, entry.getChargeBoxId(), entry.getConnectorId());
+                    int connectorPk = getConnectorPkFromConnector(ctx, entry.getChargeBoxId(), entry.getConnectorId());
+                    insertNewMeterValues(ctx, entry.getMeterValues(), connectorPk, entry.getTransactionId());
+                });
+                break;
+
+            case STOP_TRANSACTION:
+                UpdateTransactionParams p = entry.toUpdateTransactionParams();
+                lastStatusCache.invalidate(p.getChargeBoxId());
+
+                boolean stopExists = ctx.fetchExists(
+                        ctx.selectOne()
+                           .from(TRANSACTION_STOP)
+                           .where(TRANSACTION_STOP.TRANSACTION_PK.equal(p.getTransactionId()))
+                           .and(TRANSACTION_STOP.EVENT_TIMESTAMP.equal(p.getEventTimestamp()))
+                );
+
+                Integer connectorPk;
+                if (stopExists) {
+                    connectorPk = ctx.select(TRANSACTION_START.CONNECTOR_PK)
+                                     .from(TRANSACTION_START)
+                                     .where(TRANSACTION_START.TRANSACTION_PK.equal(p.getTransactionId()))
+                                     .fetchOne(TRANSACTION_START.CONNECTOR_PK);
+                } else {
+                    connectorPk = checkUpdateTransactionResult(p, callUpdateTransaction(p));
+                }
+
+                if (connectorPk != null && !CollectionUtils.isEmpty(p.getTransactionData())) {
+                    insertNewMeterValues(ctx, p.getTransactionData(), connectorPk, p.getTransactionId());
+                }
+                break;
+
+            default:
+                throw new IllegalArgumentException("Unexpected write-ahead log entry: " + entry.getType());
         }
     }
 
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
     /**
      * If the connector information was not received before, insert it. Otherwise, ignore.
      */
@@ -387,28 +397,9 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
      * is online, it sends a StartTransactionRequest with this idTag. If we do not insert this idTag, the transaction
      * details will not be inserted into DB and we will lose valuable information.
      */
-    private boolean insertIgnoreIdTag(DSLContext ctx, InsertTransactionParams p) {
-        String note = "This unknown idTag was used in a transaction that started @ " + p.getStartTimestamp()
+    private static String unknownIdTagNote(InsertTransactionParams p) {
+        return "This unknown idTag was used in a transaction that started @ " + p.getStartTimestamp()
                 + ". It was reported @ " + DateTime.now() + ".";
-
-        int count = ctx.insertInto(OCPP_TAG)
-                       .set(OCPP_TAG.ID_TAG, p.getIdTag())
-                       .set(OCPP_TAG.NOTE, note)
-                       .set(OCPP_TAG.MAX_ACTIVE_TRANSACTION_COUNT, 0)
-                       .onDuplicateKeyIgnore() // Important detail
-                       .execute();
-
-        return count == 1;
-    }
-
-    private boolean shouldInsertConnectorStatusAfterTransactionMsg(String chargeBoxId) {
-        Record1<Integer> r = ctx.selectOne()
-                                .from(CHARGE_BOX)
-                                .where(CHARGE_BOX.CHARGE_BOX_ID.eq(chargeBoxId))
-                                .and(CHARGE_BOX.INSERT_CONNECTOR_STATUS_AFTER_TRANSACTION_MSG.isTrue())
-                                .fetchOne();
-
-        return (r != null) && (r.value1() == 1);
     }
 
     private int getConnectorPkFromConnector(DSLContext ctx, String chargeBoxIdentity, int connectorId) {
@@ -420,6 +411,75 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
                   .value1();
     }
 
+    private UpdateTransaction callUpdateTransaction(UpdateTransactionParams p) {
+        UpdateTransaction call = new UpdateTransaction();
+        call.setPTransactionPk(p.getTransactionId());
+        call.setPChargeBoxId(p.getChargeBoxId());
+        call.setPEventTimestamp(p.getEventTimestamp());
+        call.setPEventActor(p.getEventActor().getLiteral());
+        call.setPStopTimestamp(p.getStopTimestamp());
+        call.setPStopValue(p.getStopMeterValue());
+        call.setPStopReason(p.getStopReason());
+        call.setPStatus(p.getStatusUpdate().getStatus());
+        call.setPErrorCode(p.getStatusUpdate().getErrorCode());
+        call.execute(ctx.configuration());
+        return call;
+    }
+
+    /**
+     * @return the connector of the transaction, if it exists
+     */
+    private Integer checkUpdateTransactionResult(UpdateTransactionParams p, UpdateTransaction call) {
+        String failReason = call.getOFailReason();
+        if (failReason != null) {
+            log.error("Failed to insert the stop event of transaction '{}': {}", p.getTransactionId(), failReason);
+            tryInsertingFailed(p, failReason);
+        }
+        return call.getOConnectorPk();
+    }
+
+    private boolean bufferIfRetryable(Exception e, WalEntry entry) {
+        if (WriteAheadLog.isRetryable(e) && writeAheadLog.append(entry)) {
+            log.warn("The database is not available ({}), buffered {} in the write-ahead log",
+                    Throwables.getRootCause(e).getMessage(), entry);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * The values of a MeterValue share its timestamp. The ones whose timestamp exists for the connector and
+     * transaction were inserted already.
+     */
+    private void insertNewMeterValues(DSLContext ctx, List<MeterValue> list, int connectorPk, Integer transactionId) {
+        if (CollectionUtils.isEmpty(list)) {
+            return;
+        }
+
+        List<DateTime> timestamps = list.stream()
+                                        .map(MeterValue::getTimestamp)
+                                        .collect(Collectors.toList());
+
+        // Compared as millis, since DateTime.equals also compares the time zones
+        Set<Long> existing = ctx.selectDistinct(CONNECTOR_METER_VALUE.VALUE_TIMESTAMP)
+                                .from(CONNECTOR_METER_VALUE)
+                                .where(CONNECTOR_METER_VALUE.CONNECTOR_PK.equal(connectorPk))
+                                .and(CONNECTOR_METER_VALUE.TRANSACTION_PK.isNotDistinctFrom(transactionId))
+                                .and(CONNECTOR_METER_VALUE.VALUE_TIMESTAMP.in(timestamps))
+                                .fetch(CONNECTOR_METER_VALUE.VALUE_TIMESTAMP)
+                                .stream()
+                                .map(DateTime::getMillis)
+                                .collect(Collectors.toSet());
+
+        List<MeterValue> newValues = list.stream()
+                                         .filter(v -> !existing.contains(v.getTimestamp().getMillis()))
+                                         .collect(Collectors.toList());
+
+        if (!newValues.isEmpty()) {
+            batchInsertMeterValues(ctx, newValues, connectorPk, transactionId);
+        }
+    }
+
     private void batchInsertMeterValues(DSLContext ctx, List<MeterValue> list, int connectorPk, Integer transactionId) {
         List<ConnectorMeterValueRecord> batch =
                 list.stream()
@@ -442,7 +502,7 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
         ctx.batchInsert(batch).execute();
     }
 
-    private void tryInsertingFailed(UpdateTransactionParams p, Exception e) {
+    private void tryInsertingFailed(UpdateTransactionParams p, String failReason) {
         try {
             ctx.insertInto(TRANSACTION_STOP_FAILED)
                .set(TRANSACTION_STOP_FAILED.TRANSACTION_PK, p.getTransactionId())
@@ -451,9 +511,9 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
                .set(TRANSACTION_STOP_FAILED.STOP_TIMESTAMP, p.getStopTimestamp())
                .set(TRANSACTION_STOP_FAILED.STOP_VALUE, p.getStopMeterValue())
                .set(TRANSACTION_STOP_FAILED.STOP_REASON, p.getStopReason())
-               .set(TRANSACTION_STOP_FAILED.FAIL_REASON, Throwables.getStackTraceAsString(e))
+               .set(TRANSACTION_STOP_FAILED.FAIL_REASON, failReason)
                .execute();
-        } catch (Exception ex) {
+        } catch (Exception e) {
             // This is where we give up and just log
             log.error("Exception occurred", e);
         }
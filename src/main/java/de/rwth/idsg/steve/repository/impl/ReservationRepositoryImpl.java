@@ -31,7 +31,6 @@ import org.jooq.DSLContext;
 import org.jooq.Record1;
 import org.jooq.Record10;
 import org.jooq.RecordMapper;
-import org.jooq.Select;
 import org.jooq.SelectConditionStep;
 import org.jooq.SelectQuery;
 import org.jooq.exception.DataAccessException;
@@ -159,23 +158,6 @@ public class ReservationRepositoryImpl implements ReservationRepository {
         internalUpdateReservation(reservationId, ReservationStatus.CANCELLED);
     }
 
-    @Override
-    public void used(Select<Record1<Integer>> connectorPkSelect, String ocppIdTag, int reservationId, int transactionId) {
-        int count = ctx.update(RESERVATION)
-                       .set(RESERVATION.STATUS, ReservationStatus.USED.name())
-                       .set(RESERVATION.TRANSACTION_PK, transactionId)
-                       .where(RESERVATION.RESERVATION_PK.equal(reservationId))
-                       .and(RESERVATION.ID_TAG.equal(ocppIdTag))
-                       .and(RESERVATION.CONNECTOR_PK.equal(connectorPkSelect))
-                       .and(RESERVATION.STATUS.eq(ReservationStatus.ACCEPTED.name()))
-                       .execute();
-
-        if (count != 1) {
-            log.warn("Could not mark the reservation '{}' as used: Problems occurred due to sent reservation id, " +
-                    "charge box connector, user id tag or the reservation was used already.", reservationId);
-        }
-    }
-
     // -------------------------------------------------------------------------
     // Private helpers
     // -------------------------------------------------------------------------
@@ -0,0 +1,106 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository.wal;
+
+import de.rwth.idsg.steve.repository.dto.UpdateTransactionParams;
+import jooq.steve.db.enums.TransactionStopEventActor;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import ocpp.cs._2015._10.MeterValue;
+import org.joda.time.DateTime;
+
+import java.util.List;
+
+/**
+ * A write that is buffered in the {@link WriteAheadLog}. Stored as JSON, with the meter values in their OCPP form and
+ * the timestamps as epoch millis.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+@Getter
+@Setter
+@ToString(of = {"type", "chargeBoxId", "connectorId", "transactionId"})
+public class WalEntry {
+
+    public enum Type {
+        METER_VALUES,
+        STOP_TRANSACTION
+    }
+
+    private Type type;
+    private String chargeBoxId;
+    private Integer connectorId;
+    private Integer transactionId;
+    private List<MeterValue> meterValues;
+
+    // Only for STOP_TRANSACTION
+    private Long stopTimestamp;
+    private String stopMeterValue;
+    private String stopReason;
+    private TransactionStopEventActor eventActor;
+    private Long eventTimestamp;
+
+    public static WalEntry meterValues(String chargeBoxId, int connectorId, Integer transactionId,
+                                       List<MeterValue> meterValues) {
+        WalEntry e = new WalEntry();
+        e.type = Type.METER_VALUES;
+        e.chargeBoxId = chargeBoxId;
+        e.connectorId = connectorId;
+        e.transactionId = transactionId;
+        e.meterValues = meterValues;
+        return e;
+    }
+
+    public static WalEntry stopTransaction(UpdateTransactionParams p) {
+        WalEntry e = new WalEntry();
+        e.type = Type.STOP_TRANSACTION;
+        e.chargeBoxId = p.getChargeBoxId();
+        e.transactionId = p.getTransactionId();
+        e.meterValues = p.getTransactionData();
+        e.stopTimestamp = toMillis(p.getStopTimestamp());
+        e.stopMeterValue = p.getStopMeterValue();
+        e.stopReason = p.getStopReason();
+        e.eventActor = p.getEventActor();
+        e.eventTimestamp = toMillis(p.getEventTimestamp());
+        return e;
+    }
+
+    public UpdateTransactionParams toUpdateTransactionParams() {
+        return UpdateTransactionParams.builder()
+                                      .chargeBoxId(chargeBoxId)
+                                      .transactionId(transactionId)
+                                      .transactionData(meterValues)
+                                      .stopTimestamp(toDateTime(stopTimestamp))
+                                      .stopMeterValue(stopMeterValue)
+                                      .stopReason(stopReason)
+                                      .eventActor(eventActor)
+                                      .eventTimestamp(toDateTime(eventTimestamp))
+                                      .build();
+    }
+
+    private static Long toMillis(DateTime dt) {
+        return dt == null ? null : dt.getMillis();
+    }
+
+    private static DateTime toDateTime(Long millis) {
+        return millis == null ? null : new DateTime(millis);
+    }
+}
@@ -0,0 +1,531 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository.wal;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableSet;
+import de.rwth.idsg.steve.SteveConfiguration;
+import de.rwth.idsg.steve.ocpp.ws.JsonObjectMapper;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+
+/**
+ * Buffers transaction and meter value writes in local, memory-mapped segment files while the database is
+ * unavailable (unreachable or read-only, e.g. during a failover), such that the stations can be answered and no
+ * billing data is lost. {@link WriteAheadLogReplayer} replays them in order once the database is back.
+ *
+ * Layout of a segment (named after the sequence number of its first entry):
+ *
+ * <pre>
+ * header: int magic
+ * entry:  int length of the rest of the entry, long sequence number, JSON of the {@link WalEntry} (UTF-8)
+ * </pre>
+ *
+ * A segment is pre-allocated with zeros, so that an entry length of 0 marks the end of the written data. Every append
+ * is flushed to the disk before returning. The sequence number of the last replayed entry is kept in a checkpoint
+ * file. Segments with replayed entries only are deleted. Entries that cannot be replayed because of their data are
+ * moved to a dead-letter file.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+@Slf4j
+@Service
+public class WriteAheadLog {
+
+    private static final int MAGIC = 0x5354574C; // "STWL"
+
+    private static final String FILE_PREFIX = "wal-";
+    private static final String FILE_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String DEAD_LETTER_FILE = "dead-letter.log";
+
+    /**
+     * MySQL errors that are not marked as transient by the driver: ER_LOCK_WAIT_TIMEOUT, ER_LOCK_DEADLOCK and
+     * ER_OPTION_PREVENTS_STATEMENT (the server runs with --read-only or --super-read-only)
+     */
+    private static final Set<Integer> RETRYABLE_MYSQL_ERRORS = ImmutableSet.of(1205, 1213, 1290);
+
+    private final SteveConfiguration.WriteAheadLog config;
+    private final ObjectMapper mapper = JsonObjectMapper.INSTANCE.getMapper();
+
+    private Path directory;
+    private Path segment;
+    private MappedByteBuffer buffer;
+
+    // Read cursor of the replay: the segment and a view of its mapping, positioned after the last read entry
+    private Path readSegment;
+    private ByteBuffer readBuffer;
+    private long readSequence;
+
+    private volatile long lastSequence;
+    private volatile long checkpoint;
+    private volatile int segmentCount;
+
+    public WriteAheadLog() {
+        this(CONFIG.getWriteAheadLog());
+    }
+
+    @VisibleForTesting
+    WriteAheadLog(SteveConfiguration.WriteAheadLog config) {
+        this.config = config;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!config.isEnabled()) {
+            return;
+        }
+
+        directory = Paths.get(config.getDirectory());
+        Files.createDirectories(directory);
+
+        checkpoint = readCheckpoint();
+
+        // continue after the last entry of the last segment
+        List<Path> segments = listSegments();
+        segmentCount = segments.size();
+        lastSequence = checkpoint;
+        if (!segments.isEmpty()) {
+            segment = segments.get(segments.size() - 1);
+            buffer = map(segment);
+            if (readHeader(buffer)) {
+                for (RawEntry e = next(buffer); e != null; e = next(buffer)) {
+                    lastSequence = Math.max(lastSequence, e.sequence);
+                }
+            }
+        }
+
+        log.info("Write-ahead log is enabled, directory: {}, buffered writes: {}",
+                directory.toAbsolutePath(), getPendingEntries());
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Whether there are buffered writes that are not replayed yet
+     */
+    public boolean hasPending() {
+        return lastSequence > checkpoint;
+    }
+
+    /**
+     * Appends the entry, if there are buffered writes that are not replayed yet. The check and the append are one
+     * step, so that the replay cannot finish in between. Every MeterValues and StopTransaction passes here, so the
+     * common case (nothing pending) is decided without the lock, which an append holds while flushing to the disk.
+     *
+     * The order is kept per call, not across calls: a write that does not see pending entries goes to the database
+     * directly, and may overtake a concurrent write of another call that is just being appended after a failure.
+     * This is enough for the data of a station, since a station sends its next call only after our response to the
+     * previous one, i.e. after the previous write was either done or appended. Meter values that are deferred under
+     * load are the exception, but they carry their own timestamps.
+     *
+     * @return false, if the entry was not appended (nothing pending, disabled, or no space left)
+     */
+    public boolean appendIfPending(WalEntry entry) {
+        if (!config.isEnabled() || !hasPending()) {
+            return false;
+        }
+        synchronized (this) {
+            return hasPending() && append(entry);
+        }
+    }
+
+    /**
+     * @return false, if the entry could not be buffered (disabled, or no space left)
+     */
+    public synchronized boolean append(WalEntry entry) {
+        if (!config.isEnabled()) {
+            return false;
+        }
+
+        try {
+            byte[] json = mapper.writeValueAsBytes(entry);
+            int entryLength = Long.BYTES + json.length;
+
+            if (buffer == null || buffer.remaining() < Integer.BYTES + entryLength) {
+                if (Integer.BYTES * 2 + entryLength > config.getSegmentSizeBytes()
+                        || segmentCount >= config.getMaxSegments()) {
+                    log.error("The write-ahead log is full, cannot buffer {}", entry);
+                    return false;
+                }
+                rotate(lastSequence + 1);
+            }
+
+            // the length is written last, so that the replay never sees a partially written entry as valid
+            int start = buffer.position();
+            buffer.position(start + Integer.BYTES);
+            buffer.putLong(lastSequence + 1)
+                  .put(json);
+            if (buffer.remaining() >= Integer.BYTES) {
+                // in case there are leftovers of a longer entry, whose length was not written before a crash
+                buffer.putInt(buffer.position(), 0);
+            }
+            buffer.putInt(start, entryLength);
+            buffer.force();
+
+            lastSequence++;
+            return true;
+
+        } catch (IOException e) {
+            log.error("Could not buffer {} in the write-ahead log", entry, e);
+            return false;
+        }
+    }
+
+    /**
+     * The next entries to replay, in order. They are read with a cursor that continues where the last call stopped,
+     * if everything it read was committed. Otherwise, it starts again after the checkpoint.
+     *
+     * Only moving the cursor to another segment holds the lock of the appends. The entries are read up to the last
+     * sequence number at the start of the call, which an append only increments after the entry is written.
+     */
+    public List<Sequenced> readPending(int max) throws IOException {
+        List<Sequenced> entries = new ArrayList<>();
+        long last = lastSequence;
+        if (readSequence != checkpoint) {
+            // not everything that was read last time was committed (e.g. the database failed again), read it again
+            readBuffer = null;
+        }
+        if (readBuffer == null && !openCursor()) {
+            return entries;
+        }
+
+        while (entries.size() < max && readSequence < last) {
+            RawEntry e = next(readBuffer);
+            if (e == null) {
+                // end of the written data of this segment. if it is not the last one, continue with the next one.
+                Path nextSegment = nextSegment(readSegment);
+                if (nextSegment == null) {
+                    break;
+                }
+                moveCursor(nextSegment);
+                continue;
+            }
+
+            readSequence = e.sequence;
+            if (e.sequence > checkpoint) {
+                entries.add(new Sequenced(e.sequence, mapper.readValue(e.json, WalEntry.class)));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Marks the entries up to the sequence number as replayed, and deletes the segments that contain only such
+     * entries. The segment that is being written is kept.
+     *
+     * Only the update of the checkpoint holds the lock. Flushing the checkpoint file and deleting the segments do
+     * not block the appends: the appends only touch the last segment, which is never deleted, and the read cursor
+     * is used by the replay only.
+     */
+    public void commit(long sequence) throws IOException {
+        writeCheckpoint(sequence);
+        synchronized (this) {
+            checkpoint = sequence;
+        }
+
+        List<Path> segments = listSegments();
+        int deleted = 0;
+        for (int i = 0; i < segments.size() - 1; i++) {
+            if (firstSequence(segments.get(i + 1)) - 1 > sequence) {
+                break;
+            }
+            Files.deleteIfExists(segments.get(i));
+            deleted++;
+            log.debug("Deleted write-ahead log segment {}", segments.get(i));
+        }
+        synchronized (this) {
+            segmentCount -= deleted;
+        }
+    }
+
+    /**
+     * For logging the data of entries that cannot be replayed
+     */
+    public String toJson(WalEntry entry) {
+        try {
+            return mapper.writeValueAsString(entry);
+        } catch (JsonProcessingException e) {
+            return entry.toString();
+        }
+    }
+
+    public long getPendingEntries() {
+        return lastSequence - checkpoint;
+    }
+
+    public long getDiskUsageBytes() {
+        return (long) segmentCount * config.getSegmentSizeBytes();
+    }
+
+    /**
+     * Keeps an entry that cannot be replayed because of its data in the dead-letter file of the directory (one JSON
+     * line per entry), such that it can be fixed and inserted manually. Called by the replay only, so it does not
+     * need the lock of the appends.
+     */
+    public void deadLetter(Sequenced s, Throwable error) throws IOException {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("sequence", s.getSequence());
+        line.put("error", String.valueOf(Throwables.getRootCause(error)));
+        line.put("entry", s.getEntry());
+
+        byte[] bytes = (mapper.writeValueAsString(line) + "\n").getBytes(StandardCharsets.UTF_8);
+        try (FileChannel channel = FileChannel.open(directory.resolve(DEAD_LETTER_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(bytes));
+            channel.force(true);
+        }
+    }
+
+    /**
+     * The errors that mean that the database cannot take the write right now (as opposed to errors caused by the
+     * data), i.e. the write will probably succeed later: connection failures, a read-only database (e.g. the old
+     * primary during a failover), deadlocks and lock wait timeouts.
+     */
+    public static boolean isRetryable(Throwable t) {
+        for (Throwable cause : Throwables.getCausalChain(t)) {
+            if (cause instanceof SQLTransientException
+                    || cause instanceof SQLRecoverableException
+                    || cause instanceof SQLNonTransientConnectionException) {
+                return true;
+            }
+            if (cause instanceof SQLException) {
+                SQLException e = (SQLException) cause;
+                String state = e.getSQLState();
+                if (state != null && (state.startsWith("08") || state.equals("40001"))) {
+                    return true;
+                }
+                if (RETRYABLE_MYSQL_ERRORS.contains(e.getErrorCode())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    /**
+     * The checkpoint only decides where the replay starts. Since the replay is idempotent, starting from the beginning
+     * of the remaining segments is safe, if the file is broken.
+     */
+    private long readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+
+        String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim();
+        try {
+            return Long.parseLong(content);
+        } catch (NumberFormatException e) {
+            log.warn("The write-ahead log checkpoint '{}' is broken, replaying all remaining segments", content);
+            return 0;
+        }
+    }
+
+    /**
+     * The new checkpoint is written to a temporary file, which replaces the old one, so that there is always a
+     * complete checkpoint. Both the file and the rename are flushed to the disk, before the segments are deleted.
+     */
+    private void writeCheckpoint(long sequence) throws IOException {
+        Path tmp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(Long.toString(sequence).getBytes(StandardCharsets.UTF_8)));
+            channel.force(true);
+        }
+
+        Files.move(tmp, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+
+        // Not every platform (e.g. Windows) can open a directory to force its entries
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            log.debug("Could not flush the directory {}", directory, e);
+        }
+    }
+
+    private void rotate(long firstSequence) throws IOException {
+        Path file = directory.resolve(String.format("%s%020d%s", FILE_PREFIX, firstSequence, FILE_SUFFIX));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // the mapping stays valid after closing the channel
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, config.getSegmentSizeBytes());
+        }
+        buffer.putInt(MAGIC);
+        segment = file;
+        segmentCount++;
+
+        log.info("Started write-ahead log segment {}", file);
+    }
+
+    private static MappedByteBuffer map(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        }
+    }
+
+    /**
+     * Positions the cursor at the segment that contains the entry after the checkpoint
+     */
+    private boolean openCursor() throws IOException {
+        List<Path> segments = listSegments();
+        if (segments.isEmpty()) {
+            return false;
+        }
+
+        Path start = segments.get(0);
+        for (Path p : segments) {
+            if (firstSequence(p) <= checkpoint + 1) {
+                start = p;
+            }
+        }
+        moveCursor(start);
+        return true;
+    }
+
+    /**
+     * The segment that is being written is read through a view of its mapping. Other segments get their own mapping,
+     * which is dropped when the cursor moves on.
+     */
+    private synchronized void moveCursor(Path next) throws IOException {
+        if (next.equals(segment)) {
+            readBuffer = buffer.duplicate();
+            readBuffer.position(0);
+        } else {
+            readBuffer = map(next);
+        }
+        readSegment = next;
+        readSequence = firstSequence(next) - 1;
+        readHeader(readBuffer);
+    }
+
+    private Path nextSegment(Path current) throws IOException {
+        String name = current.getFileName().toString();
+        for (Path p : listSegments()) {
+            if (p.getFileName().toString().compareTo(name) > 0) {
+                return p;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads the header of the segment, and leaves the position of the buffer at the first entry
+     *
+     * @return false, if the segment has no entries
+     */
+    private static boolean readHeader(ByteBuffer buffer) throws IOException {
+        int magic = buffer.getInt();
+        if (magic == 0) {
+            // the segment was created, but nothing reached the disk before a crash
+            buffer.putInt(0, MAGIC);
+            return false;
+        } else if (magic != MAGIC) {
+            throw new IOException("Not a write-ahead log segment");
+        }
+        return true;
+    }
+
+    /**
+     * Reads the entry at the position of the buffer, and moves the position after it
+     *
+     * @return null, if there is no (complete) entry, i.e. at the end of the written data
+     */
+    private static RawEntry next(ByteBuffer buffer) {
+        if (buffer.remaining() < Integer.BYTES) {
+            return null;
+        }
+
+        int start = buffer.position();
+        int entryLength = buffer.getInt();
+        if (entryLength <= 0 || entryLength > buffer.remaining()) {
+            buffer.position(start);
+            return null;
+        }
+
+        long sequence = buffer.getLong();
+        byte[] json = new byte[entryLength - Long.BYTES];
+        buffer.get(json);
+        return new RawEntry(sequence, json);
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName().toString().startsWith(FILE_PREFIX))
+                        .sorted()
+                        .collect(Collectors.toList());
+        }
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+    }
+
+    @RequiredArgsConstructor
+    private static class RawEntry {
+        private final long sequence;
+        private final byte[] json;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Sequenced {
+        private final long sequence;
+        private final WalEntry entry;
+    }
+}
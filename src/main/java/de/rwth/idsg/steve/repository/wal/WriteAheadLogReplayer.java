@@ -0,0 +1,167 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository.wal;
+
+import de.rwth.idsg.steve.repository.OcppServerRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays the writes buffered in the {@link WriteAheadLog} in order, once the database is reachable again. The
+ * replay of an entry is idempotent (see {@link OcppServerRepository#replay(WalEntry)}), therefore the checkpoint is
+ * only committed after each batch. While the database is still unavailable, the replay is retried periodically.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+@Slf4j
+@Component
+public class WriteAheadLogReplayer {
+
+    private static final int BATCH_SIZE = 500;
+    private static final long IDLE_PARK_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long RETRY_PARK_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    @Autowired private WriteAheadLog writeAheadLog;
+    @Autowired private OcppServerRepository ocppServerRepository;
+    @Autowired private MeterRegistry registry;
+
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    private volatile boolean running;
+    private Thread replayThread;
+
+    @PostConstruct
+    public void init() {
+        if (!writeAheadLog.isEnabled()) {
+            return;
+        }
+
+        Gauge.builder("steve.wal.disk.used", writeAheadLog, WriteAheadLog::getDiskUsageBytes)
+             .description("Disk space of the write-ahead log segments")
+             .baseUnit(BaseUnits.BYTES)
+             .register(registry);
+
+        Gauge.builder("steve.wal.pending", writeAheadLog, WriteAheadLog::getPendingEntries)
+             .description("Buffered writes that are not replayed yet")
+             .register(registry);
+
+        FunctionCounter.builder("steve.wal.replayed", replayed, LongAdder::sum)
+                       .description("Buffered writes that were replayed")
+                       .tag("result", "success")
+                       .register(registry);
+
+        FunctionCounter.builder("steve.wal.replayed", skipped, LongAdder::sum)
+                       .description("Buffered writes that were replayed")
+                       .tag("result", "failure")
+                       .register(registry);
+
+        running = true;
+        replayThread = new Thread(this::run, "SteVe-WAL-Replay");
+        replayThread.setDaemon(true);
+        replayThread.start();
+    }
+
+    @PreDestroy
+    public void shutDown() throws InterruptedException {
+        if (replayThread != null) {
+            running = false;
+            LockSupport.unpark(replayThread);
+            replayThread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    private void run() {
+        while (running) {
+            if (!writeAheadLog.hasPending()) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+
+            try {
+                replayBatch();
+            } catch (Exception e) {
+                if (WriteAheadLog.isRetryable(e)) {
+                    log.warn("The database is still not available, {} buffered writes are waiting for the replay",
+                            writeAheadLog.getPendingEntries());
+                } else {
+                    log.error("Exception occurred", e);
+                }
+                LockSupport.parkNanos(RETRY_PARK_NANOS);
+            }
+        }
+    }
+
+    private void replayBatch() throws Exception {
+        List<WriteAheadLog.Sequenced> batch = writeAheadLog.readPending(BATCH_SIZE);
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        log.info("Replaying buffered writes, {} are left", writeAheadLog.getPendingEntries());
+
+        long committable = -1;
+        try {
+            for (WriteAheadLog.Sequenced s : batch) {
+                replay(s);
+                committable = s.getSequence();
+            }
+        } finally {
+            if (committable != -1) {
+                writeAheadLog.commit(committable);
+            }
+        }
+
+        if (!writeAheadLog.hasPending()) {
+            log.info("Replayed all buffered writes");
+        }
+    }
+
+    /**
+     * An entry that fails because of its data (and not because the database is not available) would fail forever. It
+     * is moved to the dead-letter file, such that the following ones are not blocked.
+     */
+    private void replay(WriteAheadLog.Sequenced s) throws Exception {
+        try {
+            ocppServerRepository.replay(s.getEntry());
+            replayed.increment();
+        } catch (Exception e) {
+            if (WriteAheadLog.isRetryable(e)) {
+                throw e;
+            }
+            writeAheadLog.deadLetter(s, e);
+            skipped.increment();
+            log.error("Moved the buffered write {} to the dead-letter file: {}", s.getEntry(),
+                    writeAheadLog.toJson(s.getEntry()), e);
+        }
+    }
+}
@@ -18,6 +18,8 @@
  */
 package de.rwth.idsg.steve.service;
 
+import de.rwth.idsg.steve.SteveException;
+import de.rwth.idsg.steve.ocpp.OcppCallLimiter;
 import de.rwth.idsg.steve.ocpp.OcppProtocol;
 import de.rwth.idsg.steve.repository.OcppServerRepository;
 import de.rwth.idsg.steve.repository.SettingsRepository;
@@ -54,9 +56,11 @@ import ocpp.cs._2015._10.StopTransactionRequest;
 import ocpp.cs._2015._10.StopTransactionResponse;
 import org.joda.time.DateTime;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
 
 /**
  * @author Sevket Goekay <goekay@dbis.rwth-aachen.de>
@@ -72,6 +76,11 @@ public class CentralSystemService16_Service {
     @Autowired private OcppTagService ocppTagService;
     @Autowired private NotificationService notificationService;
     @Autowired private ChargePointHelperService chargePointHelperService;
+    @Autowired private OcppCallLimiter callLimiter;
+
+    @Autowired
+    @Qualifier("writeBehindExecutor")
+    private ExecutorService writeBehindExecutor;
 
     public BootNotificationResponse bootNotification(BootNotificationRequest parameters, String chargeBoxIdentity,
                                                      OcppProtocol ocppProtocol) {
@@ -145,14 +154,35 @@ public class CentralSystemService16_Service {
         return new StatusNotificationResponse();
     }
 
+    /**
+     * When the database is saturated, the meter values are inserted in the background and the station gets its
+     * response right away. If the write-behind queue is full as well, they are inserted before responding.
+     */
     public MeterValuesResponse meterValues(MeterValuesRequest parameters, String chargeBoxIdentity) {
-        ocppServerRepository.insertMeterValues(
+        Runnable insert = () -> ocppServerRepository.insertMeterValues(
                 chargeBoxIdentity,
                 parameters.getMeterValue(),
                 parameters.getConnectorId(),
                 parameters.getTransactionId()
         );
 
+        OcppCallLimiter.Permit permit = callLimiter.acquire(OcppCallLimiter.Priority.DEFERRABLE);
+        if (permit == null) {
+            try {
+                writeBehindExecutor.execute(insert);
+            } catch (SteveException e) {
+                // the write-behind queue is full as well. the values must not be lost, since the station does not
+                // send them again after our response: let the station wait for the insert instead.
+                insert.run();
+            }
+        } else {
+            try {
+                insert.run();
+            } finally {
+                permit.release();
+            }
+        }
+
         return new MeterValuesResponse();
     }
 
@@ -211,12 +241,11 @@ public class CentralSystemService16_Service {
                                        .stopReason(stopReason)
                                        .eventTimestamp(DateTime.now())
                                        .eventActor(TransactionStopEventActor.station)
+                                       .transactionData(parameters.getTransactionData())
                                        .build();
 
         ocppServerRepository.updateTransaction(params);
 
-        ocppServerRepository.insertMeterValues(chargeBoxIdentity, parameters.getTransactionData(), transactionId);
-
         notificationService.ocppTransactionEnded(params);
 
         return new StopTransactionResponse().withIdTagInfo(idTagInfo);
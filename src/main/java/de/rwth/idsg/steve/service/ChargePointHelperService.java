@@ -18,11 +18,13 @@
  */
 package de.rwth.idsg.steve.service;
 
+import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.Striped;
 import de.rwth.idsg.steve.ocpp.OcppProtocol;
 import de.rwth.idsg.steve.ocpp.OcppTransport;
 import de.rwth.idsg.steve.ocpp.OcppVersion;
 import de.rwth.idsg.steve.ocpp.ws.AbstractWebSocketEndpoint;
+import de.rwth.idsg.steve.ocpp.ws.BudgetedWebSocketSessionDecorator;
 import de.rwth.idsg.steve.ocpp.ws.data.SessionContext;
 import de.rwth.idsg.steve.ocpp.ws.ocpp12.Ocpp12WebSocketEndpoint;
 import de.rwth.idsg.steve.ocpp.ws.ocpp15.Ocpp15WebSocketEndpoint;
@@ -41,12 +43,12 @@ import ocpp.cs._2015._10.RegistrationStatus;
 import org.joda.time.DateTime;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.web.socket.WebSocketSession;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -64,6 +66,7 @@ import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
 public class ChargePointHelperService {
 
     private final boolean autoRegisterUnknownStations = CONFIG.getOcpp().isAutoRegisterUnknownStations();
+    // ReentrantLocks, not synchronized: Waiting for them does not pin the carrier of a virtual thread
     private final Striped<Lock> isRegisteredLocks = Striped.lock(16);
 
     @Autowired private GenericRepository genericRepository;
@@ -105,19 +108,20 @@ public class ChargePointHelperService {
     }
 
     public List<OcppJsonStatus> getOcppJsonStatus() {
-        Map<String, Deque<SessionContext>> ocpp12Map = ocpp12WebSocketEndpoint.getACopy();
-        Map<String, Deque<SessionContext>> ocpp15Map = ocpp15WebSocketEndpoint.getACopy();
-        Map<String, Deque<SessionContext>> ocpp16Map = ocpp16WebSocketEndpoint.getACopy();
+        // Iterate the connections only once, since they can change in the meantime
+        List<SessionContext> ocpp12List = Lists.newArrayList(ocpp12WebSocketEndpoint.getSessionContexts());
+        List<SessionContext> ocpp15List = Lists.newArrayList(ocpp15WebSocketEndpoint.getSessionContexts());
+        List<SessionContext> ocpp16List = Lists.newArrayList(ocpp16WebSocketEndpoint.getSessionContexts());
 
-        List<String> idList = extractIds(Arrays.asList(ocpp12Map, ocpp15Map, ocpp16Map));
+        List<String> idList = extractIds(Arrays.asList(ocpp12List, ocpp15List, ocpp16List));
         Map<String, Integer> primaryKeyLookup = chargePointRepository.getChargeBoxIdPkPair(idList);
 
         DateTime now = DateTime.now();
         List<OcppJsonStatus> returnList = new ArrayList<>();
 
-        appendList(ocpp12Map, returnList, now, OcppVersion.V_12, primaryKeyLookup);
-        appendList(ocpp15Map, returnList, now, OcppVersion.V_15, primaryKeyLookup);
-        appendList(ocpp16Map, returnList, now, OcppVersion.V_16, primaryKeyLookup);
+        appendList(ocpp12List, returnList, now, OcppVersion.V_12, primaryKeyLookup);
+        appendList(ocpp15List, returnList, now, OcppVersion.V_15, primaryKeyLookup);
+        appendList(ocpp16List, returnList, now, OcppVersion.V_16, primaryKeyLookup);
         return returnList;
     }
 
@@ -196,34 +200,40 @@ public class ChargePointHelperService {
         return returnList;
     }
 
-    private static List<String> extractIds(List<Map<String, Deque<SessionContext>>> ocppMaps) {
-        return ocppMaps.stream()
-                       .map(Map::keySet)
-                       .flatMap(Collection::stream)
-                       .collect(Collectors.toList());
+    private static List<String> extractIds(List<List<SessionContext>> ocppLists) {
+        return ocppLists.stream()
+                        .flatMap(Collection::stream)
+                        .map(SessionContext::getChargeBoxId)
+                        .distinct()
+                        .collect(Collectors.toList());
     }
 
-    private static void appendList(Map<String, Deque<SessionContext>> map, List<OcppJsonStatus> returnList,
+    private static void appendList(List<SessionContext> list, List<OcppJsonStatus> returnList,
                                    DateTime now, OcppVersion version, Map<String, Integer> primaryKeyLookup) {
 
-        for (Map.Entry<String, Deque<SessionContext>> entry : map.entrySet()) {
-            String chargeBoxId = entry.getKey();
-            Deque<SessionContext> endpointDeque = entry.getValue();
-
-            for (SessionContext ctx : endpointDeque) {
-                DateTime openSince = ctx.getOpenSince();
-
-                OcppJsonStatus status = OcppJsonStatus.builder()
-                                                      .chargeBoxPk(primaryKeyLookup.get(chargeBoxId))
-                                                      .chargeBoxId(chargeBoxId)
-                                                      .connectedSinceDT(openSince)
-                                                      .connectedSince(DateTimeUtils.humanize(openSince))
-                                                      .connectionDuration(DateTimeUtils.timeElapsed(openSince, now))
-                                                      .version(version)
-                                                      .build();
+        for (SessionContext ctx : list) {
+            String chargeBoxId = ctx.getChargeBoxId();
+            DateTime openSince = ctx.getOpenSince();
+
+            OcppJsonStatus status = OcppJsonStatus.builder()
+                                                  .chargeBoxPk(primaryKeyLookup.get(chargeBoxId))
+                                                  .chargeBoxId(chargeBoxId)
+                                                  .connectedSinceDT(openSince)
+                                                  .connectedSince(DateTimeUtils.humanize(openSince))
+                                                  .connectionDuration(DateTimeUtils.timeElapsed(openSince, now))
+                                                  .version(version)
+                                                  .bufferedBytes(getBufferedBytes(ctx.getSession()))
+                                                  .build();
+
+            returnList.add(status);
+        }
+    }
 
-                returnList.add(status);
-            }
+    private static long getBufferedBytes(WebSocketSession session) {
+        if (session instanceof BudgetedWebSocketSessionDecorator) {
+            return ((BudgetedWebSocketSessionDecorator) session).getReservedBytes();
+        } else {
+            return 0;
         }
     }
 }
@@ -45,7 +45,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ExecutorService;
 
 /**
  * @author Sevket Goekay <goekay@dbis.rwth-aachen.de>
@@ -55,7 +55,10 @@ import java.util.concurrent.ScheduledExecutorService;
 @Qualifier("ChargePointService12_Client")
 public class ChargePointService12_Client {
 
-    @Autowired protected ScheduledExecutorService executorService;
+    @Autowired
+    @Qualifier("fanOutExecutor")
+    protected ExecutorService executorService;
+
     @Autowired protected TaskStore taskStore;
 
     @Autowired private ChargePointService12_InvokerImpl invoker12;
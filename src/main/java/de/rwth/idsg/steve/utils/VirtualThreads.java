@@ -0,0 +1,75 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.utils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Virtual threads (JEP 444) are final with Java 21. We still compile for Java 11, therefore they are created via
+ * reflection and only available when running on Java 21 or newer.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+public final class VirtualThreads {
+    private VirtualThreads() { }
+
+    private static final int MIN_FEATURE_VERSION = 21;
+
+    // Thread.ofVirtual(), null if not available
+    private static final Method OF_VIRTUAL = findOfVirtual();
+
+    public static boolean isAvailable() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * @param namePrefix of the threads, followed by a counter
+     * @throws UnsupportedOperationException if the runtime does not support virtual threads
+     */
+    public static ThreadFactory threadFactory(String namePrefix) {
+        if (!isAvailable()) {
+            throw new UnsupportedOperationException("Virtual threads require Java " + MIN_FEATURE_VERSION
+                    + " or newer, but running on " + Runtime.version());
+        }
+
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = OF_VIRTUAL.invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create a factory for virtual threads", e);
+        }
+    }
+
+    private static Method findOfVirtual() {
+        // Before Java 21, the method is a preview feature and fails without --enable-preview
+        if (Runtime.version().feature() < MIN_FEATURE_VERSION) {
+            return null;
+        }
+
+        try {
+            return Thread.class.getMethod("ofVirtual");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
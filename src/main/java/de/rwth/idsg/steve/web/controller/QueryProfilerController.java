@@ -0,0 +1,49 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.web.controller;
+
+import de.rwth.idsg.steve.metrics.QueryProfiler;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+
+/**
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+@Controller
+@RequestMapping(value = "/manager/queries")
+public class QueryProfilerController {
+
+    private static final int TOP_QUERIES = 50;
+
+    @RequestMapping(method = RequestMethod.GET)
+    public String getOverview(Model model) {
+        model.addAttribute("queryList", QueryProfiler.INSTANCE.getTopQueries(TOP_QUERIES));
+        model.addAttribute("originList", QueryProfiler.INSTANCE.getOrigins());
+        return "queries";
+    }
+
+    @RequestMapping(method = RequestMethod.POST)
+    public String reset() {
+        QueryProfiler.INSTANCE.reset();
+        return "redirect:/manager/queries";
+    }
+}
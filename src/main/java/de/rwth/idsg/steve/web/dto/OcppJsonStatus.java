@@ -35,4 +35,5 @@ public final class OcppJsonStatus {
     private final String connectionDuration;
     private final OcppVersion version;
     private final DateTime connectedSinceDT;
+    private final long bufferedBytes;
 }
@@ -0,0 +1,41 @@
+-- StartTransaction messages are deduplicated with a unique key instead of a select-then-insert in the application.
+-- Older versions did not prevent duplicates completely. Keep the first transaction of each group and move the data
+-- of the others to it, before adding the key.
+
+CREATE TEMPORARY TABLE `tmp_transaction_duplicate` AS
+SELECT dup.transaction_pk AS duplicate_pk, MIN(orig.transaction_pk) AS original_pk
+  FROM `transaction_start` dup
+  JOIN `transaction_start` orig
+    ON orig.connector_pk = dup.connector_pk
+   AND orig.id_tag = dup.id_tag
+   AND orig.start_timestamp = dup.start_timestamp
+   AND orig.start_value = dup.start_value
+   AND orig.transaction_pk < dup.transaction_pk
+ GROUP BY dup.transaction_pk;
+
+UPDATE `connector_meter_value` cmv
+  JOIN `tmp_transaction_duplicate` d ON cmv.transaction_pk = d.duplicate_pk
+   SET cmv.transaction_pk = d.original_pk;
+
+-- a transaction can be referenced by one reservation only. if the first one is referenced already, unlink the others
+UPDATE IGNORE `reservation` r
+  JOIN `tmp_transaction_duplicate` d ON r.transaction_pk = d.duplicate_pk
+   SET r.transaction_pk = d.original_pk;
+
+UPDATE `reservation` r
+  JOIN `tmp_transaction_duplicate` d ON r.transaction_pk = d.duplicate_pk
+   SET r.transaction_pk = NULL;
+
+INSERT IGNORE INTO `transaction_stop` (transaction_pk, event_timestamp, event_actor, stop_timestamp, stop_value, stop_reason)
+SELECT d.original_pk, s.event_timestamp, s.event_actor, s.stop_timestamp, s.stop_value, s.stop_reason
+  FROM `transaction_stop` s
+  JOIN `tmp_transaction_duplicate` d ON s.transaction_pk = d.duplicate_pk;
+
+-- the remaining stop events of the duplicates are deleted by the cascade
+DELETE ts FROM `transaction_start` ts
+  JOIN `tmp_transaction_duplicate` d ON ts.transaction_pk = d.duplicate_pk;
+
+DROP TEMPORARY TABLE `tmp_transaction_duplicate`;
+
+ALTER TABLE `transaction_start`
+  ADD UNIQUE KEY `transaction_start_idempotency_key` (`connector_pk`, `id_tag`, `start_timestamp`, `start_value`);
@@ -0,0 +1,173 @@
+-- StartTransaction and StopTransaction are persisted with one call each. The procedures run all statements in one
+-- database transaction and return what the application needs to know as OUT parameters, such that jOOQ generates
+-- typed routines for them.
+--
+-- START TRANSACTION would implicitly commit a transaction of the caller. Therefore, the procedures only start (and
+-- end) a transaction of their own in autocommit mode. Otherwise, e.g. in a transaction of the application, their
+-- statements become part of the surrounding transaction, which the caller commits or rolls back.
+--
+-- Lock wait timeouts and deadlocks are never swallowed by the inner handlers: a deadlock rolls back the whole
+-- transaction, and the application has to see the error to retry or buffer the call.
+
+DELIMITER $$
+
+CREATE PROCEDURE `insert_transaction`(
+    IN p_charge_box_id VARCHAR(255),
+    IN p_connector_id INT,
+    IN p_id_tag VARCHAR(255),
+    IN p_id_tag_note TEXT,
+    IN p_start_timestamp TIMESTAMP(6),
+    IN p_start_value VARCHAR(255),
+    IN p_event_timestamp TIMESTAMP(6),
+    IN p_reservation_id INT,
+    IN p_status VARCHAR(255),
+    IN p_error_code VARCHAR(255),
+    OUT o_transaction_pk INT,
+    OUT o_exists_already BOOLEAN,
+    OUT o_connector_inserted BOOLEAN,
+    OUT o_id_tag_inserted BOOLEAN,
+    OUT o_reservation_used BOOLEAN,
+    OUT o_status_fail_reason TEXT)
+BEGIN
+    DECLARE v_own_transaction BOOLEAN DEFAULT @@autocommit = 1;
+    DECLARE v_connector_pk INT UNSIGNED;
+    DECLARE v_event_timestamp TIMESTAMP(6);
+
+    DECLARE EXIT HANDLER FOR SQLEXCEPTION
+    BEGIN
+        IF v_own_transaction THEN
+            ROLLBACK;
+        END IF;
+        RESIGNAL;
+    END;
+
+    SET o_reservation_used = FALSE;
+    SET o_status_fail_reason = NULL;
+
+    IF v_own_transaction THEN
+        START TRANSACTION;
+    END IF;
+
+    INSERT IGNORE INTO `connector` (`charge_box_id`, `connector_id`)
+    VALUES (p_charge_box_id, p_connector_id);
+    SET o_connector_inserted = ROW_COUNT() = 1;
+
+    SELECT `connector_pk` INTO v_connector_pk
+      FROM `connector`
+     WHERE `charge_box_id` = p_charge_box_id AND `connector_id` = p_connector_id;
+
+    -- it is important to insert idTag before transaction, since the transaction table references it
+    INSERT IGNORE INTO `ocpp_tag` (`id_tag`, `note`, `max_active_transaction_count`)
+    VALUES (p_id_tag, p_id_tag_note, 0);
+    SET o_id_tag_inserted = ROW_COUNT() = 1;
+
+    -- a duplicate returns the existing key. its event timestamp is the one of the first message
+    INSERT INTO `transaction_start` (`event_timestamp`, `connector_pk`, `id_tag`, `start_timestamp`, `start_value`)
+    VALUES (p_event_timestamp, v_connector_pk, p_id_tag, p_start_timestamp, p_start_value)
+    ON DUPLICATE KEY UPDATE `transaction_pk` = LAST_INSERT_ID(`transaction_pk`);
+    SET o_transaction_pk = LAST_INSERT_ID();
+
+    SELECT `event_timestamp` INTO v_event_timestamp
+      FROM `transaction_start`
+     WHERE `transaction_pk` = o_transaction_pk;
+    SET o_exists_already = v_event_timestamp <> p_event_timestamp;
+
+    IF NOT o_exists_already THEN
+        IF p_reservation_id IS NOT NULL THEN
+            UPDATE `reservation`
+               SET `status` = 'USED', `transaction_pk` = o_transaction_pk
+             WHERE `reservation_pk` = p_reservation_id
+               AND `id_tag` = p_id_tag
+               AND `connector_pk` = v_connector_pk
+               AND `status` = 'ACCEPTED';
+            SET o_reservation_used = ROW_COUNT() = 1;
+        END IF;
+
+        -- the transaction is inserted even if the connector status cannot be. the application logs the failure
+        BEGIN
+            DECLARE v_errno INT;
+            DECLARE EXIT HANDLER FOR SQLEXCEPTION
+            BEGIN
+                GET DIAGNOSTICS CONDITION 1 o_status_fail_reason = MESSAGE_TEXT, v_errno = MYSQL_ERRNO;
+                IF v_errno IN (1205, 1213) THEN
+                    RESIGNAL;
+                END IF;
+            END;
+
+            INSERT INTO `connector_status` (`connector_pk`, `status_timestamp`, `status`, `error_code`)
+            SELECT v_connector_pk, p_start_timestamp, p_status, p_error_code
+              FROM `charge_box`
+             WHERE `charge_box_id` = p_charge_box_id
+               AND `insert_connector_status_after_transaction_msg` IS TRUE;
+        END;
+    END IF;
+
+    IF v_own_transaction THEN
+        COMMIT;
+    END IF;
+END $$
+
+CREATE PROCEDURE `update_transaction`(
+    IN p_transaction_pk INT,
+    IN p_charge_box_id VARCHAR(255),
+    IN p_event_timestamp TIMESTAMP(6),
+    IN p_event_actor VARCHAR(255),
+    IN p_stop_timestamp TIMESTAMP(6),
+    IN p_stop_value VARCHAR(255),
+    IN p_stop_reason VARCHAR(255),
+    IN p_status VARCHAR(255),
+    IN p_error_code VARCHAR(255),
+    OUT o_connector_pk INT,
+    OUT o_fail_reason TEXT)
+BEGIN
+    DECLARE v_own_transaction BOOLEAN DEFAULT @@autocommit = 1;
+
+    DECLARE EXIT HANDLER FOR SQLEXCEPTION
+    BEGIN
+        IF v_own_transaction THEN
+            ROLLBACK;
+        END IF;
+        RESIGNAL;
+    END;
+
+    SET o_connector_pk = NULL;
+    SET o_fail_reason = NULL;
+
+    IF v_own_transaction THEN
+        START TRANSACTION;
+    END IF;
+
+    -- the connector status is set back even if the stop event cannot be inserted. the application records the failure
+    BEGIN
+        DECLARE v_errno INT;
+        DECLARE EXIT HANDLER FOR SQLEXCEPTION
+        BEGIN
+            GET DIAGNOSTICS CONDITION 1 o_fail_reason = MESSAGE_TEXT, v_errno = MYSQL_ERRNO;
+            IF v_errno IN (1205, 1213) THEN
+                RESIGNAL;
+            END IF;
+        END;
+
+        INSERT INTO `transaction_stop`
+            (`transaction_pk`, `event_timestamp`, `event_actor`, `stop_timestamp`, `stop_value`, `stop_reason`)
+        VALUES
+            (p_transaction_pk, p_event_timestamp, p_event_actor, p_stop_timestamp, p_stop_value, p_stop_reason);
+    END;
+
+    SELECT `connector_pk` INTO o_connector_pk
+      FROM `transaction_start`
+     WHERE `transaction_pk` = p_transaction_pk;
+
+    INSERT INTO `connector_status` (`connector_pk`, `status_timestamp`, `status`, `error_code`)
+    SELECT o_connector_pk, p_stop_timestamp, p_status, p_error_code
+      FROM `charge_box`
+     WHERE `charge_box_id` = p_charge_box_id
+       AND `insert_connector_status_after_transaction_msg` IS TRUE
+       AND o_connector_pk IS NOT NULL;
+
+    IF v_own_transaction THEN
+        COMMIT;
+    END IF;
+END $$
+
+DELIMITER ;
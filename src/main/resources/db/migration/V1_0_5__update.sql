@@ -0,0 +1,16 @@
+-- The boots of a station per hour (e.g. flapping connections or boot storms after a power outage). A BootNotification
+-- increments the count of its hour, such that the history stays compact, but can still answer how often a station
+-- booted in the last hour or day. The descriptive columns of charge_box are only written when they change.
+
+CREATE TABLE `charge_box_boot` (
+  `charge_box_pk` INT NOT NULL,
+  `boot_hour` TIMESTAMP NOT NULL,
+  `boot_count` INT UNSIGNED NOT NULL DEFAULT 0,
+  `attributes_changed_count` INT UNSIGNED NOT NULL DEFAULT 0,
+  `last_boot_timestamp` TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+  PRIMARY KEY (`charge_box_pk`, `boot_hour`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+ALTER TABLE `charge_box_boot`
+ADD CONSTRAINT `FK_charge_box_boot_charge_box_pk`
+FOREIGN KEY (`charge_box_pk`) REFERENCES `charge_box` (`charge_box_pk`) ON DELETE CASCADE ON UPDATE NO ACTION;
@@ -71,6 +71,7 @@
                     </li>
                     <li><a href="${ctxPath}/manager/settings">SETTINGS</a></li>
                     <li><a href="${ctxPath}/manager/log">LOG</a></li>
+                    <li><a href="${ctxPath}/manager/queries">QUERIES</a></li>
                     <li><a href="${ctxPath}/manager/about">ABOUT</a></li>
                     <li><a href="${ctxPath}/manager/signout">SIGN OUT</a></li>
                 </ul>
@@ -39,6 +39,7 @@ Connection Status for JSON Charge Points
                 <th data-sort="string">OCPP Version</th>
                 <th data-sort="date">Connected Since</th>
                 <th data-sort="string">Connection Duration</th>
+                <th data-sort="int">Buffered Bytes</th>
             </tr>
         </thead>
         <tbody>
@@ -47,6 +48,7 @@ Connection Status for JSON Charge Points
                 <td>${s.version.value}</td>
                 <td data-sort-value="${s.connectedSinceDT.millis}">${s.connectedSince}</td>
                 <td>${s.connectionDuration}</td>
+                <td>${s.bufferedBytes}</td>
             </tr>
         </c:forEach>
         </tbody>
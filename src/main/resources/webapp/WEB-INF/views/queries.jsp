@@ -0,0 +1,86 @@
+<%--
+
+    SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+    Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+    All Rights Reserved.
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+<%@ include file="00-header.jsp" %>
+<%@ taglib uri="http://java.sun.com/jsp/jstl/fmt" prefix="fmt" %>
+<script type="text/javascript">
+    $(document).ready(function() {
+        <%@ include file="snippets/sortable.js" %>
+    });
+</script>
+<div class="content">
+    <section><span>
+        Slowest Queries <a class="tooltip" href="#"><img src="${ctxPath}/static/images/info.png" style="vertical-align:middle"><span>The queries with the highest total time since the start or the last reset. Literals and lists of values are replaced by placeholders. The origin is the OCPP action or the web page that caused the query.</span></a>
+    </span></section>
+    <form:form action="${ctxPath}/manager/queries">
+        <input type="submit" value="Reset"/>
+    </form:form>
+    <br>
+    <table class="res">
+        <thead>
+            <tr>
+                <th data-sort="string">Origin</th>
+                <th data-sort="string">Query</th>
+                <th data-sort="int">Count</th>
+                <th data-sort="float">Total (ms)</th>
+                <th data-sort="float">Avg (ms)</th>
+                <th data-sort="float">Max (ms)</th>
+                <th data-sort="int">Rows</th>
+            </tr>
+        </thead>
+        <tbody>
+        <c:forEach items="${queryList}" var="q">
+            <tr><td><c:out value="${q.origin}"/></td>
+                <td><code><c:out value="${q.fingerprint}"/></code></td>
+                <td>${q.count}</td>
+                <td><fmt:formatNumber value="${q.totalMillis}" maxFractionDigits="1"/></td>
+                <td><fmt:formatNumber value="${q.avgMillis}" maxFractionDigits="2"/></td>
+                <td><fmt:formatNumber value="${q.maxMillis}" maxFractionDigits="1"/></td>
+                <td>${q.rows}</td>
+            </tr>
+        </c:forEach>
+        </tbody>
+    </table>
+    <br>
+    <section><span>
+        Statements per Call <a class="tooltip" href="#"><img src="${ctxPath}/static/images/info.png" style="vertical-align:middle"><span>How many statements an OCPP message or web request executes, i.e. its round trips to the database.</span></a>
+    </span></section>
+    <table class="res">
+        <thead>
+            <tr>
+                <th data-sort="string">Origin</th>
+                <th data-sort="int">Calls</th>
+                <th data-sort="int">Statements</th>
+                <th data-sort="float">Avg Statements</th>
+                <th data-sort="int">Max Statements</th>
+            </tr>
+        </thead>
+        <tbody>
+        <c:forEach items="${originList}" var="o">
+            <tr><td><c:out value="${o.origin}"/></td>
+                <td>${o.calls}</td>
+                <td>${o.statements}</td>
+                <td><fmt:formatNumber value="${o.avgStatements}" maxFractionDigits="1"/></td>
+                <td>${o.maxStatements}</td>
+            </tr>
+        </c:forEach>
+        </tbody>
+    </table>
+</div>
+<%@ include file="00-footer.jsp" %>
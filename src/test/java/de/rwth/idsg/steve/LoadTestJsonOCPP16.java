@@ -0,0 +1,85 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import de.rwth.idsg.steve.utils.OpenLoopLoadGenerator;
+import de.rwth.idsg.steve.utils.OpenLoopLoadGenerator.Action;
+
+import java.io.File;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static de.rwth.idsg.steve.utils.Helpers.getJsonPath;
+
+/**
+ * Runs the {@link OpenLoopLoadGenerator} against an already running instance and writes the results as JSON, so that
+ * they can be compared across releases. Everything is configurable with system properties (defaults in brackets):
+ *
+ * <pre>
+ * load.stations (10000), load.connectsPerSecond (500), load.connectors (2),
+ * load.warmUp (60) and load.duration (300) in seconds,
+ * load.rate.heartbeat, load.rate.statusNotification, load.rate.meterValues, load.rate.startTransaction and
+ * load.rate.stopTransaction in messages per second for the whole fleet (derived from the station count),
+ * load.path (the JSON endpoint of the local configuration), load.output (target/load-test-results.json)
+ * </pre>
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+public class LoadTestJsonOCPP16 {
+
+    public static void main(String[] args) throws Exception {
+        int stations = Integer.getInteger("load.stations", 10_000);
+
+        // per station: a heartbeat every 5 min, a status change every 2.5 min, meter values every min and
+        // a transaction every hour
+        Map<Action, Double> rates = new EnumMap<>(Action.class);
+        rates.put(Action.HEARTBEAT, rate("load.rate.heartbeat", stations / 300.0));
+        rates.put(Action.STATUS_NOTIFICATION, rate("load.rate.statusNotification", stations / 150.0));
+        rates.put(Action.METER_VALUES, rate("load.rate.meterValues", stations / 60.0));
+        rates.put(Action.START_TRANSACTION, rate("load.rate.startTransaction", stations / 3600.0));
+        rates.put(Action.STOP_TRANSACTION, rate("load.rate.stopTransaction", stations / 3600.0));
+
+        OpenLoopLoadGenerator.Settings settings = OpenLoopLoadGenerator.Settings.builder()
+                .pathPrefix(System.getProperty("load.path", getJsonPath()))
+                .stationCount(stations)
+                .connectsPerSecond(Integer.getInteger("load.connectsPerSecond", 500))
+                .connectorsPerStation(Integer.getInteger("load.connectors", 2))
+                .warmUpSeconds(Integer.getInteger("load.warmUp", 60))
+                .measurementSeconds(Integer.getInteger("load.duration", 300))
+                .ratesPerSecond(rates)
+                .build();
+
+        Map<String, Object> results = new OpenLoopLoadGenerator(settings).run();
+
+        File output = new File(System.getProperty("load.output", "target/load-test-results.json"));
+        output.getAbsoluteFile().getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output, results);
+
+        OpenLoopLoadGenerator.printResults(results, System.out);
+        System.out.println("Results are written to " + output.getAbsolutePath());
+    }
+
+    private static double rate(String property, double defaultValue) {
+        String value = System.getProperty(property);
+        return (value == null) ? defaultValue : Double.parseDouble(value);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve;
+
+import de.rwth.idsg.steve.ocpp.OcppVersion;
+import de.rwth.idsg.steve.ocpp.ws.journal.JournalFrame;
+import de.rwth.idsg.steve.utils.TrafficRecording;
+import de.rwth.idsg.steve.utils.TrafficReplayer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static de.rwth.idsg.steve.utils.Helpers.getJsonPath;
+
+/**
+ * Replays recorded station traffic against an already running instance (unlike the stress tests, it does not start
+ * and prepare one), so that a release can be checked with the message mix of a real fleet:
+ *
+ * <pre>
+ * TrafficReplay journalDirectory
+ * TrafficReplay steve.log steve-2026-10-18-1.log.gz ...
+ * </pre>
+ *
+ * Optional system properties: replay.speed (default 1.0), replay.version (default ocpp1.6) and replay.path
+ * (default: the JSON endpoint of the local configuration).
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+public class TrafficReplay {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Usage: TrafficReplay journalDirectory | logFile...");
+            System.exit(1);
+        }
+
+        List<Path> sources = Arrays.stream(args).map(Paths::get).collect(Collectors.toList());
+
+        List<JournalFrame> calls;
+        if (sources.size() == 1 && Files.isDirectory(sources.get(0))) {
+            calls = TrafficRecording.fromJournal(sources.get(0));
+        } else {
+            calls = TrafficRecording.fromLogs(sources);
+        }
+
+        TrafficReplayer replayer = new TrafficReplayer(
+                OcppVersion.fromValue(System.getProperty("replay.version", OcppVersion.V_16.getValue())),
+                System.getProperty("replay.path", getJsonPath()),
+                Double.parseDouble(System.getProperty("replay.speed", "1.0"))
+        );
+
+        replayer.replay(calls);
+        replayer.printReport(System.out);
+    }
+}
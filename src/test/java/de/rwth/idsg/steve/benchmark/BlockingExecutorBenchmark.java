@@ -0,0 +1,193 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.benchmark;
+
+import com.google.common.collect.Lists;
+import de.rwth.idsg.steve.JettyServer;
+import de.rwth.idsg.steve.config.BeanConfiguration;
+import de.rwth.idsg.steve.config.ExecutorConfiguration;
+import de.rwth.idsg.steve.ocpp.OcppTransport;
+import de.rwth.idsg.steve.repository.dto.ChargePointSelect;
+import de.rwth.idsg.steve.service.BackgroundService;
+import de.rwth.idsg.steve.utils.VirtualThreads;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ScheduledExecutorScheduler;
+import org.jooq.DSLContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * The blocking paths that virtual threads are enabled for, with platform and virtual threads:
+ *
+ * - fanOut: concurrent operations with {@link BackgroundService#forEach(List)} on the fan-out executor, each for
+ *   {@link #STATIONS_PER_OPERATION} stations (one task per operation, the stations in sequence)
+ * - jettyRequests: concurrent HTTP requests to a Jetty connector of {@link JettyServer#newConnector}
+ *
+ * Every task and request blocks for a database call through the HikariCP pool and Connector/J of
+ * {@link BeanConfiguration}, against the database of the test profile. With virtual threads, the connection pool
+ * and not the thread count should be the limit.
+ *
+ * Run with Java 21 or newer, otherwise the virtual variant fails.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BlockingExecutorBenchmark {
+
+    private static final int THREADS = 5;
+    private static final int QUEUE_CAPACITY = 1000;
+    private static final int JETTY_THREADS = 20;
+    private static final int STATIONS_PER_OPERATION = 10;
+    private static final double QUERY_SECONDS = 0.002;
+
+    @Param({"false", "true"})
+    public boolean virtual;
+
+    @Param({"200"})
+    public int stations;
+
+    private BeanConfiguration beanConfiguration;
+    private DSLContext ctx;
+
+    private ThreadPoolExecutor executor;
+    private List<List<ChargePointSelect>> operations;
+
+    private Server server;
+    private HttpClient client;
+    private HttpRequest request;
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(BlockingExecutorBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        if (virtual && !VirtualThreads.isAvailable()) {
+            throw new IllegalStateException("Virtual threads require Java 21 or newer");
+        }
+
+        beanConfiguration = new BeanConfiguration();
+        ctx = beanConfiguration.dslContext();
+
+        executor = ExecutorConfiguration.newBoundedExecutor("benchmark", THREADS, QUEUE_CAPACITY, virtual,
+                new ThreadPoolExecutor.AbortPolicy());
+        List<ChargePointSelect> chargePoints = IntStream.range(0, stations)
+                                                        .mapToObj(i -> new ChargePointSelect(OcppTransport.JSON,
+                                                                                             "station-" + i))
+                                                        .collect(Collectors.toList());
+        operations = Lists.partition(chargePoints, STATIONS_PER_OPERATION);
+
+        QueuedThreadPool pool = JettyServer.newThreadPool("benchmark", JETTY_THREADS, QUEUE_CAPACITY, virtual);
+        ScheduledExecutorScheduler scheduler = new ScheduledExecutorScheduler();
+        server = new Server(pool);
+        server.addBean(scheduler);
+        ServerConnector connector = JettyServer.newConnector(server, scheduler, "benchmark", pool, JETTY_THREADS,
+                new HttpConfiguration(), null);
+        connector.setHost("localhost");
+        connector.setPort(0);
+        server.addConnector(connector);
+        server.setHandler(new AbstractHandler() {
+            @Override
+            public void handle(String target, Request baseRequest, HttpServletRequest request,
+                               HttpServletResponse response) {
+                query();
+                response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+                baseRequest.setHandled(true);
+            }
+        });
+        server.start();
+
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + connector.getLocalPort() + "/")).build();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        server.stop();
+        executor.shutdownNow();
+        beanConfiguration.shutDown();
+    }
+
+    @Benchmark
+    public void fanOut() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(stations);
+        for (List<ChargePointSelect> operation : operations) {
+            BackgroundService.with(executor)
+                             .forEach(operation)
+                             .execute(c -> {
+                                 try {
+                                     query();
+                                 } finally {
+                                     done.countDown();
+                                 }
+                             });
+        }
+        done.await();
+    }
+
+    @Benchmark
+    public void jettyRequests() {
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[stations];
+        for (int i = 0; i < stations; i++) {
+            responses[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+        }
+        CompletableFuture.allOf(responses).join();
+    }
+
+    private void query() {
+        ctx.fetchValue("SELECT SLEEP(?)", QUERY_SECONDS);
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.benchmark;
+
+import de.rwth.idsg.ocpp.jaxb.RequestType;
+import de.rwth.idsg.ocpp.jaxb.ResponseType;
+import de.rwth.idsg.steve.ocpp.ws.ocpp16.Ocpp16TypeStore;
+import de.rwth.idsg.steve.ocpp.ws.pipeline.CallHandlerTable;
+import ocpp.cs._2015._10.AuthorizeRequest;
+import ocpp.cs._2015._10.AuthorizeResponse;
+import ocpp.cs._2015._10.BootNotificationRequest;
+import ocpp.cs._2015._10.BootNotificationResponse;
+import ocpp.cs._2015._10.DataTransferRequest;
+import ocpp.cs._2015._10.DataTransferResponse;
+import ocpp.cs._2015._10.DiagnosticsStatusNotificationRequest;
+import ocpp.cs._2015._10.DiagnosticsStatusNotificationResponse;
+import ocpp.cs._2015._10.FirmwareStatusNotificationRequest;
+import ocpp.cs._2015._10.FirmwareStatusNotificationResponse;
+import ocpp.cs._2015._10.HeartbeatRequest;
+import ocpp.cs._2015._10.HeartbeatResponse;
+import ocpp.cs._2015._10.MeterValuesRequest;
+import ocpp.cs._2015._10.MeterValuesResponse;
+import ocpp.cs._2015._10.StartTransactionRequest;
+import ocpp.cs._2015._10.StartTransactionResponse;
+import ocpp.cs._2015._10.StatusNotificationRequest;
+import ocpp.cs._2015._10.StatusNotificationResponse;
+import ocpp.cs._2015._10.StopTransactionRequest;
+import ocpp.cs._2015._10.StopTransactionResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatching incoming OCPP 1.6 calls with the previous instanceof chain vs. {@link CallHandlerTable}. The payloads
+ * are a mix of all actions, with the most frequent ones (MeterValues, StatusNotification, Heartbeat) being at the end
+ * of the instanceof chain, as it was the case in the real handler.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CallDispatchBenchmark {
+
+    private static final ResponseType BOOT = new BootNotificationResponse();
+    private static final ResponseType FIRMWARE = new FirmwareStatusNotificationResponse();
+    private static final ResponseType STATUS = new StatusNotificationResponse();
+    private static final ResponseType METER = new MeterValuesResponse();
+    private static final ResponseType DIAGNOSTICS = new DiagnosticsStatusNotificationResponse();
+    private static final ResponseType START = new StartTransactionResponse();
+    private static final ResponseType STOP = new StopTransactionResponse();
+    private static final ResponseType HEARTBEAT = new HeartbeatResponse();
+    private static final ResponseType AUTHORIZE = new AuthorizeResponse();
+    private static final ResponseType DATA_TRANSFER = new DataTransferResponse();
+
+    private static final int PAYLOAD_COUNT = 16;
+
+    private RequestType[] payloads;
+    private CallHandlerTable table;
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(CallDispatchBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setup() {
+        table = CallHandlerTable.builder(Ocpp16TypeStore.INSTANCE)
+                                .add(BootNotificationRequest.class, (p, id) -> BOOT)
+                                .add(FirmwareStatusNotificationRequest.class, (p, id) -> FIRMWARE)
+                                .add(StatusNotificationRequest.class, (p, id) -> STATUS)
+                                .add(MeterValuesRequest.class, (p, id) -> METER)
+                                .add(DiagnosticsStatusNotificationRequest.class, (p, id) -> DIAGNOSTICS)
+                                .add(StartTransactionRequest.class, (p, id) -> START)
+                                .add(StopTransactionRequest.class, (p, id) -> STOP)
+                                .add(HeartbeatRequest.class, (p, id) -> HEARTBEAT)
+                                .add(AuthorizeRequest.class, (p, id) -> AUTHORIZE)
+                                .add(DataTransferRequest.class, (p, id) -> DATA_TRANSFER)
+                                .build();
+
+        payloads = new RequestType[] {
+                new MeterValuesRequest(), new MeterValuesRequest(), new MeterValuesRequest(), new MeterValuesRequest(),
+                new MeterValuesRequest(), new MeterValuesRequest(), new StatusNotificationRequest(),
+                new StatusNotificationRequest(), new StatusNotificationRequest(), new HeartbeatRequest(),
+                new HeartbeatRequest(), new StartTransactionRequest(), new StopTransactionRequest(),
+                new AuthorizeRequest(), new DataTransferRequest(), new BootNotificationRequest()
+        };
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAYLOAD_COUNT)
+    public void instanceofChain(Blackhole bh) {
+        for (RequestType params : payloads) {
+            bh.consume(dispatchWithInstanceof(params));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAYLOAD_COUNT)
+    public void table(Blackhole bh) {
+        for (RequestType params : payloads) {
+            bh.consume(table.dispatch(params, "benchmark"));
+        }
+    }
+
+    private static ResponseType dispatchWithInstanceof(RequestType params) {
+        if (params instanceof BootNotificationRequest) {
+            return BOOT;
+        } else if (params instanceof FirmwareStatusNotificationRequest) {
+            return FIRMWARE;
+        } else if (params instanceof StatusNotificationRequest) {
+            return STATUS;
+        } else if (params instanceof MeterValuesRequest) {
+            return METER;
+        } else if (params instanceof DiagnosticsStatusNotificationRequest) {
+            return DIAGNOSTICS;
+        } else if (params instanceof StartTransactionRequest) {
+            return START;
+        } else if (params instanceof StopTransactionRequest) {
+            return STOP;
+        } else if (params instanceof HeartbeatRequest) {
+            return HEARTBEAT;
+        } else if (params instanceof AuthorizeRequest) {
+            return AUTHORIZE;
+        } else if (params instanceof DataTransferRequest) {
+            return DATA_TRANSFER;
+        } else {
+            throw new IllegalArgumentException("Unexpected RequestType, dispatch method not found");
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.benchmark;
+
+import de.rwth.idsg.steve.ocpp.ws.data.FutureResponseContext;
+import de.rwth.idsg.steve.ocpp.ws.data.SessionContext;
+import lombok.RequiredArgsConstructor;
+import org.joda.time.DateTime;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.jetty.JettyWebSocketSession;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Heap used by the bookkeeping of WebSocket connections, per connection. The WebSocket sessions themselves are
+ * created beforehand and are not part of the measurement, since they are the same in both layouts:
+ *
+ * - legacy: the state of a connection is spread over the session map of ConcurrentWebSocketHandler, the deque of
+ * SessionContextStore and the per-session map of FutureResponseContextStore.
+ * - current: one {@link SessionContext} per connection, registered in the session map and referenced from the deque.
+ *
+ * Run with a fixed heap (e.g. -Xms4g -Xmx4g), so that the numbers are not distorted by heap resizing.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+public class ConnectionFootprint {
+
+    private static final int CONNECTION_COUNT = 50_000;
+
+    public static void main(String[] args) {
+        WebSocketSession[] sessions = new WebSocketSession[CONNECTION_COUNT];
+        for (int i = 0; i < CONNECTION_COUNT; i++) {
+            sessions[i] = new JettyWebSocketSession(new HashMap<>());
+        }
+
+        measure("legacy", () -> legacy(sessions));
+        measure("current", () -> current(sessions));
+    }
+
+    private static void measure(String name, Supplier<Object> layout) {
+        long before = usedHeap();
+        Object keepAlive = layout.get();
+        long after = usedHeap();
+
+        System.out.printf("%-8s %,d bytes per connection%n", name, (after - before) / CONNECTION_COUNT);
+        if (keepAlive.hashCode() == 42) {
+            System.out.println(); // just to keep the layout reachable until after the measurement
+        }
+    }
+
+    private static Object legacy(WebSocketSession[] sessions) {
+        Map<String, WebSocketSession> handlerSessions = new ConcurrentHashMap<>();
+        Map<String, Deque<LegacySessionContext>> sessionContexts = new ConcurrentHashMap<>();
+        Map<WebSocketSession, LegacySessionStore> futureResponseContexts = new ConcurrentHashMap<>();
+
+        for (int i = 0; i < sessions.length; i++) {
+            WebSocketSession session = sessions[i];
+            handlerSessions.put(session.getId(), session);
+            sessionContexts.computeIfAbsent("station-" + i, s -> new ArrayDeque<>())
+                           .addLast(new LegacySessionContext(session, null, DateTime.now()));
+            futureResponseContexts.put(session, new LegacySessionStore());
+        }
+        return new Object[] {handlerSessions, sessionContexts, futureResponseContexts};
+    }
+
+    private static Object current(WebSocketSession[] sessions) {
+        Map<String, SessionContext> handlerSessions = new ConcurrentHashMap<>();
+        Map<String, Deque<SessionContext>> sessionContexts = new ConcurrentHashMap<>();
+
+        for (int i = 0; i < sessions.length; i++) {
+            WebSocketSession session = sessions[i];
+            SessionContext context = new SessionContext("station-" + i, session, DateTime.now());
+            handlerSessions.put(session.getId(), context);
+            sessionContexts.computeIfAbsent(context.getChargeBoxId(), s -> new ArrayDeque<>())
+                           .addLast(context);
+        }
+        return new Object[] {handlerSessions, sessionContexts};
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean bean = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return bean.getHeapMemoryUsage().getUsed();
+    }
+
+    @RequiredArgsConstructor
+    private static class LegacySessionContext {
+        private final WebSocketSession session;
+        private final ScheduledFuture<?> pingSchedule;
+        private final DateTime openSince;
+    }
+
+    private static class LegacySessionStore {
+        private final AtomicLong counter = new AtomicLong();
+        private final Map<String, FutureResponseContext> contexts = new ConcurrentHashMap<>();
+    }
+}
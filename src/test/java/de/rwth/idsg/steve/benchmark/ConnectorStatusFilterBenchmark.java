@@ -0,0 +1,103 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.benchmark;
+
+import de.rwth.idsg.steve.repository.dto.ConnectorStatus;
+import de.rwth.idsg.steve.utils.ConnectorStatusFilter;
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ConnectorStatusFilter} with the flat list of the connector status page: for every station the connector 0
+ * and two regular connectors, in random order and with random status timestamps, so that both branches (connector 0
+ * more recent or not) are taken.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ConnectorStatusFilterBenchmark {
+
+    private static final int CONNECTORS_PER_STATION = 3;
+
+    @Param({"100", "10000"})
+    private int stationCount;
+
+    private List<ConnectorStatus> statuses;
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(ConnectorStatusFilterBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setup() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        DateTime now = DateTime.now();
+
+        statuses = new ArrayList<>(stationCount * CONNECTORS_PER_STATION);
+        for (int i = 0; i < stationCount; i++) {
+            for (int connectorId = 0; connectorId < CONNECTORS_PER_STATION; connectorId++) {
+                DateTime timestamp = now.minusMinutes(random.nextInt(24 * 60));
+                statuses.add(ConnectorStatus.builder()
+                                            .chargeBoxPk(i)
+                                            .chargeBoxId("CS-" + i)
+                                            .connectorId(connectorId)
+                                            .timeStamp(timestamp.toString())
+                                            .statusTimestamp(timestamp)
+                                            .status(connectorId == 0 ? "Unavailable" : "Available")
+                                            .errorCode("NoError")
+                                            .build());
+            }
+        }
+        Collections.shuffle(statuses, random);
+    }
+
+    @Benchmark
+    public List<ConnectorStatus> preferZero() {
+        return ConnectorStatusFilter.filterAndPreferZero(statuses);
+    }
+
+    @Benchmark
+    public List<ConnectorStatus> preferOthersWithStatusOfZero() {
+        return ConnectorStatusFilter.filterAndPreferOthersWithStatusOfZero(statuses);
+    }
+}
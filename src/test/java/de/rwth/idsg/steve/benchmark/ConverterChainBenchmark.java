@@ -0,0 +1,149 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.benchmark;
+
+import de.rwth.idsg.steve.ocpp.converter.Convert;
+import de.rwth.idsg.steve.ocpp.converter.Server12to15Impl;
+import de.rwth.idsg.steve.ocpp.converter.Server15to16Impl;
+import ocpp.cs._2010._08.ChargePointErrorCode;
+import ocpp.cs._2010._08.ChargePointStatus;
+import ocpp.cs._2010._08.MeterValue;
+import ocpp.cs._2010._08.MeterValuesRequest;
+import ocpp.cs._2010._08.MeterValuesResponse;
+import ocpp.cs._2010._08.StartTransactionRequest;
+import ocpp.cs._2010._08.StartTransactionResponse;
+import ocpp.cs._2010._08.StatusNotificationRequest;
+import ocpp.cs._2010._08.StatusNotificationResponse;
+import ocpp.cs._2015._10.AuthorizationStatus;
+import ocpp.cs._2015._10.IdTagInfo;
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The converter chains of the OCPP 1.2 and 1.5 SOAP servers, composed exactly like in
+ * CentralSystemService12_SoapServer and CentralSystemService15_SoapServer, with the 1.6 service replaced by a
+ * constant response. This is the overhead that SOAP stations of older versions pay on top of the 1.6 processing.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ConverterChainBenchmark {
+
+    private static final ocpp.cs._2015._10.StatusNotificationResponse STATUS_16 =
+            new ocpp.cs._2015._10.StatusNotificationResponse();
+    private static final ocpp.cs._2015._10.MeterValuesResponse METER_16 =
+            new ocpp.cs._2015._10.MeterValuesResponse();
+
+    private StatusNotificationRequest status12;
+    private MeterValuesRequest meter12;
+    private ocpp.cs._2012._06.MeterValuesRequest meter15;
+    private StartTransactionRequest start12;
+    private ocpp.cs._2015._10.StartTransactionResponse start16;
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(ConverterChainBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setup() {
+        DateTime now = DateTime.now();
+
+        status12 = new StatusNotificationRequest()
+                .withConnectorId(1)
+                .withStatus(ChargePointStatus.AVAILABLE)
+                .withErrorCode(ChargePointErrorCode.NO_ERROR);
+
+        List<MeterValue> values = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            values.add(new MeterValue().withTimestamp(now.plusSeconds(i * 15)).withValue(1_000 + i));
+        }
+        meter12 = new MeterValuesRequest().withConnectorId(1).withValues(values);
+        meter15 = Server12to15Impl.SINGLETON.convertRequest(meter12);
+
+        start12 = new StartTransactionRequest()
+                .withConnectorId(1)
+                .withIdTag("04A2B3C4D5E6F7")
+                .withMeterStart(1234)
+                .withTimestamp(now);
+
+        start16 = new ocpp.cs._2015._10.StartTransactionResponse()
+                .withTransactionId(4711)
+                .withIdTagInfo(new IdTagInfo().withStatus(AuthorizationStatus.ACCEPTED)
+                                              .withExpiryDate(now.plusHours(1)));
+    }
+
+    @Benchmark
+    public StatusNotificationResponse statusNotification12() {
+        return Convert.start(status12, Server12to15Impl.SINGLETON::convertRequest)
+                      .andThen(Server15to16Impl.SINGLETON::convertRequest)
+                      .andThen(req -> STATUS_16)
+                      .andThen(Server15to16Impl.SINGLETON::convertResponse)
+                      .andThen(Server12to15Impl.SINGLETON::convertResponse)
+                      .apply(status12);
+    }
+
+    @Benchmark
+    public MeterValuesResponse meterValues12() {
+        return Convert.start(meter12, Server12to15Impl.SINGLETON::convertRequest)
+                      .andThen(Server15to16Impl.SINGLETON::convertRequest)
+                      .andThen(req -> METER_16)
+                      .andThen(Server15to16Impl.SINGLETON::convertResponse)
+                      .andThen(Server12to15Impl.SINGLETON::convertResponse)
+                      .apply(meter12);
+    }
+
+    @Benchmark
+    public StartTransactionResponse startTransaction12() {
+        return Convert.start(start12, Server12to15Impl.SINGLETON::convertRequest)
+                      .andThen(Server15to16Impl.SINGLETON::convertRequest)
+                      .andThen(req -> start16)
+                      .andThen(Server15to16Impl.SINGLETON::convertResponse)
+                      .andThen(Server12to15Impl.SINGLETON::convertResponse)
+                      .apply(start12);
+    }
+
+    @Benchmark
+    public ocpp.cs._2012._06.MeterValuesResponse meterValues15() {
+        return Convert.start(meter15, Server15to16Impl.SINGLETON::convertRequest)
+                      .andThen(req -> METER_16)
+                      .andThen(Server15to16Impl.SINGLETON::convertResponse)
+                      .apply(meter15);
+    }
+}
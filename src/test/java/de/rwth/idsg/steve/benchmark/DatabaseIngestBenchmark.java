@@ -0,0 +1,279 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.benchmark;
+
+import de.rwth.idsg.steve.ApplicationProfile;
+import de.rwth.idsg.steve.config.BeanConfiguration;
+import de.rwth.idsg.steve.repository.dto.InsertConnectorStatusParams;
+import de.rwth.idsg.steve.repository.dto.InsertTransactionParams;
+import de.rwth.idsg.steve.repository.dto.UpdateTransactionParams;
+import de.rwth.idsg.steve.repository.impl.AddressRepositoryImpl;
+import de.rwth.idsg.steve.repository.impl.ChargePointRepositoryImpl;
+import de.rwth.idsg.steve.repository.impl.GenericRepositoryImpl;
+import de.rwth.idsg.steve.repository.impl.OcppServerRepositoryImpl;
+import de.rwth.idsg.steve.repository.impl.TransactionRepositoryImpl;
+import de.rwth.idsg.steve.repository.wal.WriteAheadLog;
+import de.rwth.idsg.steve.utils.__DatabasePreparer__;
+import de.rwth.idsg.steve.utils.__DatabaseSeeder__;
+import jooq.steve.db.enums.TransactionStopEventActor;
+import ocpp.cs._2015._10.Measurand;
+import ocpp.cs._2015._10.MeterValue;
+import ocpp.cs._2015._10.SampledValue;
+import org.HdrHistogram.Histogram;
+import org.joda.time.DateTime;
+import org.jooq.DSLContext;
+import org.jooq.ExecuteContext;
+import org.jooq.ExecuteType;
+import org.jooq.impl.DSL;
+import org.jooq.impl.DefaultExecuteListener;
+import org.jooq.impl.DefaultExecuteListenerProvider;
+import org.junit.Assert;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+
+/**
+ * The write paths of OcppServerRepositoryImpl and the read queries behind the UI against the test database, seeded
+ * with {@link __DatabaseSeeder__} at realistic table sizes. For every operation, it reports the SQL statements and
+ * affected rows per call (counted with a jOOQ ExecuteListener), the latency percentiles, calls/s and rows/s.
+ *
+ * A call of a stored procedure is one statement for jOOQ, but runs several in the database. Therefore, the
+ * statements that the server executed per call (including the ones in stored programs) are reported as well, from the
+ * global status variable Queries. The database should not be used by anything else during the run.
+ *
+ * It is not a JMH benchmark, because the operations change the database and the interesting numbers are
+ * milliseconds. Sizes and iterations are configurable with system properties (defaults in brackets):
+ *
+ * <pre>
+ * bench.stations (5000), bench.connectors (2), bench.ocppTags (10000), bench.transactions (500000),
+ * bench.connectorStatuses (2000000), bench.meterValues (5000000), bench.iterations (5000),
+ * bench.readIterations (20), bench.keepData (false)
+ * </pre>
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+public class DatabaseIngestBenchmark {
+
+    private final DSLContext ctx;
+    private final StatementCounter counter;
+    private final __DatabaseSeeder__.Seeded seeded;
+
+    private final OcppServerRepositoryImpl ocppServerRepository = new OcppServerRepositoryImpl();
+    private final GenericRepositoryImpl genericRepository = new GenericRepositoryImpl();
+    private final ChargePointRepositoryImpl chargePointRepository;
+    private final TransactionRepositoryImpl transactionRepository;
+
+    private DatabaseIngestBenchmark(DSLContext ctx, StatementCounter counter, __DatabaseSeeder__.Seeded seeded) {
+        this.ctx = ctx;
+        this.counter = counter;
+        this.seeded = seeded;
+
+        ReflectionTestUtils.setField(ocppServerRepository, "ctx", ctx);
+        // Disabled in the test profile, i.e. the writes always go to the database
+        ReflectionTestUtils.setField(ocppServerRepository, "writeAheadLog", new WriteAheadLog());
+        ReflectionTestUtils.setField(genericRepository, "ctx", ctx);
+        chargePointRepository = new ChargePointRepositoryImpl(ctx, new AddressRepositoryImpl());
+        transactionRepository = new TransactionRepositoryImpl(ctx);
+    }
+
+    public static void main(String[] args) {
+        Assert.assertEquals(ApplicationProfile.TEST, CONFIG.getProfile());
+
+        __DatabaseSeeder__.Sizes sizes = __DatabaseSeeder__.Sizes.builder()
+                .stations(Integer.getInteger("bench.stations", 5_000))
+                .connectorsPerStation(Integer.getInteger("bench.connectors", 2))
+                .ocppTags(Integer.getInteger("bench.ocppTags", 10_000))
+                .transactions(Integer.getInteger("bench.transactions", 500_000))
+                .connectorStatuses(Integer.getInteger("bench.connectorStatuses", 2_000_000))
+                .meterValues(Integer.getInteger("bench.meterValues", 5_000_000))
+                .build();
+
+        int iterations = Integer.getInteger("bench.iterations", 5_000);
+        int readIterations = Integer.getInteger("bench.readIterations", 20);
+
+        DSLContext base = new BeanConfiguration().dslContext();
+        StatementCounter counter = new StatementCounter();
+        DSLContext counted = DSL.using(base.configuration().derive(new DefaultExecuteListenerProvider(counter)));
+
+        __DatabasePreparer__.prepare();
+        try {
+            __DatabaseSeeder__.Seeded seeded = __DatabaseSeeder__.seed(base, sizes);
+            new DatabaseIngestBenchmark(counted, counter, seeded).run(iterations, readIterations);
+        } finally {
+            if (!Boolean.getBoolean("bench.keepData")) {
+                __DatabasePreparer__.cleanUp();
+            }
+        }
+    }
+
+    private void run(int iterations, int readIterations) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<MeterValue> meterValues = Collections.singletonList(meterValue());
+
+        String[] startedChargeBoxIds = new String[iterations + warmUp(iterations)];
+        int[] startedTransactions = new int[startedChargeBoxIds.length];
+
+        System.out.printf("%-30s %8s %8s %8s %8s %9s %9s %9s %9s %10s%n",
+                "operation", "calls", "stmt/op", "srv/op", "rows/op",
+                "p50 ms", "p99 ms", "max ms", "calls/s", "rows/s");
+
+        measure("insertConnectorStatus", iterations, i ->
+                ocppServerRepository.insertConnectorStatus(
+                        InsertConnectorStatusParams.builder()
+                                                   .chargeBoxId(randomChargeBoxId(random))
+                                                   .connectorId(randomConnectorId(random))
+                                                   .timestamp(DateTime.now())
+                                                   .status("Charging")
+                                                   .errorCode("NoError")
+                                                   .build()));
+
+        measure("insertMeterValues", iterations, i ->
+                ocppServerRepository.insertMeterValues(randomChargeBoxId(random), meterValues,
+                        randomConnectorId(random), randomTransaction(random)));
+
+        measure("insertTransaction", iterations, i -> {
+            startedChargeBoxIds[i] = randomChargeBoxId(random);
+            startedTransactions[i] = ocppServerRepository.insertTransaction(
+                    InsertTransactionParams.builder()
+                                           .chargeBoxId(startedChargeBoxIds[i])
+                                           .connectorId(randomConnectorId(random))
+                                           .idTag(seeded.getIdTags().get(random.nextInt(seeded.getIdTags().size())))
+                                           .startTimestamp(DateTime.now())
+                                           .startMeterValue(String.valueOf(random.nextInt(1_000_000)))
+                                           .eventTimestamp(DateTime.now())
+                                           .build());
+        });
+
+        measure("updateTransaction", iterations, i ->
+                ocppServerRepository.updateTransaction(
+                        UpdateTransactionParams.builder()
+                                               .chargeBoxId(startedChargeBoxIds[i])
+                                               .transactionId(startedTransactions[i])
+                                               .stopTimestamp(DateTime.now())
+                                               .stopMeterValue(String.valueOf(random.nextInt(1_000_000, 2_000_000)))
+                                               .stopReason("Local")
+                                               .eventActor(TransactionStopEventActor.station)
+                                               .eventTimestamp(DateTime.now())
+                                               .transactionData(meterValues)
+                                               .build()));
+
+        measure("getChargePointConnectorStatus", readIterations, i ->
+                chargePointRepository.getChargePointConnectorStatus());
+
+        measure("getStats", readIterations, i -> genericRepository.getStats());
+
+        measure("getDetails (transaction)", iterations, i ->
+                transactionRepository.getDetails(randomTransaction(random)));
+    }
+
+    /**
+     * The warm-up calls are not recorded, but use the indexes before the recorded ones, which lets insertTransaction
+     * and updateTransaction share the same index space.
+     */
+    private void measure(String operation, int iterations, IntConsumer call) {
+        int warmUp = warmUp(iterations);
+        for (int i = 0; i < warmUp; i++) {
+            call.accept(iterations + i);
+        }
+
+        Histogram histogram = new Histogram(3);
+        long serverStart = serverStatements();
+        counter.reset();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            long callStart = System.nanoTime();
+            call.accept(i);
+            histogram.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - callStart));
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long statements = counter.statements.sum();
+        long rows = counter.rows.sum();
+        long serverStatements = serverStatements() - serverStart;
+
+        System.out.printf("%-30s %8d %8.1f %8.1f %8.1f %9.2f %9.2f %9.2f %9.1f %10.1f%n",
+                operation, iterations,
+                (double) statements / iterations, (double) serverStatements / iterations, (double) rows / iterations,
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getMaxValue() / 1000.0, iterations / seconds, rows / seconds);
+    }
+
+    private long serverStatements() {
+        return ctx.fetchOne("SHOW GLOBAL STATUS LIKE 'Queries'").get(1, Long.class);
+    }
+
+    private static int warmUp(int iterations) {
+        return Math.min(iterations / 10, 500);
+    }
+
+    private String randomChargeBoxId(ThreadLocalRandom random) {
+        return seeded.getChargeBoxIds().get(random.nextInt(seeded.getChargeBoxIds().size()));
+    }
+
+    private int randomConnectorId(ThreadLocalRandom random) {
+        return random.nextInt(1, seeded.getConnectorsPerStation() + 1);
+    }
+
+    private int randomTransaction(ThreadLocalRandom random) {
+        return seeded.getTransactionPks()[random.nextInt(seeded.getTransactionPks().length)];
+    }
+
+    private static MeterValue meterValue() {
+        return new MeterValue()
+                .withTimestamp(DateTime.now())
+                .withSampledValue(
+                        new SampledValue().withValue("12345.6").withMeasurand(Measurand.ENERGY_ACTIVE_IMPORT_REGISTER),
+                        new SampledValue().withValue("11.04").withMeasurand(Measurand.POWER_ACTIVE_IMPORT),
+                        new SampledValue().withValue("16.0").withMeasurand(Measurand.CURRENT_IMPORT),
+                        new SampledValue().withValue("230.1").withMeasurand(Measurand.VOLTAGE));
+    }
+
+    private static class StatementCounter extends DefaultExecuteListener {
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+
+        private void reset() {
+            statements.reset();
+            rows.reset();
+        }
+
+        @Override
+        public void executeEnd(ExecuteContext ctx) {
+            statements.increment();
+            if (ctx.type() == ExecuteType.BATCH) {
+                for (int batchRows : ctx.batchRows()) {
+                    if (batchRows > 0) {
+                        rows.add(batchRows);
+                    }
+                }
+            } else if (ctx.rows() > 0) {
+                rows.add(ctx.rows());
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.benchmark;
+
+import de.rwth.idsg.steve.ocpp.ws.FutureResponseContextStore;
+import de.rwth.idsg.steve.ocpp.ws.custom.MessageIdStrategyEnum;
+import de.rwth.idsg.steve.ocpp.ws.data.FutureResponseContext;
+import de.rwth.idsg.steve.ocpp.ws.data.SessionContext;
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.jetty.JettyWebSocketSession;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Message id generation and the round trip through {@link FutureResponseContextStore} (add when sending a call, get
+ * when the response arrives) with 16 threads sending calls to the same set of stations at the same time.
+ *
+ * The "legacy" benchmarks replicate the behaviour before the message id strategies were introduced, i.e. random UUIDs
+ * as ids and Strings as keys in the store.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class MessageIdBenchmark {
+
+    private static final int SESSION_COUNT = 1_000;
+    private static final FutureResponseContext CONTEXT = new FutureResponseContext(null, null);
+
+    private final AtomicLong sharedCounter = new AtomicLong();
+
+    private SessionContext[] sessions;
+    private FutureResponseContextStore store;
+    private Map<WebSocketSession, Map<String, FutureResponseContext>> legacyStore;
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(MessageIdBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setup() {
+        store = new FutureResponseContextStore();
+        legacyStore = new ConcurrentHashMap<>();
+        sessions = new SessionContext[SESSION_COUNT];
+
+        for (int i = 0; i < SESSION_COUNT; i++) {
+            WebSocketSession session = new JettyWebSocketSession(new HashMap<>());
+            sessions[i] = new SessionContext("benchmark-" + i, session, DateTime.now());
+            legacyStore.put(session, new ConcurrentHashMap<>());
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Id generation
+    // -------------------------------------------------------------------------
+
+    @Benchmark
+    public String legacyUuid() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public String sessionCounter() {
+        MessageIdStrategyEnum s = MessageIdStrategyEnum.SESSION_COUNTER;
+        return s.toMessageId(s.nextId(sharedCounter));
+    }
+
+    @Benchmark
+    public String random() {
+        MessageIdStrategyEnum s = MessageIdStrategyEnum.RANDOM;
+        return s.toMessageId(s.nextId(sharedCounter));
+    }
+
+    // -------------------------------------------------------------------------
+    // Store round trip
+    // -------------------------------------------------------------------------
+
+    @Benchmark
+    public FutureResponseContext legacyStoreRoundTrip() {
+        WebSocketSession session = randomSession().getSession();
+        String messageId = UUID.randomUUID().toString();
+
+        legacyStore.get(session).put(messageId, CONTEXT);
+        return legacyStore.get(session).remove(messageId);
+    }
+
+    @Benchmark
+    public FutureResponseContext storeRoundTrip() {
+        SessionContext session = randomSession();
+        String messageId = store.nextMessageId(session);
+
+        store.add(session, messageId, CONTEXT);
+        return store.get(session, messageId);
+    }
+
+    private SessionContext randomSession() {
+        return sessions[ThreadLocalRandom.current().nextInt(SESSION_COUNT)];
+    }
+}
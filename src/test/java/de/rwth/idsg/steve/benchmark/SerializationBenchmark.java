@@ -0,0 +1,210 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.benchmark;
+
+import de.rwth.idsg.ocpp.jaxb.RequestType;
+import de.rwth.idsg.ocpp.jaxb.ResponseType;
+import de.rwth.idsg.steve.ocpp.ws.FutureResponseContextStore;
+import de.rwth.idsg.steve.ocpp.ws.data.CommunicationContext;
+import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonCall;
+import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonMessage;
+import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonResult;
+import de.rwth.idsg.steve.ocpp.ws.ocpp16.Ocpp16TypeStore;
+import de.rwth.idsg.steve.ocpp.ws.pipeline.Deserializer;
+import de.rwth.idsg.steve.ocpp.ws.pipeline.Serializer;
+import ocpp.cs._2015._10.AuthorizationStatus;
+import ocpp.cs._2015._10.AuthorizeRequest;
+import ocpp.cs._2015._10.AuthorizeResponse;
+import ocpp.cs._2015._10.BootNotificationRequest;
+import ocpp.cs._2015._10.BootNotificationResponse;
+import ocpp.cs._2015._10.ChargePointErrorCode;
+import ocpp.cs._2015._10.ChargePointStatus;
+import ocpp.cs._2015._10.HeartbeatRequest;
+import ocpp.cs._2015._10.HeartbeatResponse;
+import ocpp.cs._2015._10.IdTagInfo;
+import ocpp.cs._2015._10.Measurand;
+import ocpp.cs._2015._10.MeterValue;
+import ocpp.cs._2015._10.MeterValuesRequest;
+import ocpp.cs._2015._10.MeterValuesResponse;
+import ocpp.cs._2015._10.RegistrationStatus;
+import ocpp.cs._2015._10.SampledValue;
+import ocpp.cs._2015._10.StartTransactionRequest;
+import ocpp.cs._2015._10.StartTransactionResponse;
+import ocpp.cs._2015._10.StatusNotificationRequest;
+import ocpp.cs._2015._10.StatusNotificationResponse;
+import ocpp.cs._2015._10.StopTransactionRequest;
+import ocpp.cs._2015._10.StopTransactionResponse;
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Deserializer#accept(CommunicationContext)} of incoming OCPP 1.6 calls and
+ * {@link Serializer#accept(CommunicationContext)} of the results we send back, per action. The payloads are
+ * realistic in size (e.g. MeterValues with several sampled values), not the minimal valid messages.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializationBenchmark {
+
+    @Param({"BootNotification", "Heartbeat", "StatusNotification", "MeterValues", "Authorize", "StartTransaction",
+            "StopTransaction"})
+    private String action;
+
+    private Deserializer deserializer;
+    private String incomingCall;
+    private OcppJsonResult outgoingResult;
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(SerializationBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setup() {
+        deserializer = new Deserializer(new FutureResponseContextStore(), Ocpp16TypeStore.INSTANCE);
+
+        OcppJsonCall call = new OcppJsonCall();
+        call.setMessageId("8c5c1dc6-3b9a-4b5e-8d1e-0a4fd2b1c2a7");
+        call.setAction(action);
+        call.setPayload(request(action));
+        incomingCall = serialize(call);
+
+        outgoingResult = new OcppJsonResult();
+        outgoingResult.setMessageId(call.getMessageId());
+        outgoingResult.setPayload(response(action));
+    }
+
+    @Benchmark
+    public OcppJsonMessage deserializeCall() {
+        CommunicationContext context = new CommunicationContext(null);
+        context.setIncomingString(incomingCall);
+        deserializer.accept(context);
+        return context.getIncomingMessage();
+    }
+
+    @Benchmark
+    public String serializeResult() {
+        return serialize(outgoingResult);
+    }
+
+    private static String serialize(OcppJsonMessage message) {
+        // session context is null, because we only need the context for serialization
+        CommunicationContext context = new CommunicationContext(null);
+        context.setOutgoingMessage(message);
+        Serializer.INSTANCE.accept(context);
+        return context.getOutgoingString();
+    }
+
+    private static RequestType request(String action) {
+        DateTime now = DateTime.now();
+        switch (action) {
+            case "BootNotification":
+                return new BootNotificationRequest()
+                        .withChargePointVendor("Vendor")
+                        .withChargePointModel("Model-22kW")
+                        .withChargePointSerialNumber("SN-000123456")
+                        .withFirmwareVersion("1.4.2-rc3");
+            case "Heartbeat":
+                return new HeartbeatRequest();
+            case "StatusNotification":
+                return new StatusNotificationRequest()
+                        .withConnectorId(1)
+                        .withErrorCode(ChargePointErrorCode.NO_ERROR)
+                        .withStatus(ChargePointStatus.CHARGING)
+                        .withTimestamp(now);
+            case "MeterValues":
+                return new MeterValuesRequest()
+                        .withConnectorId(1)
+                        .withTransactionId(4711)
+                        .withMeterValue(new MeterValue()
+                                .withTimestamp(now)
+                                .withSampledValue(
+                                        new SampledValue().withValue("12345.6")
+                                                          .withMeasurand(Measurand.ENERGY_ACTIVE_IMPORT_REGISTER),
+                                        new SampledValue().withValue("11.04")
+                                                          .withMeasurand(Measurand.POWER_ACTIVE_IMPORT),
+                                        new SampledValue().withValue("16.0")
+                                                          .withMeasurand(Measurand.CURRENT_IMPORT),
+                                        new SampledValue().withValue("230.1")
+                                                          .withMeasurand(Measurand.VOLTAGE)));
+            case "Authorize":
+                return new AuthorizeRequest().withIdTag("04A2B3C4D5E6F7");
+            case "StartTransaction":
+                return new StartTransactionRequest()
+                        .withConnectorId(1)
+                        .withIdTag("04A2B3C4D5E6F7")
+                        .withMeterStart(1234567)
+                        .withTimestamp(now);
+            case "StopTransaction":
+                return new StopTransactionRequest()
+                        .withTransactionId(4711)
+                        .withIdTag("04A2B3C4D5E6F7")
+                        .withMeterStop(1256789)
+                        .withTimestamp(now);
+            default:
+                throw new IllegalArgumentException(action);
+        }
+    }
+
+    private static ResponseType response(String action) {
+        DateTime now = DateTime.now();
+        IdTagInfo accepted = new IdTagInfo().withStatus(AuthorizationStatus.ACCEPTED).withExpiryDate(now.plusHours(1));
+        switch (action) {
+            case "BootNotification":
+                return new BootNotificationResponse()
+                        .withStatus(RegistrationStatus.ACCEPTED)
+                        .withCurrentTime(now)
+                        .withInterval(300);
+            case "Heartbeat":
+                return new HeartbeatResponse().withCurrentTime(now);
+            case "StatusNotification":
+                return new StatusNotificationResponse();
+            case "MeterValues":
+                return new MeterValuesResponse();
+            case "Authorize":
+                return new AuthorizeResponse().withIdTagInfo(accepted);
+            case "StartTransaction":
+                return new StartTransactionResponse().withTransactionId(4711).withIdTagInfo(accepted);
+            case "StopTransaction":
+                return new StopTransactionResponse().withIdTagInfo(accepted);
+            default:
+                throw new IllegalArgumentException(action);
+        }
+    }
+}
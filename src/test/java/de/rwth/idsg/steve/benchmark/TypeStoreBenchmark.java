@@ -0,0 +1,98 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.benchmark;
+
+import de.rwth.idsg.ocpp.jaxb.RequestType;
+import de.rwth.idsg.steve.ocpp.ws.AbstractTypeStore;
+import de.rwth.idsg.steve.ocpp.ws.ocpp16.Ocpp16TypeStore;
+import ocpp.cp._2015._10.ChangeAvailabilityRequest;
+import ocpp.cp._2015._10.ChangeConfigurationRequest;
+import ocpp.cp._2015._10.GetConfigurationRequest;
+import ocpp.cp._2015._10.RemoteStartTransactionRequest;
+import ocpp.cp._2015._10.RemoteStopTransactionRequest;
+import ocpp.cp._2015._10.ResetRequest;
+import ocpp.cp._2015._10.TriggerMessageRequest;
+import ocpp.cp._2015._10.UnlockConnectorRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AbstractTypeStore} lookups of OCPP 1.6: action to request class for incoming calls and request to
+ * action/response class for outgoing calls. The actions are copied before every lookup, because the ones coming
+ * from the JSON parser are new String instances without a cached hash code as well.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TypeStoreBenchmark {
+
+    private static final int LOOKUP_COUNT = 8;
+
+    private final Ocpp16TypeStore typeStore = Ocpp16TypeStore.INSTANCE;
+
+    private final String[] actions = {
+            "MeterValues", "MeterValues", "StatusNotification", "Heartbeat",
+            "StartTransaction", "StopTransaction", "Authorize", "BootNotification"
+    };
+
+    private final RequestType[] outgoing = {
+            new RemoteStartTransactionRequest(), new RemoteStopTransactionRequest(), new ChangeAvailabilityRequest(),
+            new ChangeConfigurationRequest(), new GetConfigurationRequest(), new ResetRequest(),
+            new TriggerMessageRequest(), new UnlockConnectorRequest()
+    };
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(TypeStoreBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUP_COUNT)
+    public void findRequestClass(Blackhole bh) {
+        for (String action : actions) {
+            bh.consume(typeStore.findRequestClass(new String(action)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUP_COUNT)
+    public void findActionResponse(Blackhole bh) {
+        for (RequestType request : outgoing) {
+            bh.consume(typeStore.findActionResponse(request));
+        }
+    }
+}
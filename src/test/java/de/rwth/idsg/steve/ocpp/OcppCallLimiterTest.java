@@ -0,0 +1,200 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp;
+
+import de.rwth.idsg.steve.SteveConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+public class OcppCallLimiterTest {
+
+    private static final int MIN = 4;
+    private static final int MAX = 100;
+    private static final int TARGET_MILLIS = 100;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private OcppCallLimiter limiter;
+
+    @Before
+    public void setUp() {
+        limiter = limiter(true);
+    }
+
+    @Test
+    public void testPriorityShares() {
+        // 75% of the limit
+        Assert.assertEquals(75, acquireAll(OcppCallLimiter.Priority.NORMAL).size());
+
+        // 50%, used up by the others already
+        Assert.assertNull(limiter.acquire(OcppCallLimiter.Priority.DEFERRABLE));
+        Assert.assertEquals(1, limiter.getDeferred());
+
+        // the rest is left for the transaction messages
+        Assert.assertEquals(25, acquireAll(OcppCallLimiter.Priority.CRITICAL).size());
+        Assert.assertEquals(MAX, limiter.getInFlight());
+        Assert.assertEquals(2, limiter.getRejected());
+
+        // not limited at all
+        Assert.assertNotNull(limiter.acquire(OcppCallLimiter.Priority.UNLIMITED));
+        Assert.assertNotNull(limiter.acquireAtEntry("Heartbeat"));
+        Assert.assertEquals(MAX, limiter.getInFlight());
+    }
+
+    @Test
+    public void testPriorities() {
+        Assert.assertEquals(OcppCallLimiter.Priority.CRITICAL, OcppCallLimiter.getPriority("StartTransaction"));
+        Assert.assertEquals(OcppCallLimiter.Priority.CRITICAL, OcppCallLimiter.getPriority("StopTransaction"));
+        Assert.assertEquals(OcppCallLimiter.Priority.CRITICAL, OcppCallLimiter.getPriority("Authorize"));
+        Assert.assertEquals(OcppCallLimiter.Priority.DEFERRABLE, OcppCallLimiter.getPriority("MeterValues"));
+        Assert.assertEquals(OcppCallLimiter.Priority.UNLIMITED, OcppCallLimiter.getPriority("Heartbeat"));
+        Assert.assertEquals(OcppCallLimiter.Priority.NORMAL, OcppCallLimiter.getPriority("StatusNotification"));
+    }
+
+    @Test
+    public void testDeferrableAtEntry() {
+        acquireAll(OcppCallLimiter.Priority.CRITICAL);
+
+        // limited where they can be deferred, not at the entry
+        Assert.assertNotNull(limiter.acquireAtEntry("MeterValues"));
+        Assert.assertNull(limiter.acquireAtEntry("StatusNotification"));
+        Assert.assertNull(limiter.acquireAtEntry("StartTransaction"));
+    }
+
+    @Test
+    public void testRelease() {
+        List<OcppCallLimiter.Permit> permits = acquireAll(OcppCallLimiter.Priority.CRITICAL);
+        Assert.assertNull(limiter.acquire(OcppCallLimiter.Priority.CRITICAL));
+
+        permits.get(0).release();
+        Assert.assertEquals(MAX - 1, limiter.getInFlight());
+        Assert.assertNotNull(limiter.acquire(OcppCallLimiter.Priority.CRITICAL));
+    }
+
+    @Test
+    public void testMultiplicativeDecrease() {
+        int[] expected = {80, 64, 51, 40, 32, 25, 20, 16, 12, 9, 7, 5, MIN, MIN};
+        for (int limit : expected) {
+            recordQuery(TARGET_MILLIS * 2);
+            limiter.adjust();
+            Assert.assertEquals(limit, limiter.getLimit());
+        }
+    }
+
+    @Test
+    public void testDecreaseOnConnectionWait() {
+        registry.timer("hikaricp.connections.acquire", "pool", "test")
+                .record(TARGET_MILLIS * 2, TimeUnit.MILLISECONDS);
+        limiter.adjust();
+
+        Assert.assertEquals(80, limiter.getLimit());
+    }
+
+    @Test
+    public void testMeanOfTheLastInterval() {
+        recordQuery(TARGET_MILLIS * 2);
+        limiter.adjust();
+        Assert.assertEquals(80, limiter.getLimit());
+
+        // the slow query of the last interval does not count anymore
+        for (int i = 0; i < 10; i++) {
+            recordQuery(TARGET_MILLIS / 2);
+        }
+        limiter.adjust();
+        Assert.assertEquals(80, limiter.getLimit());
+    }
+
+    @Test
+    public void testAdditiveIncrease() {
+        recordQuery(TARGET_MILLIS * 2);
+        limiter.adjust();
+        recordQuery(TARGET_MILLIS * 2);
+        limiter.adjust();
+        Assert.assertEquals(64, limiter.getLimit());
+
+        // the limit is not used up
+        limiter.adjust();
+        Assert.assertEquals(64, limiter.getLimit());
+
+        // used up, and the database keeps up: a tenth more
+        acquireAll(OcppCallLimiter.Priority.CRITICAL).forEach(OcppCallLimiter.Permit::release);
+        limiter.adjust();
+        Assert.assertEquals(70, limiter.getLimit());
+
+        // up to the maximum
+        for (int i = 0; i < 10; i++) {
+            acquireAll(OcppCallLimiter.Priority.CRITICAL).forEach(OcppCallLimiter.Permit::release);
+            limiter.adjust();
+        }
+        Assert.assertEquals(MAX, limiter.getLimit());
+    }
+
+    @Test
+    public void testDisabled() {
+        OcppCallLimiter disabled = limiter(false);
+        for (int i = 0; i < MAX * 2; i++) {
+            Assert.assertNotNull(disabled.acquire(OcppCallLimiter.Priority.DEFERRABLE));
+        }
+        Assert.assertEquals(0, disabled.getInFlight());
+
+        recordQuery(TARGET_MILLIS * 2);
+        disabled.adjust();
+        Assert.assertEquals(MAX, disabled.getLimit());
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private OcppCallLimiter limiter(boolean enabled) {
+        SteveConfiguration.Ocpp config = SteveConfiguration.Ocpp.builder()
+                                                                .callLimiterEnabled(enabled)
+                                                                .callLimiterMin(MIN)
+                                                                .callLimiterMax(MAX)
+                                                                .callLimiterDbLatencyTargetMillis(TARGET_MILLIS)
+                                                                .build();
+
+        OcppCallLimiter limiter = new OcppCallLimiter(config);
+        ReflectionTestUtils.setField(limiter, "registry", registry);
+        return limiter;
+    }
+
+    private List<OcppCallLimiter.Permit> acquireAll(OcppCallLimiter.Priority priority) {
+        List<OcppCallLimiter.Permit> permits = new ArrayList<>();
+        OcppCallLimiter.Permit permit;
+        while ((permit = limiter.acquire(priority)) != null) {
+            permits.add(permit);
+        }
+        return permits;
+    }
+
+    private void recordQuery(long millis) {
+        registry.timer("steve.db.queries", "type", "select").record(millis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+public class BudgetedWebSocketSessionDecoratorTest {
+
+    private static final TextMessage MESSAGE = new TextMessage("[2,\"1\",\"Heartbeat\",{}]");
+
+    private final WebSocketMemoryBudget budget = new WebSocketMemoryBudget(1024 * 1024);
+    private final List<Object> sent = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void testSentMessageIsReleased() throws Exception {
+        BudgetedWebSocketSessionDecorator session = decorate(stub(null));
+
+        session.sendMessage(MESSAGE);
+
+        Assert.assertEquals(1, sent.size());
+        Assert.assertEquals(0, session.getReservedBytes());
+        Assert.assertEquals(0, budget.getUsedBytes());
+    }
+
+    @Test
+    public void testSendAfterClose() throws Exception {
+        BudgetedWebSocketSessionDecorator session = decorate(stub(null));
+
+        session.close(CloseStatus.GOING_AWAY);
+        session.sendMessage(MESSAGE);
+
+        Assert.assertEquals(0, sent.size());
+        Assert.assertEquals(0, budget.getUsedBytes());
+
+        session.releaseAll();
+        Assert.assertEquals(0, budget.getUsedBytes());
+    }
+
+    @Test
+    public void testSendAfterReleaseAll() throws Exception {
+        BudgetedWebSocketSessionDecorator session = decorate(stub(null));
+
+        session.releaseAll();
+        session.sendMessage(MESSAGE);
+        session.sendMessage(MESSAGE);
+
+        Assert.assertEquals(0, session.getReservedBytes());
+        Assert.assertEquals(0, budget.getUsedBytes());
+    }
+
+    @Test
+    public void testBufferedMessagesAreReleasedOnClose() throws Exception {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch unblock = new CountDownLatch(1);
+        BudgetedWebSocketSessionDecorator session = decorate(stub(() -> {
+            sending.countDown();
+            await(unblock);
+        }));
+
+        // the first message blocks in the delegate, so that the second one is buffered
+        Thread sender = new Thread(() -> {
+            try {
+                session.sendMessage(MESSAGE);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        sender.start();
+        await(sending);
+
+        session.sendMessage(MESSAGE);
+        Assert.assertEquals(2L * MESSAGE.getPayload().length(), budget.getUsedBytes());
+
+        session.close(CloseStatus.GOING_AWAY);
+        session.releaseAll();
+        Assert.assertEquals(0, budget.getUsedBytes());
+
+        // the message in flight completes after the release, and must not be released a second time
+        unblock.countDown();
+        sender.join(TimeUnit.SECONDS.toMillis(10));
+        Assert.assertEquals(0, session.getReservedBytes());
+        Assert.assertEquals(0, budget.getUsedBytes());
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private BudgetedWebSocketSessionDecorator decorate(WebSocketSession session) {
+        return new BudgetedWebSocketSessionDecorator(session, 10_000, 1024 * 1024, budget);
+    }
+
+    /**
+     * A session that records the sent messages and runs the hook (if any) while sending
+     */
+    private WebSocketSession stub(Runnable onSend) {
+        AtomicBoolean open = new AtomicBoolean(true);
+        return (WebSocketSession) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[]{WebSocketSession.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getId":
+                            return "session-1";
+                        case "getAttributes":
+                            return new HashMap<String, Object>();
+                        case "isOpen":
+                            return open.get();
+                        case "close":
+                            open.set(false);
+                            return null;
+                        case "sendMessage":
+                            if (onSend != null) {
+                                onSend.run();
+                            }
+                            sent.add(args[0]);
+                            return null;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "StubWebSocketSession";
+                        default:
+                            return method.getReturnType() == int.class ? 0 : null;
+                    }
+                });
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
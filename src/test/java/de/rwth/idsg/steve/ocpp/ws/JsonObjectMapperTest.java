@@ -0,0 +1,198 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.AnnotationIntrospector;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import com.fasterxml.jackson.module.jaxb.JaxbAnnotationIntrospector;
+import de.rwth.idsg.steve.ocpp.ws.ocpp12.Ocpp12JacksonModule;
+import de.rwth.idsg.steve.ocpp.ws.ocpp15.Ocpp15JacksonModule;
+import de.rwth.idsg.steve.ocpp.ws.ocpp16.Ocpp16JacksonModule;
+import ocpp.cs._2015._10.BootNotificationRequest;
+import ocpp.cs._2015._10.ChargePointErrorCode;
+import ocpp.cs._2015._10.ChargePointStatus;
+import ocpp.cs._2015._10.Measurand;
+import ocpp.cs._2015._10.MeterValuesRequest;
+import ocpp.cs._2015._10.StartTransactionRequest;
+import ocpp.cs._2015._10.StatusNotificationRequest;
+import ocpp.cs._2015._10.StopTransactionRequest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+import static com.fasterxml.jackson.core.JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN;
+import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_NULL_FOR_PRIMITIVES;
+
+/**
+ * The mapper with Blackbird has to read and write the OCPP messages exactly like the reflection-based mapper
+ * without it, which is configured here like JsonObjectMapper before Blackbird was added.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+public class JsonObjectMapperTest {
+
+    private static final ObjectMapper REFLECTION = reflectionMapper();
+    private static final ObjectMapper BLACKBIRD = JsonObjectMapper.INSTANCE.getMapper();
+
+    private static final String TIMESTAMP = "2026-10-19T10:15:30.000Z";
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        assertSameRoundTrip(BootNotificationRequest.class,
+                "{\"chargePointVendor\":\"vendor\",\"chargePointModel\":\"model\",\"firmwareVersion\":\"1.0\"}");
+
+        assertSameRoundTrip(StartTransactionRequest.class,
+                "{\"connectorId\":1,\"idTag\":\"tag\",\"meterStart\":1000,\"reservationId\":7,"
+                        + "\"timestamp\":\"" + TIMESTAMP + "\"}");
+
+        assertSameRoundTrip(StopTransactionRequest.class,
+                "{\"transactionId\":5,\"idTag\":\"tag\",\"meterStop\":2000,\"reason\":\"EVDisconnected\","
+                        + "\"timestamp\":\"" + TIMESTAMP + "\",\"transactionData\":[" + meterValue16() + "]}");
+
+        assertSameRoundTrip(MeterValuesRequest.class,
+                "{\"connectorId\":1,\"transactionId\":5,\"meterValue\":[" + meterValue16() + "]}");
+
+        assertSameRoundTrip(ocpp.cs._2012._06.MeterValuesRequest.class,
+                "{\"connectorId\":1,\"transactionId\":5,\"values\":[{\"timestamp\":\"" + TIMESTAMP + "\","
+                        + "\"values\":[{\"value\":\"12345\",\"measurand\":\"Energy.Active.Import.Register\"}]}]}");
+
+        assertSameRoundTrip(ocpp.cs._2010._08.StatusNotificationRequest.class,
+                "{\"connectorId\":1,\"status\":\"Occupied\",\"errorCode\":\"NoError\"}");
+    }
+
+    @Test
+    public void testNullForPrimitives() {
+        String json = "{\"transactionId\":null,\"meterStop\":2000,\"timestamp\":\"" + TIMESTAMP + "\"}";
+
+        for (ObjectMapper mapper : new ObjectMapper[]{REFLECTION, BLACKBIRD}) {
+            try {
+                mapper.readValue(json, StopTransactionRequest.class);
+                Assert.fail("A null transactionId must not become 0");
+            } catch (JsonMappingException e) {
+                Assert.assertTrue(e.getMessage(), e.getMessage().contains("transactionId"));
+            } catch (Exception e) {
+                Assert.fail(e.toString());
+            }
+        }
+    }
+
+    @Test
+    public void testEnumMixin() throws Exception {
+        // the values of the enums differ from their names
+        String json = "{\"connectorId\":1,\"status\":\"SuspendedEVSE\",\"errorCode\":\"EVCommunicationError\"}";
+
+        for (ObjectMapper mapper : new ObjectMapper[]{REFLECTION, BLACKBIRD}) {
+            StatusNotificationRequest request = mapper.readValue(json, StatusNotificationRequest.class);
+            Assert.assertEquals(ChargePointStatus.SUSPENDED_EVSE, request.getStatus());
+            Assert.assertEquals(ChargePointErrorCode.EV_COMMUNICATION_ERROR, request.getErrorCode());
+
+            String written = mapper.writeValueAsString(request);
+            Assert.assertTrue(written, written.contains("\"status\":\"SuspendedEVSE\""));
+            Assert.assertTrue(written, written.contains("\"errorCode\":\"EVCommunicationError\""));
+        }
+
+        String unknown = "{\"connectorId\":1,\"status\":\"Sleeping\",\"errorCode\":\"NoError\"}";
+        for (ObjectMapper mapper : new ObjectMapper[]{REFLECTION, BLACKBIRD}) {
+            try {
+                mapper.readValue(unknown, StatusNotificationRequest.class);
+                Assert.fail("Unknown status");
+            } catch (JsonMappingException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testMeterValue15Deserializer() throws Exception {
+        // the correct field name "value" and the wrong "values" of broken stations
+        for (String field : new String[]{"value", "values"}) {
+            String json = "{\"connectorId\":1,\"values\":[{\"timestamp\":\"" + TIMESTAMP + "\",\"" + field + "\":"
+                    + "[{\"value\":\"1\"},{\"value\":\"2\"}]}]}";
+
+            for (ObjectMapper mapper : new ObjectMapper[]{REFLECTION, BLACKBIRD}) {
+                ocpp.cs._2012._06.MeterValuesRequest request =
+                        mapper.readValue(json, ocpp.cs._2012._06.MeterValuesRequest.class);
+
+                List<ocpp.cs._2012._06.MeterValue> values = request.getValues();
+                Assert.assertEquals(field, 1, values.size());
+                Assert.assertNotNull(field, values.get(0).getTimestamp());
+                Assert.assertEquals(field, 2, values.get(0).getValue().size());
+                Assert.assertEquals(field, "2", values.get(0).getValue().get(1).getValue());
+            }
+        }
+    }
+
+    @Test
+    public void testMeasurand() throws Exception {
+        MeterValuesRequest request = BLACKBIRD.readValue(
+                "{\"connectorId\":1,\"meterValue\":[" + meterValue16() + "]}", MeterValuesRequest.class);
+
+        Assert.assertEquals(Measurand.ENERGY_ACTIVE_IMPORT_REGISTER,
+                request.getMeterValue().get(0).getSampledValue().get(0).getMeasurand());
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    /**
+     * Both mappers read the same object, and write the same JSON for it. They also write the same JSON for the object
+     * that the other one read.
+     */
+    private static <T> void assertSameRoundTrip(Class<T> clazz, String json) throws Exception {
+        T byReflection = REFLECTION.readValue(json, clazz);
+        T byBlackbird = BLACKBIRD.readValue(json, clazz);
+
+        String expected = REFLECTION.writeValueAsString(byReflection);
+        Assert.assertEquals(clazz.getName(), expected, BLACKBIRD.writeValueAsString(byBlackbird));
+        Assert.assertEquals(clazz.getName(), expected, BLACKBIRD.writeValueAsString(byReflection));
+        Assert.assertEquals(clazz.getName(), expected, REFLECTION.writeValueAsString(byBlackbird));
+    }
+
+    private static String meterValue16() {
+        return "{\"timestamp\":\"" + TIMESTAMP + "\",\"sampledValue\":["
+                + "{\"value\":\"12345.6\",\"context\":\"Sample.Periodic\","
+                + "\"measurand\":\"Energy.Active.Import.Register\",\"unit\":\"kWh\"},"
+                + "{\"value\":\"11.04\",\"measurand\":\"Power.Active.Import\",\"phase\":\"L1-N\",\"unit\":\"kW\"}]}";
+    }
+
+    private static ObjectMapper reflectionMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        mapper.configure(FAIL_ON_NULL_FOR_PRIMITIVES, true);
+        mapper.configure(WRITE_BIGDECIMAL_AS_PLAIN, true);
+
+        mapper.registerModule(new Ocpp12JacksonModule());
+        mapper.registerModule(new Ocpp15JacksonModule());
+        mapper.registerModule(new Ocpp16JacksonModule());
+
+        mapper.setAnnotationIntrospector(
+                AnnotationIntrospector.pair(
+                        new JacksonAnnotationIntrospector(),
+                        new JaxbAnnotationIntrospector(mapper.getTypeFactory())
+                )
+        );
+        return mapper;
+    }
+}
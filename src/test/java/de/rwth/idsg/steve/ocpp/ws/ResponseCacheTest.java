@@ -0,0 +1,125 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws;
+
+import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonCall;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+public class ResponseCacheTest {
+
+    private static final String STATION = "cb";
+
+    private final ResponseCache cache = new ResponseCache(2, 600);
+
+    @Test
+    public void testRetransmit() {
+        OcppJsonCall call = call("1", "MeterValues");
+        String incoming = incoming(call, "{\"connectorId\":1}");
+
+        Assert.assertNull(cache.get(STATION, call, incoming));
+        cache.put(STATION, call, incoming, "[3,\"1\",{}]");
+
+        Assert.assertEquals("[3,\"1\",{}]", cache.get(STATION, call, incoming));
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testCachedActionsOnly() {
+        for (String action : new String[]{"StartTransaction", "StopTransaction", "MeterValues", "StatusNotification"}) {
+            OcppJsonCall call = call(action, action);
+            String incoming = incoming(call, "{}");
+            cache.put(STATION, call, incoming, "response");
+            Assert.assertEquals(action, "response", cache.get(STATION, call, incoming));
+        }
+
+        // their responses must be current, e.g. the authorization status of an idTag
+        for (String action : new String[]{"Authorize", "BootNotification", "Heartbeat", "DataTransfer"}) {
+            OcppJsonCall call = call(action, action);
+            String incoming = incoming(call, "{}");
+            cache.put(STATION, call, incoming, "response");
+            Assert.assertNull(action, cache.get(STATION, call, incoming));
+        }
+    }
+
+    @Test
+    public void testSameMessageIdDifferentPayload() {
+        // e.g. the station restarted counting its message ids after a reboot
+        OcppJsonCall call = call("1", "MeterValues");
+        cache.put(STATION, call, incoming(call, "{\"connectorId\":1}"), "response");
+
+        Assert.assertNull(cache.get(STATION, call, incoming(call, "{\"connectorId\":2}")));
+
+        // the same hashCode(), but different calls
+        Assert.assertEquals("Aa".hashCode(), "BB".hashCode());
+        cache.put(STATION, call, "Aa", "response");
+        Assert.assertNull(cache.get(STATION, call, "BB"));
+    }
+
+    @Test
+    public void testPerStation() {
+        OcppJsonCall call = call("1", "MeterValues");
+        String incoming = incoming(call, "{}");
+        cache.put(STATION, call, incoming, "response");
+
+        Assert.assertNull(cache.get("other", call, incoming));
+    }
+
+    @Test
+    public void testSizePerStation() {
+        OcppJsonCall first = call("1", "MeterValues");
+        cache.put(STATION, first, incoming(first, "{}"), "response");
+        for (int i = 2; i <= 3; i++) {
+            OcppJsonCall call = call(String.valueOf(i), "MeterValues");
+            cache.put(STATION, call, incoming(call, "{}"), "response");
+        }
+
+        Assert.assertNull(cache.get(STATION, first, incoming(first, "{}")));
+    }
+
+    @Test
+    public void testTtl() {
+        ResponseCache expired = new ResponseCache(2, 0);
+        OcppJsonCall call = call("1", "MeterValues");
+        String incoming = incoming(call, "{}");
+        expired.put(STATION, call, incoming, "response");
+
+        Assert.assertNull(expired.get(STATION, call, incoming));
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private static OcppJsonCall call(String messageId, String action) {
+        OcppJsonCall call = new OcppJsonCall();
+        call.setMessageId(messageId);
+        call.setAction(action);
+        return call;
+    }
+
+    private static String incoming(OcppJsonCall call, String payload) {
+        return "[2,\"" + call.getMessageId() + "\",\"" + call.getAction() + "\"," + payload + "]";
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws.journal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+public class JournalSegmentWriterTest {
+
+    // 1, 2, 3 and 4 bytes in UTF-8
+    private static final byte[] PAYLOAD = "a\u00e9\u20ac\uD83D\uDE00".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void testNotTruncated() {
+        Assert.assertEquals(10, PAYLOAD.length);
+        Assert.assertEquals(10, JournalSegmentWriter.truncatedLength(PAYLOAD, 10));
+        Assert.assertEquals(10, JournalSegmentWriter.truncatedLength(PAYLOAD, 256));
+    }
+
+    @Test
+    public void testTruncatedAtCharacterBoundary() {
+        int[] expected = {0, 1, 1, 3, 3, 3, 6, 6, 6, 6};
+        for (int max = 0; max < expected.length; max++) {
+            int length = JournalSegmentWriter.truncatedLength(PAYLOAD, max);
+            Assert.assertEquals("max " + max, expected[max], length);
+
+            // the kept bytes decode without replacement characters
+            String decoded = new String(PAYLOAD, 0, length, StandardCharsets.UTF_8);
+            Assert.assertEquals(-1, decoded.indexOf('\uFFFD'));
+        }
+    }
+}
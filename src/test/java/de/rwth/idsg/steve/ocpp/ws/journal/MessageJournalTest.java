@@ -0,0 +1,67 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws.journal;
+
+import de.rwth.idsg.steve.SteveConfiguration;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+public class MessageJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testContinuesAfterFailedFrame() throws Exception {
+        MessageJournal journal = new MessageJournal(SteveConfiguration.Journal.builder()
+                                                                              .enabled(true)
+                                                                              .directory(folder.getRoot().getPath())
+                                                                              .samplePercent(100)
+                                                                              .segmentSizeBytes(64 * 1024)
+                                                                              .maxSegments(10)
+                                                                              .maxFrameBytes(1024)
+                                                                              .queueCapacity(100)
+                                                                              .build());
+        journal.init();
+
+        // cannot be encoded, i.e. the writer fails with a NullPointerException
+        journal.record("cb", JournalDirection.IN, null);
+        journal.record("cb", JournalDirection.IN, "[2,\"1\",\"Heartbeat\",{}]");
+
+        // writes the remaining frames before returning
+        journal.shutDown();
+
+        Assert.assertEquals(1, journal.getFailedFrames());
+        Assert.assertEquals(0, journal.getDroppedFrames());
+
+        List<JournalFrame> frames = new ArrayList<>();
+        new MessageJournalReader(folder.getRoot().toPath()).search("cb", Long.MIN_VALUE, Long.MAX_VALUE, frames::add);
+        Assert.assertEquals(1, frames.size());
+        Assert.assertEquals("[2,\"1\",\"Heartbeat\",{}]", frames.get(0).getPayload());
+    }
+}
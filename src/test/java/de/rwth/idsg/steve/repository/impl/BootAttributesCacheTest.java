@@ -0,0 +1,149 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository.impl;
+
+import de.rwth.idsg.steve.ocpp.OcppProtocol;
+import de.rwth.idsg.steve.repository.dto.UpdateChargeboxParams;
+import jooq.steve.db.tables.records.ChargeBoxRecord;
+import org.jooq.DSLContext;
+import org.jooq.Record;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
+import org.jooq.TableField;
+import org.jooq.impl.DSL;
+import org.jooq.tools.jdbc.MockConnection;
+import org.jooq.tools.jdbc.MockResult;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static jooq.steve.db.tables.ChargeBox.CHARGE_BOX;
+
+/**
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+public class BootAttributesCacheTest {
+
+    private static final String STATION = "cb";
+
+    private final BootAttributesCache cache = new BootAttributesCache();
+    private final AtomicInteger queries = new AtomicInteger();
+
+    @Test
+    public void testUnknownStation() {
+        DSLContext ctx = database(null);
+        UpdateChargeboxParams p = params("1.0");
+
+        Map<TableField<ChargeBoxRecord, String>, String> changed = cache.getChanged(ctx, p);
+
+        // the optional values that the station did not send are not written
+        Assert.assertEquals(4, changed.size());
+        Assert.assertEquals(OcppProtocol.V_16_JSON.getCompositeValue(), changed.get(CHARGE_BOX.OCPP_PROTOCOL));
+        Assert.assertEquals("vendor", changed.get(CHARGE_BOX.CHARGE_POINT_VENDOR));
+        Assert.assertEquals("model", changed.get(CHARGE_BOX.CHARGE_POINT_MODEL));
+        Assert.assertEquals("1.0", changed.get(CHARGE_BOX.FW_VERSION));
+        Assert.assertEquals(1, queries.get());
+    }
+
+    @Test
+    public void testLoadedOnce() {
+        DSLContext ctx = database(params("1.0"));
+        UpdateChargeboxParams p = params("1.0");
+
+        Assert.assertEquals(Collections.emptyMap(), cache.getChanged(ctx, p));
+        cache.persisted(p);
+
+        Assert.assertEquals(Collections.emptyMap(), cache.getChanged(ctx, p));
+        Assert.assertEquals(1, queries.get());
+    }
+
+    @Test
+    public void testOnlyChangedColumns() {
+        DSLContext ctx = database(null);
+        cache.persisted(params("1.0"));
+
+        Map<TableField<ChargeBoxRecord, String>, String> changed = cache.getChanged(ctx, params("1.1"));
+
+        Assert.assertEquals(Collections.singletonMap(CHARGE_BOX.FW_VERSION, "1.1"), changed);
+        Assert.assertEquals(0, queries.get());
+    }
+
+    @Test
+    public void testRemovedValue() {
+        DSLContext ctx = database(null);
+        cache.persisted(params("1.0"));
+
+        Map<TableField<ChargeBoxRecord, String>, String> changed = cache.getChanged(ctx, params(null));
+
+        Assert.assertEquals(Collections.singletonMap(CHARGE_BOX.FW_VERSION, null), changed);
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    /**
+     * Answers the select of the persisted columns with the given values, or with no row if they are null
+     */
+    private DSLContext database(UpdateChargeboxParams persisted) {
+        DSLContext create = DSL.using(SQLDialect.MYSQL);
+        MockConnection connection = new MockConnection(context -> {
+            queries.incrementAndGet();
+
+            // the order of the columns in the select
+            Result<Record> result = create.newResult(
+                    CHARGE_BOX.OCPP_PROTOCOL,
+                    CHARGE_BOX.CHARGE_POINT_VENDOR,
+                    CHARGE_BOX.CHARGE_POINT_MODEL,
+                    CHARGE_BOX.CHARGE_POINT_SERIAL_NUMBER,
+                    CHARGE_BOX.CHARGE_BOX_SERIAL_NUMBER,
+                    CHARGE_BOX.FW_VERSION,
+                    CHARGE_BOX.ICCID,
+                    CHARGE_BOX.IMSI,
+                    CHARGE_BOX.METER_TYPE,
+                    CHARGE_BOX.METER_SERIAL_NUMBER
+            );
+
+            if (persisted != null) {
+                Record r = create.newRecord(result.fields());
+                r.set(CHARGE_BOX.OCPP_PROTOCOL, persisted.getOcppProtocol().getCompositeValue());
+                r.set(CHARGE_BOX.CHARGE_POINT_VENDOR, persisted.getVendor());
+                r.set(CHARGE_BOX.CHARGE_POINT_MODEL, persisted.getModel());
+                r.set(CHARGE_BOX.FW_VERSION, persisted.getFwVersion());
+                result.add(r);
+            }
+            return new MockResult[]{new MockResult(result.size(), result)};
+        });
+        return DSL.using(connection, SQLDialect.MYSQL);
+    }
+
+    private static UpdateChargeboxParams params(String fwVersion) {
+        return UpdateChargeboxParams.builder()
+                                    .chargeBoxId(STATION)
+                                    .ocppProtocol(OcppProtocol.V_16_JSON)
+                                    .vendor("vendor")
+                                    .model("model")
+                                    .fwVersion(fwVersion)
+                                    .build();
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository.impl;
+
+import org.joda.time.DateTime;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.jooq.tools.jdbc.MockConnection;
+import org.jooq.tools.jdbc.MockResult;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.SQLTransientConnectionException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+public class HeartbeatWriterTest {
+
+    private final HeartbeatWriter writer = new HeartbeatWriter();
+
+    // chargeBoxId -> written timestamp
+    private final Map<String, Long> written = new HashMap<>();
+    private boolean available = true;
+
+    @Before
+    public void setUp() {
+        MockConnection connection = new MockConnection(context -> {
+            if (!available) {
+                throw new SQLTransientConnectionException("Connection is not available");
+            }
+
+            Object[][] bindings = context.batchBindings();
+            MockResult[] results = new MockResult[bindings.length];
+            for (int i = 0; i < bindings.length; i++) {
+                written.put((String) bindings[i][1], millis(bindings[i][0]));
+                results[i] = new MockResult(1, null);
+            }
+            return results;
+        });
+        ReflectionTestUtils.setField(writer, "ctx", DSL.using(connection, SQLDialect.MYSQL));
+    }
+
+    @Test
+    public void testLatestTimestamp() {
+        DateTime now = DateTime.now();
+        writer.add("cb", now.minusSeconds(5));
+        writer.add("cb", now);
+        writer.add("cb", now.minusSeconds(1));
+        writer.flush();
+
+        Assert.assertEquals(now.getMillis(), (long) written.get("cb"));
+    }
+
+    @Test
+    public void testRetryAfterFailure() {
+        DateTime now = DateTime.now();
+        writer.add("cb1", now);
+        writer.add("cb2", now);
+
+        available = false;
+        writer.flush();
+        Assert.assertTrue(written.isEmpty());
+
+        // a newer timestamp of the meantime wins over the failed one
+        writer.add("cb2", now.plusSeconds(1));
+
+        available = true;
+        writer.flush();
+        Assert.assertEquals(now.getMillis(), (long) written.get("cb1"));
+        Assert.assertEquals(now.plusSeconds(1).getMillis(), (long) written.get("cb2"));
+
+        // nothing left
+        written.clear();
+        writer.flush();
+        Assert.assertTrue(written.isEmpty());
+    }
+
+    private static long millis(Object timestamp) {
+        return timestamp instanceof Timestamp
+                ? ((Timestamp) timestamp).getTime()
+                : ((DateTime) timestamp).getMillis();
+    }
+}
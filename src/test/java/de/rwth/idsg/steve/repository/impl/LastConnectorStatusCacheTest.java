@@ -0,0 +1,101 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository.impl;
+
+import de.rwth.idsg.steve.repository.dto.InsertConnectorStatusParams;
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+public class LastConnectorStatusCacheTest {
+
+    private static final String STATION = "cb";
+
+    private final LastConnectorStatusCache cache = new LastConnectorStatusCache();
+
+    @Test
+    public void testUnknown() {
+        Assert.assertFalse(cache.isRepeat(params(STATION, 1, "Available", null)));
+    }
+
+    @Test
+    public void testRepeat() {
+        cache.inserted(params(STATION, 1, "Available", null));
+
+        // the timestamp does not matter
+        Assert.assertTrue(cache.isRepeat(params(STATION, 1, "Available", null)));
+    }
+
+    @Test
+    public void testChanged() {
+        cache.inserted(params(STATION, 1, "Available", null));
+
+        Assert.assertFalse(cache.isRepeat(params(STATION, 1, "Charging", null)));
+        Assert.assertFalse(cache.isRepeat(params(STATION, 1, "Available", "vendor error")));
+    }
+
+    @Test
+    public void testPerConnectorAndStation() {
+        cache.inserted(params(STATION, 1, "Available", null));
+
+        Assert.assertFalse(cache.isRepeat(params(STATION, 2, "Available", null)));
+        Assert.assertFalse(cache.isRepeat(params("other", 1, "Available", null)));
+    }
+
+    @Test
+    public void testLastInsertedWins() {
+        cache.inserted(params(STATION, 1, "Available", null));
+        cache.inserted(params(STATION, 1, "Charging", null));
+
+        Assert.assertFalse(cache.isRepeat(params(STATION, 1, "Available", null)));
+        Assert.assertTrue(cache.isRepeat(params(STATION, 1, "Charging", null)));
+    }
+
+    @Test
+    public void testInvalidate() {
+        cache.inserted(params(STATION, 1, "Available", null));
+        cache.inserted(params(STATION, 2, "Available", null));
+
+        // e.g. a transaction message inserted a status for the station
+        cache.invalidate(STATION);
+
+        Assert.assertFalse(cache.isRepeat(params(STATION, 1, "Available", null)));
+        Assert.assertFalse(cache.isRepeat(params(STATION, 2, "Available", null)));
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private static InsertConnectorStatusParams params(String chargeBoxId, int connectorId, String status,
+                                                      String vendorErrorCode) {
+        return InsertConnectorStatusParams.builder()
+                                          .chargeBoxId(chargeBoxId)
+                                          .connectorId(connectorId)
+                                          .timestamp(DateTime.now())
+                                          .status(status)
+                                          .errorCode("NoError")
+                                          .vendorErrorCode(vendorErrorCode)
+                                          .build();
+    }
+}
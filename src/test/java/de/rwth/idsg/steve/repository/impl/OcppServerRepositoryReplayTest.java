@@ -0,0 +1,156 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository.impl;
+
+import de.rwth.idsg.steve.ApplicationProfile;
+import de.rwth.idsg.steve.SteveConfiguration;
+import de.rwth.idsg.steve.config.BeanConfiguration;
+import de.rwth.idsg.steve.repository.dto.InsertTransactionParams;
+import de.rwth.idsg.steve.repository.dto.UpdateTransactionParams;
+import de.rwth.idsg.steve.repository.wal.WalEntry;
+import de.rwth.idsg.steve.repository.wal.WriteAheadLog;
+import de.rwth.idsg.steve.utils.__DatabasePreparer__;
+import jooq.steve.db.enums.TransactionStopEventActor;
+import ocpp.cs._2015._10.Measurand;
+import ocpp.cs._2015._10.MeterValue;
+import ocpp.cs._2015._10.SampledValue;
+import org.joda.time.DateTime;
+import org.jooq.DSLContext;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static jooq.steve.db.tables.ConnectorMeterValue.CONNECTOR_METER_VALUE;
+import static jooq.steve.db.tables.TransactionStop.TRANSACTION_STOP;
+
+/**
+ * The replay of write-ahead log entries against the test database: replaying an entry more than once (e.g. after a
+ * crash before the checkpoint was written) must not duplicate data.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+public class OcppServerRepositoryReplayTest {
+
+    private static final String REGISTERED_CHARGE_BOX_ID = __DatabasePreparer__.getRegisteredChargeBoxId();
+    private static final String REGISTERED_OCPP_TAG = __DatabasePreparer__.getRegisteredOcppTag();
+
+    private static DSLContext ctx;
+
+    private final OcppServerRepositoryImpl repository = new OcppServerRepositoryImpl();
+    private int transactionId;
+
+    @BeforeClass
+    public static void init() {
+        Assert.assertEquals(ApplicationProfile.TEST, SteveConfiguration.CONFIG.getProfile());
+        __DatabasePreparer__.prepare();
+        ctx = new BeanConfiguration().dslContext();
+    }
+
+    @AfterClass
+    public static void destroy() {
+        __DatabasePreparer__.cleanUp();
+    }
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(repository, "ctx", ctx);
+        // Disabled in the test profile, i.e. the writes always go to the database
+        ReflectionTestUtils.setField(repository, "writeAheadLog", new WriteAheadLog());
+
+        transactionId = repository.insertTransaction(
+                InsertTransactionParams.builder()
+                                       .chargeBoxId(REGISTERED_CHARGE_BOX_ID)
+                                       .connectorId(1)
+                                       .idTag(REGISTERED_OCPP_TAG)
+                                       .startTimestamp(DateTime.now().minusHours(1))
+                                       .startMeterValue("1000")
+                                       .eventTimestamp(DateTime.now().minusHours(1))
+                                       .build());
+    }
+
+    @Test
+    public void testMeterValues() {
+        DateTime now = DateTime.now();
+        WalEntry entry = WalEntry.meterValues(REGISTERED_CHARGE_BOX_ID, 1, transactionId,
+                Arrays.asList(meterValue(now.minusMinutes(2)), meterValue(now.minusMinutes(1))));
+
+        repository.replay(entry);
+        Assert.assertEquals(4, countMeterValues());
+
+        repository.replay(entry);
+        Assert.assertEquals(4, countMeterValues());
+
+        // a later entry with one known and one new timestamp only adds the new one
+        repository.replay(WalEntry.meterValues(REGISTERED_CHARGE_BOX_ID, 1, transactionId,
+                Arrays.asList(meterValue(now.minusMinutes(1)), meterValue(now))));
+        Assert.assertEquals(6, countMeterValues());
+    }
+
+    @Test
+    public void testStopTransaction() {
+        DateTime now = DateTime.now();
+        List<MeterValue> transactionData = Arrays.asList(meterValue(now.minusMinutes(1)), meterValue(now));
+        WalEntry entry = WalEntry.stopTransaction(
+                UpdateTransactionParams.builder()
+                                       .chargeBoxId(REGISTERED_CHARGE_BOX_ID)
+                                       .transactionId(transactionId)
+                                       .stopTimestamp(now)
+                                       .stopMeterValue("2000")
+                                       .stopReason("Local")
+                                       .eventActor(TransactionStopEventActor.station)
+                                       .eventTimestamp(now)
+                                       .transactionData(transactionData)
+                                       .build());
+
+        repository.replay(entry);
+        Assert.assertEquals(1, countStops());
+        Assert.assertEquals(4, countMeterValues());
+
+        repository.replay(entry);
+        Assert.assertEquals(1, countStops());
+        Assert.assertEquals(4, countMeterValues());
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private int countStops() {
+        return ctx.fetchCount(TRANSACTION_STOP, TRANSACTION_STOP.TRANSACTION_PK.equal(transactionId));
+    }
+
+    private int countMeterValues() {
+        return ctx.fetchCount(CONNECTOR_METER_VALUE, CONNECTOR_METER_VALUE.TRANSACTION_PK.equal(transactionId));
+    }
+
+    private static MeterValue meterValue(DateTime timestamp) {
+        return new MeterValue()
+                .withTimestamp(timestamp)
+                .withSampledValue(
+                        new SampledValue().withValue("12345.6").withMeasurand(Measurand.ENERGY_ACTIVE_IMPORT_REGISTER),
+                        new SampledValue().withValue("11.04").withMeasurand(Measurand.POWER_ACTIVE_IMPORT));
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository.wal;
+
+import de.rwth.idsg.steve.SteveConfiguration;
+import de.rwth.idsg.steve.repository.OcppServerRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+public class WriteAheadLogReplayerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<Integer> replayed = new CopyOnWriteArrayList<>();
+    private final AtomicInteger unavailableCalls = new AtomicInteger();
+
+    private WriteAheadLog wal;
+    private WriteAheadLogReplayer replayer;
+
+    @Before
+    public void setUp() throws Exception {
+        wal = new WriteAheadLog(SteveConfiguration.WriteAheadLog.builder()
+                                                                .enabled(true)
+                                                                .directory(folder.getRoot().getPath())
+                                                                .segmentSizeBytes(1024)
+                                                                .maxSegments(100)
+                                                                .build());
+        wal.init();
+
+        replayer = new WriteAheadLogReplayer();
+        ReflectionTestUtils.setField(replayer, "writeAheadLog", wal);
+        ReflectionTestUtils.setField(replayer, "ocppServerRepository", repository());
+        ReflectionTestUtils.setField(replayer, "registry", registry);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        replayer.shutDown();
+    }
+
+    @Test
+    public void testReplayInOrder() throws Exception {
+        for (int i = 1; i <= 20; i++) {
+            wal.append(entry("cb", i));
+        }
+
+        replayer.init();
+        awaitReplayed();
+
+        Assert.assertEquals(range(1, 20), replayed);
+        Assert.assertEquals(20, registry.get("steve.wal.replayed").tag("result", "success").functionCounter().count(),
+                0);
+    }
+
+    @Test
+    public void testRetryWhileUnavailable() throws Exception {
+        unavailableCalls.set(2);
+        for (int i = 1; i <= 5; i++) {
+            wal.append(entry("cb", i));
+        }
+
+        replayer.init();
+        awaitReplayed();
+
+        // nothing is lost or replayed twice, when the database fails in the middle of a batch
+        Assert.assertEquals(range(1, 5), replayed);
+    }
+
+    @Test
+    public void testDataErrorIsDeadLettered() throws Exception {
+        wal.append(entry("cb", 1));
+        wal.append(entry("broken", 2));
+        wal.append(entry("cb", 3));
+
+        replayer.init();
+        awaitReplayed();
+
+        Assert.assertEquals(Arrays.asList(1, 3), replayed);
+        Assert.assertEquals(1, registry.get("steve.wal.replayed").tag("result", "failure").functionCounter().count(),
+                0);
+
+        List<String> deadLetters = Files.readAllLines(folder.getRoot().toPath().resolve("dead-letter.log"));
+        Assert.assertEquals(1, deadLetters.size());
+        Assert.assertTrue(deadLetters.get(0).contains("\"chargeBoxId\":\"broken\""));
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    /**
+     * Records the transaction ids of the replayed entries. Fails the entries of the station "broken" because of their
+     * data, and the calls after the first replayed entry as long as the database is "unavailable".
+     */
+    private OcppServerRepository repository() {
+        return (OcppServerRepository) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[]{OcppServerRepository.class},
+                (proxy, method, args) -> {
+                    if (!"replay".equals(method.getName())) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+
+                    WalEntry entry = (WalEntry) args[0];
+                    if (!replayed.isEmpty() && unavailableCalls.getAndUpdate(i -> Math.max(0, i - 1)) > 0) {
+                        throw new RuntimeException(new SQLTransientConnectionException("Connection is not available"));
+                    }
+                    if ("broken".equals(entry.getChargeBoxId())) {
+                        throw new RuntimeException(new SQLException("Data too long for column", "22001", 1406));
+                    }
+                    replayed.add(entry.getTransactionId());
+                    return null;
+                });
+    }
+
+    private void awaitReplayed() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (wal.hasPending()) {
+            Assert.assertTrue("The replay did not finish in time", System.nanoTime() < deadline);
+            Thread.sleep(50);
+        }
+    }
+
+    private static List<Integer> range(int first, int last) {
+        Integer[] values = new Integer[last - first + 1];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = first + i;
+        }
+        return Arrays.asList(values);
+    }
+
+    private static WalEntry entry(String chargeBoxId, int transactionId) {
+        return WalEntry.meterValues(chargeBoxId, 1, transactionId, Collections.emptyList());
+    }
+}
@@ -0,0 +1,322 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository.wal;
+
+import com.google.common.base.Strings;
+import de.rwth.idsg.steve.SteveConfiguration;
+import de.rwth.idsg.steve.ocpp.ws.JsonObjectMapper;
+import ocpp.cs._2015._10.Measurand;
+import ocpp.cs._2015._10.MeterValue;
+import ocpp.cs._2015._10.SampledValue;
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+public class WriteAheadLogTest {
+
+    private static final int SMALL_SEGMENT = 1024;
+    private static final int LARGE_SEGMENT = 64 * 1024;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testAppendAndRotate() throws Exception {
+        WriteAheadLog wal = open(SMALL_SEGMENT, 100);
+        Assert.assertFalse(wal.hasPending());
+
+        for (int i = 1; i <= 20; i++) {
+            Assert.assertTrue(wal.append(entry("cb", i)));
+        }
+
+        Assert.assertTrue(wal.hasPending());
+        Assert.assertEquals(20, wal.getPendingEntries());
+        Assert.assertTrue(segments().size() > 1);
+        assertSequences(wal.readPending(100), 1, 20);
+    }
+
+    @Test
+    public void testFull() throws Exception {
+        WriteAheadLog wal = open(SMALL_SEGMENT, 2);
+
+        int appended = 0;
+        while (wal.append(entry("cb", appended + 1))) {
+            appended++;
+            Assert.assertTrue("The segments never got full", appended < 100);
+        }
+
+        Assert.assertEquals(2, segments().size());
+        Assert.assertEquals(appended, wal.getPendingEntries());
+    }
+
+    @Test
+    public void testAppendIfPending() throws Exception {
+        WriteAheadLog wal = open(SMALL_SEGMENT, 100);
+        Assert.assertFalse(wal.appendIfPending(entry("cb", 1)));
+
+        Assert.assertTrue(wal.append(entry("cb", 1)));
+        Assert.assertTrue(wal.appendIfPending(entry("cb", 2)));
+
+        wal.commit(2);
+        Assert.assertFalse(wal.appendIfPending(entry("cb", 3)));
+    }
+
+    @Test
+    public void testReadInBatches() throws Exception {
+        WriteAheadLog wal = open(SMALL_SEGMENT, 100);
+        for (int i = 1; i <= 20; i++) {
+            wal.append(entry("cb", i));
+        }
+
+        assertSequences(wal.readPending(7), 1, 7);
+        wal.commit(7);
+        assertSequences(wal.readPending(7), 8, 14);
+
+        // only a part of the batch was replayed: the rest is read again
+        wal.commit(10);
+        assertSequences(wal.readPending(7), 11, 17);
+
+        // nothing of the batch was replayed
+        assertSequences(wal.readPending(7), 11, 17);
+        wal.commit(17);
+
+        // entries appended in the meantime are read as well
+        wal.append(entry("cb", 21));
+        assertSequences(wal.readPending(100), 18, 21);
+    }
+
+    @Test
+    public void testCommitDeletesSegments() throws Exception {
+        WriteAheadLog wal = open(SMALL_SEGMENT, 100);
+        for (int i = 1; i <= 20; i++) {
+            wal.append(entry("cb", i));
+        }
+        int segmentsBefore = segments().size();
+
+        wal.readPending(100);
+        wal.commit(20);
+
+        Assert.assertFalse(wal.hasPending());
+        Assert.assertTrue(segments().size() < segmentsBefore);
+        Assert.assertEquals(1, segments().size()); // the one that is being written is kept
+        Assert.assertEquals("20", readCheckpoint());
+
+        // after a restart, the sequence numbers continue
+        WriteAheadLog reopened = open(SMALL_SEGMENT, 100);
+        Assert.assertFalse(reopened.hasPending());
+        Assert.assertTrue(reopened.readPending(100).isEmpty());
+
+        reopened.append(entry("cb", 21));
+        assertSequences(reopened.readPending(100), 21, 21);
+    }
+
+    @Test
+    public void testReopen() throws Exception {
+        WriteAheadLog wal = open(SMALL_SEGMENT, 100);
+        for (int i = 1; i <= 10; i++) {
+            wal.append(entry("cb", i));
+        }
+        wal.commit(4);
+
+        WriteAheadLog reopened = open(SMALL_SEGMENT, 100);
+        Assert.assertEquals(6, reopened.getPendingEntries());
+        assertSequences(reopened.readPending(100), 5, 10);
+    }
+
+    @Test
+    public void testReopenAfterTornEntry() throws Exception {
+        WriteAheadLog wal = open(LARGE_SEGMENT, 10);
+        for (int i = 1; i <= 3; i++) {
+            wal.append(entry("cb", 1));
+        }
+        // longer than the others, and its length is not written, as if it crashed in between
+        wal.append(entry(Strings.repeat("x", 100), 1));
+
+        int entryLength = JsonObjectMapper.INSTANCE.getMapper().writeValueAsBytes(entry("cb", 1)).length;
+        long tornPosition = Integer.BYTES + 3L * (Integer.BYTES + Long.BYTES + entryLength);
+        try (FileChannel channel = FileChannel.open(segments().get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES), tornPosition);
+        }
+
+        WriteAheadLog reopened = open(LARGE_SEGMENT, 10);
+        Assert.assertEquals(3, reopened.getPendingEntries());
+
+        // the new entry is shorter than the torn one, whose leftovers must not be read as an entry
+        Assert.assertTrue(reopened.append(entry("cb", 2)));
+        List<WriteAheadLog.Sequenced> entries = reopened.readPending(100);
+        assertSequences(entries, 1, 4);
+        Assert.assertEquals("cb", entries.get(3).getEntry().getChargeBoxId());
+        Assert.assertEquals(Integer.valueOf(2), entries.get(3).getEntry().getTransactionId());
+
+        Assert.assertEquals(4, open(LARGE_SEGMENT, 10).getPendingEntries());
+    }
+
+    @Test
+    public void testBrokenCheckpoint() throws Exception {
+        WriteAheadLog wal = open(SMALL_SEGMENT, 100);
+        for (int i = 1; i <= 3; i++) {
+            wal.append(entry("cb", i));
+        }
+        wal.commit(2);
+        Files.write(folder.getRoot().toPath().resolve("checkpoint"), new byte[0]);
+
+        // replays everything that is left, since the replay is idempotent
+        WriteAheadLog reopened = open(SMALL_SEGMENT, 100);
+        assertSequences(reopened.readPending(100), 1, 3);
+    }
+
+    @Test
+    public void testReadWhileAppending() throws Exception {
+        WriteAheadLog wal = open(SMALL_SEGMENT, 1000);
+        int count = 200;
+
+        // the replay reads and commits without the lock, while the entries are being appended and rotated
+        Thread appender = new Thread(() -> {
+            for (int i = 1; i <= count; i++) {
+                wal.append(entry("cb", i));
+            }
+        });
+        appender.start();
+
+        long expected = 1;
+        while (expected <= count) {
+            for (WriteAheadLog.Sequenced s : wal.readPending(7)) {
+                Assert.assertEquals(expected, s.getSequence());
+                Assert.assertEquals(Integer.valueOf((int) expected), s.getEntry().getTransactionId());
+                wal.commit(s.getSequence());
+                expected++;
+            }
+        }
+        appender.join();
+
+        Assert.assertFalse(wal.hasPending());
+        Assert.assertEquals(1, segments().size());
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        WriteAheadLog wal = open(SMALL_SEGMENT, 100);
+        WalEntry entry = entry("cb", 42);
+        wal.append(entry);
+
+        WalEntry read = wal.readPending(1).get(0).getEntry();
+        Assert.assertEquals(WalEntry.Type.METER_VALUES, read.getType());
+        Assert.assertEquals("cb", read.getChargeBoxId());
+        Assert.assertEquals(Integer.valueOf(1), read.getConnectorId());
+        Assert.assertEquals(Integer.valueOf(42), read.getTransactionId());
+        Assert.assertEquals(1, read.getMeterValues().size());
+
+        MeterValue expected = entry.getMeterValues().get(0);
+        MeterValue actual = read.getMeterValues().get(0);
+        Assert.assertEquals(expected.getTimestamp().getMillis(), actual.getTimestamp().getMillis());
+        Assert.assertEquals("12345.6", actual.getSampledValue().get(0).getValue());
+        Assert.assertEquals(Measurand.ENERGY_ACTIVE_IMPORT_REGISTER, actual.getSampledValue().get(0).getMeasurand());
+    }
+
+    @Test
+    public void testDeadLetter() throws Exception {
+        WriteAheadLog wal = open(SMALL_SEGMENT, 100);
+        wal.deadLetter(new WriteAheadLog.Sequenced(5, entry("cb", 1)),
+                new RuntimeException(new SQLException("Data too long for column", "22001", 1406)));
+
+        List<String> lines = Files.readAllLines(folder.getRoot().toPath().resolve("dead-letter.log"));
+        Assert.assertEquals(1, lines.size());
+        Assert.assertTrue(lines.get(0).contains("\"sequence\":5"));
+        Assert.assertTrue(lines.get(0).contains("Data too long for column"));
+        Assert.assertTrue(lines.get(0).contains("\"chargeBoxId\":\"cb\""));
+    }
+
+    @Test
+    public void testIsRetryable() {
+        Assert.assertTrue(WriteAheadLog.isRetryable(new SQLTransientConnectionException("Timeout")));
+        Assert.assertTrue(WriteAheadLog.isRetryable(new SQLRecoverableException("Connection reset")));
+        Assert.assertTrue(WriteAheadLog.isRetryable(new SQLException("Communications link failure", "08S01")));
+        Assert.assertTrue(WriteAheadLog.isRetryable(new SQLException("Deadlock found", "40001", 1213)));
+        Assert.assertTrue(WriteAheadLog.isRetryable(new SQLException("Lock wait timeout exceeded", "HY000", 1205)));
+        Assert.assertTrue(WriteAheadLog.isRetryable(
+                new RuntimeException(new SQLException("The server is running with --read-only", "HY000", 1290))));
+
+        Assert.assertFalse(WriteAheadLog.isRetryable(new SQLException("Duplicate entry", "23000", 1062)));
+        Assert.assertFalse(WriteAheadLog.isRetryable(new RuntimeException(new IllegalArgumentException())));
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private WriteAheadLog open(int segmentSizeBytes, int maxSegments) throws IOException {
+        WriteAheadLog wal = new WriteAheadLog(SteveConfiguration.WriteAheadLog.builder()
+                                                                            .enabled(true)
+                                                                            .directory(folder.getRoot().getPath())
+                                                                            .segmentSizeBytes(segmentSizeBytes)
+                                                                            .maxSegments(maxSegments)
+                                                                            .build());
+        wal.init();
+        return wal;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(folder.getRoot().toPath())) {
+            return files.filter(p -> p.getFileName().toString().startsWith("wal-"))
+                        .sorted()
+                        .collect(Collectors.toList());
+        }
+    }
+
+    private String readCheckpoint() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("checkpoint");
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+
+    private static void assertSequences(List<WriteAheadLog.Sequenced> entries, long first, long last) {
+        Assert.assertEquals(last - first + 1, entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            Assert.assertEquals(first + i, entries.get(i).getSequence());
+        }
+    }
+
+    private static WalEntry entry(String chargeBoxId, int transactionId) {
+        MeterValue value = new MeterValue()
+                .withTimestamp(new DateTime(1_600_000_000_000L))
+                .withSampledValue(
+                        new SampledValue().withValue("12345.6").withMeasurand(Measurand.ENERGY_ACTIVE_IMPORT_REGISTER));
+        return WalEntry.meterValues(chargeBoxId, 1, transactionId, Collections.singletonList(value));
+    }
+}
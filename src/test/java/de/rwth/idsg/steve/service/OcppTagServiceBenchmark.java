@@ -0,0 +1,78 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.service;
+
+import jooq.steve.db.tables.records.OcppTagActivityRecord;
+import ocpp.cs._2015._10.AuthorizationStatus;
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link OcppTagService#decideStatus(OcppTagActivityRecord, String, boolean)} for an accepted tag, which is the
+ * common case of Authorize and StartTransaction. Placed in this package, since the method is package-private.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class OcppTagServiceBenchmark {
+
+    private OcppTagActivityRecord record;
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(OcppTagServiceBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setup() {
+        record = new OcppTagActivityRecord();
+        record.setIdTag("04A2B3C4D5E6F7");
+        record.setExpiryDate(DateTime.now().plusYears(1));
+        record.setMaxActiveTransactionCount(2);
+        record.setActiveTransactionCount(1L);
+    }
+
+    @Benchmark
+    public AuthorizationStatus authorize() {
+        return OcppTagService.decideStatus(record, record.getIdTag(), false);
+    }
+
+    @Benchmark
+    public AuthorizationStatus startTransaction() {
+        return OcppTagService.decideStatus(record, record.getIdTag(), true);
+    }
+}
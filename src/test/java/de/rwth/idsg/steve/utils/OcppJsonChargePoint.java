@@ -144,8 +144,8 @@ public class OcppJsonChargePoint {
         call.setPayload(request);
         call.setAction(getOperationName(request));
 
-        // session is null, because we do not need org.springframework.web.socket.WebSocketSession
-        CommunicationContext ctx = new CommunicationContext(null, chargeBoxId);
+        // session context is null, because we only need the context for serialization
+        CommunicationContext ctx = new CommunicationContext(null);
         ctx.setOutgoingMessage(call);
 
         Serializer.INSTANCE.accept(ctx);
@@ -0,0 +1,501 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.rwth.idsg.ocpp.jaxb.RequestType;
+import de.rwth.idsg.steve.ocpp.OcppVersion;
+import de.rwth.idsg.steve.ocpp.ws.JsonObjectMapper;
+import de.rwth.idsg.steve.ocpp.ws.data.CommunicationContext;
+import de.rwth.idsg.steve.ocpp.ws.data.ErrorCode;
+import de.rwth.idsg.steve.ocpp.ws.data.MessageType;
+import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonCall;
+import de.rwth.idsg.steve.ocpp.ws.pipeline.Serializer;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ocpp.cs._2015._10.BootNotificationRequest;
+import ocpp.cs._2015._10.ChargePointErrorCode;
+import ocpp.cs._2015._10.ChargePointStatus;
+import ocpp.cs._2015._10.HeartbeatRequest;
+import ocpp.cs._2015._10.MeterValue;
+import ocpp.cs._2015._10.MeterValuesRequest;
+import ocpp.cs._2015._10.SampledValue;
+import ocpp.cs._2015._10.StartTransactionRequest;
+import ocpp.cs._2015._10.StatusNotificationRequest;
+import ocpp.cs._2015._10.StopTransactionRequest;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.StatusCode;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.eclipse.jetty.websocket.api.annotations.OnWebSocketClose;
+import org.eclipse.jetty.websocket.api.annotations.OnWebSocketConnect;
+import org.eclipse.jetty.websocket.api.annotations.OnWebSocketMessage;
+import org.eclipse.jetty.websocket.api.annotations.WebSocket;
+import org.eclipse.jetty.websocket.client.ClientUpgradeRequest;
+import org.eclipse.jetty.websocket.client.WebSocketClient;
+import org.joda.time.DateTime;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator for the OCPP 1.6 JSON endpoint. Unlike {@link StressTester}, the sending of a message
+ * does not wait for the response of the previous one: every action has its own fleet-wide rate and a ticker thread
+ * sends at the scheduled times, whether SteVe keeps up or not. The latency of a call is measured from its scheduled
+ * (not its actual) send time, so that a saturated server is not flattered by the generator falling behind.
+ *
+ * All sends are asynchronous and share one {@link WebSocketClient}, which makes tens of thousands of simulated
+ * stations possible. Beyond ~28k connections from one source address, the ephemeral port range of the OS has to
+ * be widened.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class OpenLoopLoadGenerator {
+
+    private static final long RESPONSE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    private final Settings settings;
+
+    private final ObjectMapper mapper = JsonObjectMapper.INSTANCE.getMapper();
+    private final AtomicLong messageIdCounter = new AtomicLong();
+    private final Map<String, PendingCall> pending = new ConcurrentHashMap<>();
+    private final Map<Action, ActionStats> statsPerAction = new EnumMap<>(Action.class);
+
+    private volatile boolean running;
+
+    @Getter
+    @Builder
+    public static class Settings {
+        private final String pathPrefix;
+        private final int stationCount;
+        private final int connectsPerSecond;
+        private final int connectorsPerStation;
+        private final int warmUpSeconds;
+        private final int measurementSeconds;
+
+        // fleet-wide messages per second
+        private final Map<Action, Double> ratesPerSecond;
+    }
+
+    public Map<String, Object> run() throws Exception {
+        for (Action action : Action.values()) {
+            statsPerAction.put(action, new ActionStats());
+        }
+
+        WebSocketClient client = new WebSocketClient();
+        client.setMaxIdleTimeout(TimeUnit.HOURS.toMillis(1));
+        client.start();
+
+        try {
+            List<Station> stations = connect(client);
+            log.info("{} of {} stations are connected", stations.size(), settings.getStationCount());
+
+            running = true;
+            List<Thread> tickers = startTickers(stations);
+
+            TimeUnit.SECONDS.sleep(settings.getWarmUpSeconds());
+            statsPerAction.values().forEach(ActionStats::reset);
+            log.info("Warm-up is finished, measuring for {} s", settings.getMeasurementSeconds());
+
+            TimeUnit.SECONDS.sleep(settings.getMeasurementSeconds());
+            running = false;
+            for (Thread ticker : tickers) {
+                ticker.join();
+            }
+
+            awaitResponses();
+            stations.forEach(Station::close);
+            return results(stations.size());
+        } finally {
+            client.stop();
+        }
+    }
+
+    public static void printResults(Map<String, Object> results, PrintStream out) {
+        out.printf("%-20s %9s %9s %9s %9s %9s %9s %9s %8s %8s %8s%n", "action", "count",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "p99.99 ms", "max ms", "errors", "sendFail", "timeout");
+
+        @SuppressWarnings("unchecked")
+        Map<String, ActionResult> actions = (Map<String, ActionResult>) results.get("actions");
+        actions.forEach((action, r) -> {
+            out.printf("%-20s %9d", action, r.getCount());
+            for (double p : PERCENTILES) {
+                out.printf(" %9.2f", r.getPercentilesMillis().get(String.valueOf(p)));
+            }
+            out.printf(" %9.2f %8d %8d %8d%n",
+                    r.getMaxMillis(), r.getCallErrors(), r.getSendFailures(), r.getTimeouts());
+        });
+    }
+
+    // -------------------------------------------------------------------------
+    // Actions
+    // -------------------------------------------------------------------------
+
+    @RequiredArgsConstructor
+    public enum Action {
+        BOOT_NOTIFICATION("BootNotification") {
+            @Override
+            RequestType create(Station station, ThreadLocalRandom random) {
+                return new BootNotificationRequest()
+                        .withChargePointVendor("LoadGenerator")
+                        .withChargePointModel("OpenLoop");
+            }
+        },
+        HEARTBEAT("Heartbeat") {
+            @Override
+            RequestType create(Station station, ThreadLocalRandom random) {
+                return new HeartbeatRequest();
+            }
+        },
+        STATUS_NOTIFICATION("StatusNotification") {
+            @Override
+            RequestType create(Station station, ThreadLocalRandom random) {
+                return new StatusNotificationRequest()
+                        .withConnectorId(station.randomConnectorId(random))
+                        .withErrorCode(ChargePointErrorCode.NO_ERROR)
+                        .withStatus(random.nextBoolean() ? ChargePointStatus.AVAILABLE : ChargePointStatus.CHARGING)
+                        .withTimestamp(DateTime.now());
+            }
+        },
+        METER_VALUES("MeterValues") {
+            @Override
+            RequestType create(Station station, ThreadLocalRandom random) {
+                return new MeterValuesRequest()
+                        .withConnectorId(station.randomConnectorId(random))
+                        .withMeterValue(new MeterValue()
+                                .withTimestamp(DateTime.now())
+                                .withSampledValue(new SampledValue()
+                                        .withValue(String.valueOf(random.nextInt(100_000)))));
+            }
+        },
+        START_TRANSACTION("StartTransaction") {
+            @Override
+            RequestType create(Station station, ThreadLocalRandom random) {
+                return new StartTransactionRequest()
+                        .withConnectorId(station.randomConnectorId(random))
+                        .withIdTag("LOAD" + random.nextInt(1_000))
+                        .withMeterStart(0)
+                        .withTimestamp(DateTime.now());
+            }
+        },
+        STOP_TRANSACTION("StopTransaction") {
+            @Override
+            RequestType create(Station station, ThreadLocalRandom random) {
+                Integer transactionId = station.openTransactions.poll();
+                if (transactionId == null) {
+                    return null;
+                }
+                return new StopTransactionRequest()
+                        .withTransactionId(transactionId)
+                        .withMeterStop(random.nextInt(1, 100_000))
+                        .withTimestamp(DateTime.now());
+            }
+        };
+
+        private final String ocppAction;
+
+        /**
+         * @return null, if the station is not in a state to send this action
+         */
+        abstract RequestType create(Station station, ThreadLocalRandom random);
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private List<Station> connect(WebSocketClient client) throws Exception {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(settings.getConnectsPerSecond(), 1);
+        long next = System.nanoTime();
+
+        Map<Station, Future<Session>> connects = new LinkedHashMap<>();
+        for (int i = 0; i < settings.getStationCount(); i++) {
+            parkUntil(next);
+            next += intervalNanos;
+
+            ClientUpgradeRequest request = new ClientUpgradeRequest();
+            request.setSubProtocols(OcppVersion.V_16.getValue());
+
+            Station station = new Station(String.format("LOAD-%06d", i));
+            URI uri = new URI(settings.getPathPrefix() + station.chargeBoxId);
+            connects.put(station, client.connect(station, uri, request));
+        }
+
+        List<Station> connected = new ArrayList<>(connects.size());
+        for (Map.Entry<Station, Future<Session>> entry : connects.entrySet()) {
+            try {
+                entry.getValue().get(30, TimeUnit.SECONDS);
+                connected.add(entry.getKey());
+            } catch (Exception e) {
+                log.warn("[chargeBoxId={}] Could not connect", entry.getKey().chargeBoxId, e);
+            }
+        }
+        return connected;
+    }
+
+    private List<Thread> startTickers(List<Station> stations) {
+        List<Thread> tickers = new ArrayList<>();
+        settings.getRatesPerSecond().forEach((action, rate) -> {
+            if (rate == null || rate <= 0 || stations.isEmpty()) {
+                return;
+            }
+            Thread ticker = new Thread(() -> tick(action, rate, stations), "LoadGenerator-" + action.ocppAction);
+            ticker.start();
+            tickers.add(ticker);
+        });
+        return tickers;
+    }
+
+    private void tick(Action action, double ratePerSecond, List<Station> stations) {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        long scheduled = System.nanoTime();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        while (running) {
+            parkUntil(scheduled);
+            stations.get(random.nextInt(stations.size())).send(action, scheduled, random);
+            scheduled += intervalNanos;
+        }
+    }
+
+    private void awaitResponses() {
+        long deadline = System.nanoTime() + RESPONSE_TIMEOUT_NANOS;
+        while (!pending.isEmpty() && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        for (PendingCall call : pending.values()) {
+            statsPerAction.get(call.action).timeouts.increment();
+        }
+    }
+
+    private Map<String, Object> results(int connectedStations) {
+        Map<String, ActionResult> actions = new LinkedHashMap<>();
+        statsPerAction.forEach((action, stats) -> {
+            Histogram histogram = stats.latenciesMicros.getIntervalHistogram();
+            if (histogram.getTotalCount() > 0 || stats.sendFailures.sum() > 0 || stats.timeouts.sum() > 0) {
+                actions.put(action.ocppAction, new ActionResult(histogram, stats));
+            }
+        });
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("timestamp", DateTime.now().toString());
+        results.put("stationCount", settings.getStationCount());
+        results.put("connectedStations", connectedStations);
+        results.put("warmUpSeconds", settings.getWarmUpSeconds());
+        results.put("measurementSeconds", settings.getMeasurementSeconds());
+        results.put("ratesPerSecond", settings.getRatesPerSecond());
+        results.put("actions", actions);
+        return results;
+    }
+
+    private static void parkUntil(long nanoTime) {
+        long waitNanos = nanoTime - System.nanoTime();
+        while (waitNanos > 0) {
+            LockSupport.parkNanos(waitNanos);
+            waitNanos = nanoTime - System.nanoTime();
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class PendingCall {
+        private final Action action;
+        private final long scheduledNanos;
+    }
+
+    private static class ActionStats {
+        // auto-resizing, 3 significant digits
+        private final Recorder latenciesMicros = new Recorder(3);
+        private final LongAdder callErrors = new LongAdder();
+        private final LongAdder sendFailures = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+
+        private void reset() {
+            latenciesMicros.reset();
+            callErrors.reset();
+            sendFailures.reset();
+            skipped.reset();
+            timeouts.reset();
+        }
+    }
+
+    @Getter
+    public static class ActionResult {
+        private final long count;
+        private final double meanMillis;
+        private final double maxMillis;
+        private final Map<String, Double> percentilesMillis = new LinkedHashMap<>();
+        private final long callErrors;
+        private final long sendFailures;
+        private final long skipped;
+        private final long timeouts;
+
+        private ActionResult(Histogram histogram, ActionStats stats) {
+            this.count = histogram.getTotalCount();
+            this.meanMillis = histogram.getMean() / 1000;
+            this.maxMillis = histogram.getMaxValue() / 1000.0;
+            for (double p : PERCENTILES) {
+                percentilesMillis.put(String.valueOf(p), histogram.getValueAtPercentile(p) / 1000.0);
+            }
+            this.callErrors = stats.callErrors.sum();
+            this.sendFailures = stats.sendFailures.sum();
+            this.skipped = stats.skipped.sum();
+            this.timeouts = stats.timeouts.sum();
+        }
+    }
+
+    @WebSocket
+    @RequiredArgsConstructor
+    public class Station {
+
+        private final String chargeBoxId;
+        private final Queue<Integer> openTransactions = new ConcurrentLinkedQueue<>();
+
+        private volatile Session session;
+
+        private int randomConnectorId(ThreadLocalRandom random) {
+            return random.nextInt(1, settings.getConnectorsPerStation() + 1);
+        }
+
+        @OnWebSocketConnect
+        public void onConnect(Session session) {
+            this.session = session;
+            send(Action.BOOT_NOTIFICATION, System.nanoTime(), ThreadLocalRandom.current());
+        }
+
+        @OnWebSocketClose
+        public void onClose(Session session, int statusCode, String reason) {
+            if (running) {
+                log.warn("[chargeBoxId={}] Connection is closed, status: {} {}", chargeBoxId, statusCode, reason);
+            }
+        }
+
+        @OnWebSocketMessage
+        public void onMessage(Session session, String msg) {
+            long receivedNanos = System.nanoTime();
+            try {
+                JsonNode message = mapper.readTree(msg);
+                MessageType messageType = MessageType.fromTypeNr(message.get(0).asInt());
+                String messageId = message.get(1).asText();
+
+                if (messageType == MessageType.CALL) {
+                    session.getRemote().sendStringByFuture(mapper.writeValueAsString(Arrays.asList(
+                            MessageType.CALL_ERROR.getTypeNr(), messageId, ErrorCode.NotImplemented.toString(),
+                            "Simulated station", new LinkedHashMap<>())));
+                    return;
+                }
+
+                PendingCall call = pending.remove(messageId);
+                if (call == null) {
+                    return; // already counted as timeout
+                }
+
+                ActionStats stats = statsPerAction.get(call.action);
+                stats.latenciesMicros.recordValue(TimeUnit.NANOSECONDS.toMicros(receivedNanos - call.scheduledNanos));
+
+                if (messageType == MessageType.CALL_ERROR) {
+                    stats.callErrors.increment();
+                } else if (call.action == Action.START_TRANSACTION) {
+                    JsonNode transactionId = message.get(2).get("transactionId");
+                    if (transactionId != null) {
+                        openTransactions.add(transactionId.asInt());
+                    }
+                }
+            } catch (Exception e) {
+                log.error("[chargeBoxId={}] Exception", chargeBoxId, e);
+            }
+        }
+
+        private void send(Action action, long scheduledNanos, ThreadLocalRandom random) {
+            ActionStats stats = statsPerAction.get(action);
+
+            RequestType request = action.create(this, random);
+            if (request == null) {
+                stats.skipped.increment();
+                return;
+            }
+
+            String messageId = Long.toString(messageIdCounter.incrementAndGet());
+
+            OcppJsonCall call = new OcppJsonCall();
+            call.setMessageId(messageId);
+            call.setAction(action.ocppAction);
+            call.setPayload(request);
+
+            // session context is null, because we only need the context for serialization
+            CommunicationContext ctx = new CommunicationContext(null);
+            ctx.setOutgoingMessage(call);
+            Serializer.INSTANCE.accept(ctx);
+
+            pending.put(messageId, new PendingCall(action, scheduledNanos));
+            try {
+                session.getRemote().sendString(ctx.getOutgoingString(), new WriteCallback() {
+                    @Override
+                    public void writeFailed(Throwable x) {
+                        failed(messageId, x);
+                    }
+
+                    @Override
+                    public void writeSuccess() {
+                        // the response completes the call
+                    }
+                });
+            } catch (Exception e) {
+                failed(messageId, e);
+            }
+        }
+
+        private void failed(String messageId, Throwable t) {
+            PendingCall call = pending.remove(messageId);
+            if (call != null) {
+                statsPerAction.get(call.action).sendFailures.increment();
+            }
+            log.debug("[chargeBoxId={}] Sending failed", chargeBoxId, t);
+        }
+
+        private void close() {
+            if (session != null && session.isOpen()) {
+                session.close(StatusCode.NORMAL, "Load test finished");
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.utils;
+
+import de.rwth.idsg.steve.ocpp.ws.journal.JournalDirection;
+import de.rwth.idsg.steve.ocpp.ws.journal.JournalFrame;
+import de.rwth.idsg.steve.ocpp.ws.journal.MessageJournalReader;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Extracts the CALLs that stations sent to SteVe from recorded OCPP-J traffic, ordered by the time they arrived.
+ * The traffic can be a journal directory (see {@link MessageJournalReader}) or log files written by
+ * WebSocketLogger with the default log pattern (plain or gzipped).
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+public final class TrafficRecording {
+
+    // [INFO ] 2026-10-19 08:00:00,123 ...WebSocketLogger (thread) - [chargeBoxId=X, sessionId=Y] Received: [2,...]
+    private static final Pattern LOG_LINE = Pattern.compile(
+            "^\\[\\w+\\s*] (\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2},\\d{3}) .*? - "
+                    + "\\[chargeBoxId=(.+?), sessionId=[^]]*] Received: (.*)$");
+
+    private static final DateTimeFormatter LOG_TIME = DateTimeFormat.forPattern("yyyy-MM-dd HH:mm:ss,SSS");
+
+    private TrafficRecording() { }
+
+    public static List<JournalFrame> fromJournal(Path directory) throws IOException {
+        List<JournalFrame> calls = new ArrayList<>();
+        new MessageJournalReader(directory).search(null, Long.MIN_VALUE, Long.MAX_VALUE, frame -> {
+            if (frame.getDirection() == JournalDirection.IN && isCall(frame.getPayload())) {
+                calls.add(frame);
+            }
+        });
+        return sorted(calls);
+    }
+
+    public static List<JournalFrame> fromLogs(List<Path> files) throws IOException {
+        List<JournalFrame> calls = new ArrayList<>();
+        for (Path file : files) {
+            try (BufferedReader reader = open(file)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    Matcher m = LOG_LINE.matcher(line);
+                    if (m.matches() && isCall(m.group(3))) {
+                        long timestamp = LOG_TIME.parseMillis(m.group(1));
+                        calls.add(new JournalFrame(timestamp, m.group(2), JournalDirection.IN, m.group(3)));
+                    }
+                }
+            }
+        }
+        return sorted(calls);
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private static BufferedReader open(Path file) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        if (file.getFileName().toString().endsWith(".gz")) {
+            in = new GZIPInputStream(in);
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The message type is the first element of the array: [2, "messageId", "Action", {...}]
+     */
+    private static boolean isCall(String payload) {
+        for (int i = 0; i < payload.length(); i++) {
+            char c = payload.charAt(i);
+            if (c != '[' && !Character.isWhitespace(c)) {
+                return c == '2';
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stable, so that the frames of a station with the same timestamp keep their recorded order.
+     */
+    private static List<JournalFrame> sorted(List<JournalFrame> calls) {
+        calls.sort(Comparator.comparingLong(JournalFrame::getTimestamp));
+        return calls;
+    }
+}
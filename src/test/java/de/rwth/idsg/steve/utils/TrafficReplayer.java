@@ -0,0 +1,315 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import de.rwth.idsg.steve.config.WebSocketConfiguration;
+import de.rwth.idsg.steve.ocpp.OcppVersion;
+import de.rwth.idsg.steve.ocpp.ws.data.ErrorCode;
+import de.rwth.idsg.steve.ocpp.ws.data.MessageType;
+import de.rwth.idsg.steve.ocpp.ws.journal.JournalFrame;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.StatusCode;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.eclipse.jetty.websocket.api.annotations.OnWebSocketClose;
+import org.eclipse.jetty.websocket.api.annotations.OnWebSocketMessage;
+import org.eclipse.jetty.websocket.api.annotations.WebSocket;
+import org.eclipse.jetty.websocket.client.ClientUpgradeRequest;
+import org.eclipse.jetty.websocket.client.WebSocketClient;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays recorded CALLs (see {@link TrafficRecording}) against a running SteVe instance. Every recorded station gets
+ * its own WebSocket connection and the CALLs are sent with their original spacing, divided by the speed factor.
+ *
+ * The message ids are rewritten, since stations are not required to keep them unique beyond a connection. CALLs of
+ * SteVe to the replayed stations are answered with a CALLERROR, because the recording only contains one side of them.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class TrafficReplayer {
+
+    private static final long RESPONSE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final OcppVersion version;
+    private final String pathPrefix;
+    private final double speed;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final AtomicLong messageIdCounter = new AtomicLong();
+    private final Map<String, ActionStats> statsPerAction = new ConcurrentHashMap<>();
+
+    private long maxLagNanos;
+
+    public void replay(List<JournalFrame> calls) throws Exception {
+        if (calls.isEmpty()) {
+            log.warn("Nothing to replay");
+            return;
+        }
+
+        WebSocketClient client = new WebSocketClient();
+        client.getPolicy().setMaxTextMessageSize(WebSocketConfiguration.MAX_MSG_SIZE);
+        client.start();
+
+        try {
+            Map<String, Station> stations = connect(client, calls);
+            log.info("Replaying {} CALLs of {} stations with speed factor {}", calls.size(), stations.size(), speed);
+
+            long startNanos = System.nanoTime();
+            long firstTimestamp = calls.get(0).getTimestamp();
+
+            for (JournalFrame call : calls) {
+                long dueNanos = startNanos + (long) ((call.getTimestamp() - firstTimestamp) * 1_000_000L / speed);
+                long waitNanos = dueNanos - System.nanoTime();
+                while (waitNanos > 0) {
+                    LockSupport.parkNanos(waitNanos);
+                    waitNanos = dueNanos - System.nanoTime();
+                }
+                maxLagNanos = Math.max(maxLagNanos, -waitNanos);
+
+                stations.get(call.getChargeBoxId()).send(call.getPayload());
+            }
+
+            awaitResponses(stations.values());
+
+            for (Station station : stations.values()) {
+                station.close();
+            }
+        } finally {
+            client.stop();
+        }
+    }
+
+    public void printReport(PrintStream out) {
+        out.printf("%-28s %8s %9s %9s %9s %9s %9s %8s %8s %8s%n",
+                "action", "count", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "errors", "sendFail", "timeout");
+
+        for (Map.Entry<String, ActionStats> entry : new TreeMap<>(statsPerAction).entrySet()) {
+            ActionStats stats = entry.getValue();
+            long[] latencies = stats.sortedLatencies();
+
+            out.printf("%-28s %8d", entry.getKey(), latencies.length);
+            for (double p : PERCENTILES) {
+                out.printf(" %9.2f", toMillis(percentile(latencies, p)));
+            }
+            out.printf(" %9.2f %8d %8d %8d%n",
+                    toMillis(latencies.length == 0 ? 0 : latencies[latencies.length - 1]),
+                    stats.callErrors.sum(), stats.sendFailures.sum(), stats.timeouts.sum());
+        }
+
+        out.printf("Max lag behind the recorded schedule: %.2f ms%n", toMillis(maxLagNanos));
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private Map<String, Station> connect(WebSocketClient client, List<JournalFrame> calls) throws Exception {
+        Map<String, Station> stations = new LinkedHashMap<>();
+        Map<Station, Future<Session>> connects = new LinkedHashMap<>();
+
+        for (JournalFrame call : calls) {
+            stations.computeIfAbsent(call.getChargeBoxId(), chargeBoxId -> {
+                ClientUpgradeRequest request = new ClientUpgradeRequest();
+                request.setSubProtocols(version.getValue());
+
+                Station station = new Station(chargeBoxId);
+                try {
+                    connects.put(station, client.connect(station, new URI(pathPrefix + chargeBoxId), request));
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+                return station;
+            });
+        }
+
+        for (Map.Entry<Station, Future<Session>> entry : connects.entrySet()) {
+            entry.getKey().session = entry.getValue().get(30, TimeUnit.SECONDS);
+        }
+        return stations;
+    }
+
+    private void awaitResponses(Iterable<Station> stations) {
+        long deadline = System.nanoTime() + RESPONSE_TIMEOUT_NANOS;
+
+        for (Station station : stations) {
+            while (!station.pending.isEmpty() && System.nanoTime() < deadline) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+            }
+            for (PendingCall call : station.pending.values()) {
+                stats(call.action).timeouts.increment();
+            }
+        }
+    }
+
+    private ActionStats stats(String action) {
+        return statsPerAction.computeIfAbsent(action, k -> new ActionStats());
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p / 100 * sorted.length) - 1;
+        return sorted[Math.max(index, 0)];
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    @RequiredArgsConstructor
+    private static class PendingCall {
+        private final String action;
+        private final long sentNanos;
+    }
+
+    private static class ActionStats {
+        private final List<Long> latencies = new ArrayList<>();
+        private final LongAdder callErrors = new LongAdder();
+        private final LongAdder sendFailures = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+
+        private synchronized void addLatency(long nanos) {
+            latencies.add(nanos);
+        }
+
+        private synchronized long[] sortedLatencies() {
+            long[] array = latencies.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(array);
+            return array;
+        }
+    }
+
+    @WebSocket
+    @RequiredArgsConstructor
+    public class Station {
+
+        private final String chargeBoxId;
+        private final Map<String, PendingCall> pending = new ConcurrentHashMap<>();
+
+        private volatile Session session;
+
+        @OnWebSocketClose
+        public void onClose(Session session, int statusCode, String reason) {
+            if (statusCode != StatusCode.NORMAL) {
+                log.warn("[chargeBoxId={}] Connection is closed, status: {} {}", chargeBoxId, statusCode, reason);
+            }
+        }
+
+        @OnWebSocketMessage
+        public void onMessage(Session session, String msg) {
+            long receivedNanos = System.nanoTime();
+            try {
+                JsonNode message = mapper.readTree(msg);
+                MessageType messageType = MessageType.fromTypeNr(message.get(0).asInt());
+                String messageId = message.get(1).asText();
+
+                switch (messageType) {
+                    case CALL:
+                        session.getRemote().sendStringByFuture(mapper.writeValueAsString(Arrays.asList(
+                                MessageType.CALL_ERROR.getTypeNr(), messageId, ErrorCode.NotImplemented.toString(),
+                                "Replayed station", new LinkedHashMap<>())));
+                        break;
+                    case CALL_RESULT:
+                    case CALL_ERROR:
+                        PendingCall call = pending.remove(messageId);
+                        if (call == null) {
+                            log.warn("[chargeBoxId={}] Unexpected response: {}", chargeBoxId, msg);
+                            return;
+                        }
+                        ActionStats stats = stats(call.action);
+                        stats.addLatency(receivedNanos - call.sentNanos);
+                        if (messageType == MessageType.CALL_ERROR) {
+                            stats.callErrors.increment();
+                        }
+                        break;
+                    default:
+                        log.warn("[chargeBoxId={}] Unknown message: {}", chargeBoxId, msg);
+                }
+            } catch (Exception e) {
+                log.error("[chargeBoxId={}] Exception", chargeBoxId, e);
+            }
+        }
+
+        private void send(String recordedCall) {
+            String messageId = Long.toString(messageIdCounter.incrementAndGet());
+            String action = "?";
+            try {
+                ArrayNode call = (ArrayNode) mapper.readTree(recordedCall);
+                action = call.get(2).asText();
+                call.set(1, call.textNode(messageId));
+
+                String text = mapper.writeValueAsString(call);
+                pending.put(messageId, new PendingCall(action, System.nanoTime()));
+                session.getRemote().sendString(text, new WriteCallback() {
+                    @Override
+                    public void writeFailed(Throwable x) {
+                        failed(messageId, x);
+                    }
+
+                    @Override
+                    public void writeSuccess() {
+                        // the response completes the call
+                    }
+                });
+            } catch (Exception e) {
+                pending.remove(messageId);
+                stats(action).sendFailures.increment();
+                log.debug("[chargeBoxId={}] Sending failed", chargeBoxId, e);
+            }
+        }
+
+        private void failed(String messageId, Throwable t) {
+            PendingCall call = pending.remove(messageId);
+            if (call != null) {
+                stats(call.action).sendFailures.increment();
+            }
+            log.debug("[chargeBoxId={}] Sending failed", chargeBoxId, t);
+        }
+
+        private void close() {
+            if (session != null && session.isOpen()) {
+                session.close(StatusCode.NORMAL, "Replay finished");
+            }
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/RWTH-i5-IDSG/steve
+ * Copyright (C) 2013-2020 RWTH Aachen University - Information Systems - Intelligent Distributed Systems Group (IDSG).
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.utils;
+
+import jooq.steve.db.enums.TransactionStopEventActor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.joda.time.DateTime;
+import org.jooq.DSLContext;
+import org.jooq.InsertValuesStep2;
+import org.jooq.InsertValuesStep4;
+import org.jooq.InsertValuesStep5;
+import org.jooq.InsertValuesStep6;
+import org.jooq.Record4;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static jooq.steve.db.tables.ChargeBox.CHARGE_BOX;
+import static jooq.steve.db.tables.Connector.CONNECTOR;
+import static jooq.steve.db.tables.ConnectorMeterValue.CONNECTOR_METER_VALUE;
+import static jooq.steve.db.tables.ConnectorStatus.CONNECTOR_STATUS;
+import static jooq.steve.db.tables.OcppTag.OCPP_TAG;
+import static jooq.steve.db.tables.TransactionStart.TRANSACTION_START;
+import static jooq.steve.db.tables.TransactionStop.TRANSACTION_STOP;
+
+/**
+ * Like {@link __DatabasePreparer__}, this bypasses SteVe and writes directly into the (already truncated) test
+ * database: stations, connectors, tags, transactions, connector statuses and meter values in the given amounts, with
+ * timestamps spread over the last year. The rows are inserted with multi-row statements, so that millions of rows
+ * take minutes and not hours.
+ *
+ * @author agent <agent@local>
+ * @since 19.10.2026
+ */
+@Slf4j
+public final class __DatabaseSeeder__ {
+
+    private static final int ROWS_PER_STATEMENT = 1_000;
+    private static final long ONE_YEAR_MILLIS = 365L * 24 * 60 * 60 * 1000;
+
+    // Durations of the stopped transactions
+    private static final long MIN_DURATION_MILLIS = 5L * 60 * 1000;
+    private static final long MAX_DURATION_MILLIS = 12L * 60 * 60 * 1000;
+
+    private __DatabaseSeeder__() { }
+
+    @Getter
+    @Builder
+    public static class Sizes {
+        private final int stations;
+        private final int connectorsPerStation;
+        private final int ocppTags;
+        private final int transactions;
+        private final int connectorStatuses;
+        private final int meterValues;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Seeded {
+        private final List<String> chargeBoxIds;
+        private final List<String> idTags;
+        private final int connectorsPerStation;
+        private final int[] transactionPks;
+    }
+
+    public static Seeded seed(DSLContext ctx, Sizes sizes) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long end = DateTime.now().getMillis();
+        long start = end - ONE_YEAR_MILLIS;
+
+        List<String> chargeBoxIds = names("seed_cb_", sizes.getStations());
+        List<String> idTags = names("seed_tag_", sizes.getOcppTags());
+
+        insertChunked(chargeBoxIds.size(), ROWS_PER_STATEMENT, (from, to) -> {
+            InsertValuesStep2<?, String, Boolean> step = ctx.insertInto(CHARGE_BOX,
+                    CHARGE_BOX.CHARGE_BOX_ID, CHARGE_BOX.INSERT_CONNECTOR_STATUS_AFTER_TRANSACTION_MSG);
+            for (int i = from; i < to; i++) {
+                step = step.values(chargeBoxIds.get(i), true);
+            }
+            step.execute();
+        });
+
+        insertChunked(chargeBoxIds.size(), ROWS_PER_STATEMENT / sizes.getConnectorsPerStation(), (from, to) -> {
+            InsertValuesStep2<?, String, Integer> step = ctx.insertInto(CONNECTOR,
+                    CONNECTOR.CHARGE_BOX_ID, CONNECTOR.CONNECTOR_ID);
+            for (int i = from; i < to; i++) {
+                for (int connectorId = 1; connectorId <= sizes.getConnectorsPerStation(); connectorId++) {
+                    step = step.values(chargeBoxIds.get(i), connectorId);
+                }
+            }
+            step.execute();
+        });
+
+        insertChunked(idTags.size(), ROWS_PER_STATEMENT, (from, to) -> {
+            InsertValuesStep2<?, String, Integer> step = ctx.insertInto(OCPP_TAG,
+                    OCPP_TAG.ID_TAG, OCPP_TAG.MAX_ACTIVE_TRANSACTION_COUNT);
+            for (int i = from; i < to; i++) {
+                step = step.values(idTags.get(i), -1);
+            }
+            step.execute();
+        });
+
+        int[] connectorPks = ctx.select(CONNECTOR.CONNECTOR_PK)
+                                .from(CONNECTOR)
+                                .fetch(CONNECTOR.CONNECTOR_PK)
+                                .stream()
+                                .mapToInt(Integer::intValue)
+                                .toArray();
+        log.info("Seeded {} stations, {} connectors and {} tags",
+                chargeBoxIds.size(), connectorPks.length, idTags.size());
+
+        insertChunked(sizes.getTransactions(), ROWS_PER_STATEMENT, (from, to) -> {
+            InsertValuesStep5<?, Integer, String, DateTime, String, DateTime> step =
+                    ctx.insertInto(TRANSACTION_START,
+                            TRANSACTION_START.CONNECTOR_PK, TRANSACTION_START.ID_TAG,
+                            TRANSACTION_START.START_TIMESTAMP, TRANSACTION_START.START_VALUE,
+                            TRANSACTION_START.EVENT_TIMESTAMP);
+            for (int i = from; i < to; i++) {
+                DateTime ts = new DateTime(start + random.nextLong(ONE_YEAR_MILLIS));
+                step = step.values(connectorPks[random.nextInt(connectorPks.length)],
+                        idTags.get(random.nextInt(idTags.size())), ts, String.valueOf(random.nextInt(1_000_000)), ts);
+            }
+            step.execute();
+        });
+
+        List<Record4<Integer, Integer, DateTime, String>> transactions =
+                ctx.select(TRANSACTION_START.TRANSACTION_PK, TRANSACTION_START.CONNECTOR_PK,
+                           TRANSACTION_START.START_TIMESTAMP, TRANSACTION_START.START_VALUE)
+                   .from(TRANSACTION_START)
+                   .fetch();
+
+        // all but the last tenth are stopped
+        int stopped = transactions.size() - transactions.size() / 10;
+        insertChunked(stopped, ROWS_PER_STATEMENT, (from, to) -> {
+            InsertValuesStep6<?, Integer, DateTime, TransactionStopEventActor, DateTime, String, String> step =
+                    ctx.insertInto(TRANSACTION_STOP,
+                            TRANSACTION_STOP.TRANSACTION_PK, TRANSACTION_STOP.EVENT_TIMESTAMP,
+                            TRANSACTION_STOP.EVENT_ACTOR, TRANSACTION_STOP.STOP_TIMESTAMP,
+                            TRANSACTION_STOP.STOP_VALUE, TRANSACTION_STOP.STOP_REASON);
+            for (int i = from; i < to; i++) {
+                Record4<Integer, Integer, DateTime, String> tx = transactions.get(i);
+
+                // after the start, but not in the future
+                long duration = random.nextLong(MIN_DURATION_MILLIS, MAX_DURATION_MILLIS);
+                DateTime ts = new DateTime(Math.min(tx.value3().getMillis() + duration, end));
+                int stopValue = Integer.parseInt(tx.value4()) + random.nextInt(1, 100_000);
+
+                step = step.values(tx.value1(), ts, TransactionStopEventActor.station, ts,
+                        String.valueOf(stopValue), "Local");
+            }
+            step.execute();
+        });
+        log.info("Seeded {} transactions, {} of them stopped", transactions.size(), stopped);
+
+        insertChunked(sizes.getConnectorStatuses(), ROWS_PER_STATEMENT, (from, to) -> {
+            InsertValuesStep4<?, Integer, DateTime, String, String> step = ctx.insertInto(CONNECTOR_STATUS,
+                    CONNECTOR_STATUS.CONNECTOR_PK, CONNECTOR_STATUS.STATUS_TIMESTAMP,
+                    CONNECTOR_STATUS.STATUS, CONNECTOR_STATUS.ERROR_CODE);
+            for (int i = from; i < to; i++) {
+                step = step.values(connectorPks[random.nextInt(connectorPks.length)],
+                        new DateTime(start + random.nextLong(ONE_YEAR_MILLIS)),
+                        random.nextBoolean() ? "Available" : "Charging", "NoError");
+            }
+            step.execute();
+        });
+        log.info("Seeded {} connector statuses", sizes.getConnectorStatuses());
+
+        if (!transactions.isEmpty()) {
+            insertChunked(sizes.getMeterValues(), ROWS_PER_STATEMENT, (from, to) -> {
+                InsertValuesStep6<?, Integer, Integer, DateTime, String, String, String> step =
+                        ctx.insertInto(CONNECTOR_METER_VALUE,
+                                CONNECTOR_METER_VALUE.CONNECTOR_PK, CONNECTOR_METER_VALUE.TRANSACTION_PK,
+                                CONNECTOR_METER_VALUE.VALUE_TIMESTAMP, CONNECTOR_METER_VALUE.VALUE,
+                                CONNECTOR_METER_VALUE.MEASURAND, CONNECTOR_METER_VALUE.UNIT);
+                for (int i = from; i < to; i++) {
+                    Record4<Integer, Integer, DateTime, String> tx =
+                            transactions.get(random.nextInt(transactions.size()));
+                    step = step.values(tx.value2(), tx.value1(),
+                            new DateTime(start + random.nextLong(ONE_YEAR_MILLIS)),
+                            String.valueOf(random.nextInt(1_000_000)), "Energy.Active.Import.Register", "Wh");
+                }
+                step.execute();
+            });
+            log.info("Seeded {} meter values", sizes.getMeterValues());
+        }
+
+        int[] transactionPks = transactions.stream().mapToInt(Record4::value1).toArray();
+        return new Seeded(chargeBoxIds, idTags, sizes.getConnectorsPerStation(), transactionPks);
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private interface Chunk {
+        void insert(int from, int to);
+    }
+
+    private static void insertChunked(int count, int chunkSize, Chunk chunk) {
+        int size = Math.max(chunkSize, 1);
+        for (int from = 0; from < count; from += size) {
+            chunk.insert(from, Math.min(from + size, count));
+        }
+    }
+
+    private static List<String> names(String prefix, int count) {
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            names.add(String.format("%s%07d", prefix, i));
+        }
+        return names;
+    }
+}